@@ -0,0 +1,188 @@
+// Traffic mix for ShareIt against a database seeded by the "loadtest" profile.
+//
+//   k6 run loadtest/k6/shareit.js
+//   k6 run -e BASE_URL=http://localhost:8080 -e RATE=500 -e DURATION=5m loadtest/k6/shareit.js
+//
+// The run exits with a non-zero code when any latency or error-rate threshold is crossed.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+// Must match shareit.loadtest.users / shareit.loadtest.items
+const USERS = Number(__ENV.USERS || 10000);
+const ITEMS = Number(__ENV.ITEMS || 50000);
+const RATE = Number(__ENV.RATE || 500);
+const DURATION = __ENV.DURATION || '3m';
+const SEED = Number(__ENV.SEED || 42);
+
+// Same vocabulary and formulas as LoadTestDataSeeder
+const WORDS = ['drill', 'saw', 'ladder', 'tent', 'bike', 'kayak', 'camera', 'projector', 'tripod', 'grill',
+    'mixer', 'vacuum', 'hammer', 'sander', 'scooter', 'speaker', 'router', 'stroller', 'snowboard', 'telescope'];
+const AREAS = ['center', 'north', 'south', 'east', 'west', 'suburbs'];
+const GOLDEN_RATIO_FRACTION = 0.6180339887498949;
+
+function ownerOf(itemId) {
+    const fraction = (itemId * GOLDEN_RATIO_FRACTION) % 1;
+    return 1 + Math.floor(USERS * fraction * fraction);
+}
+
+function isAvailable(itemId) {
+    return itemId % 20 !== 0;
+}
+
+// Deterministic per-VU generator (mulberry32), so two runs issue the same request sequence
+let state = 0;
+
+function random() {
+    if (state === 0) {
+        state = (SEED * 2654435761 + __VU) >>> 0 || 1;
+    }
+    state = (state + 0x6D2B79F5) >>> 0;
+    let t = state;
+    t = Math.imul(t ^ (t >>> 15), t | 1);
+    t ^= t + Math.imul(t ^ (t >>> 7), t | 61);
+    return ((t ^ (t >>> 14)) >>> 0) / 4294967296;
+}
+
+// Popular items are requested far more often, as in the seeded bookings
+function popularItem() {
+    const u = random();
+    return 1 + Math.floor(ITEMS * u * u * u);
+}
+
+// Owners of many items get proportionally more dashboard traffic
+function activeOwner() {
+    return ownerOf(popularItem());
+}
+
+function anyUser() {
+    return 1 + Math.floor(random() * USERS);
+}
+
+function headers(userId) {
+    return { headers: { 'X-Sharer-User-Id': String(userId), 'Content-Type': 'application/json' } };
+}
+
+function scenario(exec, share) {
+    return {
+        executor: 'constant-arrival-rate',
+        exec,
+        rate: Math.max(1, Math.round(RATE * share)),
+        timeUnit: '1s',
+        duration: DURATION,
+        preAllocatedVUs: Math.max(5, Math.round(RATE * share / 5)),
+        maxVUs: Math.max(20, Math.round(RATE * share)),
+    };
+}
+
+function latency(name, p95, p99) {
+    return { [`http_req_duration{scenario:${name}}`]: [`p(95)<${p95}`, `p(99)<${p99}`] };
+}
+
+export const options = {
+    scenarios: {
+        item_details: scenario('itemDetails', 0.30),
+        owner_bookings: scenario('ownerBookings', 0.20),
+        owner_items: scenario('ownerItems', 0.15),
+        search: scenario('search', 0.15),
+        requests_all: scenario('requestsAll', 0.10),
+        bookings_create: scenario('createBooking', 0.07),
+        items_create: scenario('createItem', 0.03),
+    },
+    thresholds: Object.assign(
+        {
+            http_req_failed: ['rate<0.01'],
+            checks: ['rate>0.99'],
+        },
+        latency('item_details', 100, 250),
+        latency('owner_bookings', 300, 800),
+        latency('owner_items', 200, 500),
+        latency('search', 200, 500),
+        latency('requests_all', 150, 400),
+        latency('bookings_create', 200, 500),
+        latency('items_create', 150, 400),
+    ),
+};
+
+export function itemDetails() {
+    const res = http.get(`${BASE_URL}/items/${popularItem()}`, Object.assign(headers(anyUser()),
+        { tags: { name: 'GET /items/{id}' } }));
+    check(res, { 'item 200': (r) => r.status === 200 });
+}
+
+export function ownerBookings() {
+    const owner = activeOwner();
+    // Most dashboards page through the list, the rest pull the full streamed list
+    const paged = random() < 0.8;
+    const url = paged
+        ? `${BASE_URL}/bookings/owner?state=ALL&from=0&size=20`
+        : `${BASE_URL}/bookings/owner?state=FUTURE`;
+    const res = http.get(url, Object.assign(headers(owner),
+        { tags: { name: paged ? 'GET /bookings/owner?size' : 'GET /bookings/owner' } }));
+    check(res, { 'owner bookings 200': (r) => r.status === 200 });
+}
+
+export function ownerItems() {
+    // First page, and for some owners the next page keyed on the last item id
+    const owner = activeOwner();
+    const res = http.get(`${BASE_URL}/items?size=20`, Object.assign(headers(owner), { tags: { name: 'GET /items?size' } }));
+    check(res, { 'owner items 200': (r) => r.status === 200 });
+    if (res.status === 200 && random() < 0.3) {
+        const page = res.json();
+        if (page.length === 20) {
+            const next = http.get(`${BASE_URL}/items?after=${page[page.length - 1].id}&size=20`,
+                Object.assign(headers(owner), { tags: { name: 'GET /items?after' } }));
+            check(next, { 'owner items next page 200': (r) => r.status === 200 });
+        }
+    }
+}
+
+export function search() {
+    const word = WORDS[Math.floor(random() * WORDS.length)];
+    if (random() < 0.3) {
+        const area = AREAS[Math.floor(random() * AREAS.length)];
+        const res = http.get(`${BASE_URL}/items/search/faceted?text=${word}&area=${area}&from=0&size=20`,
+            { tags: { name: 'GET /items/search/faceted' } });
+        check(res, { 'faceted search 200': (r) => r.status === 200 });
+        return;
+    }
+    const res = http.get(`${BASE_URL}/items/search?text=${word}&from=0&size=20`, { tags: { name: 'GET /items/search' } });
+    check(res, { 'search 200': (r) => r.status === 200 });
+}
+
+export function requestsAll() {
+    const from = Math.floor(random() * 5) * 10;
+    const res = http.get(`${BASE_URL}/requests/all?from=${from}&size=10`, Object.assign(headers(anyUser()),
+        { tags: { name: 'GET /requests/all' } }));
+    check(res, { 'requests 200': (r) => r.status === 200 });
+}
+
+export function createBooking() {
+    let itemId = popularItem();
+    while (!isAvailable(itemId)) {
+        itemId = popularItem();
+    }
+    let booker = anyUser();
+    if (booker === ownerOf(itemId)) {
+        booker = booker % USERS + 1;
+    }
+    // Every iteration gets its own hour far beyond the seeded range, so requests never overlap
+    const slot = (__VU * 100000 + __ITER) * 3600 * 1000;
+    const start = new Date(Date.UTC(2040, 0, 1) + slot);
+    const end = new Date(start.getTime() + 30 * 60 * 1000);
+    const body = JSON.stringify({
+        itemId,
+        start: start.toISOString().substring(0, 19),
+        end: end.toISOString().substring(0, 19),
+    });
+    const res = http.post(`${BASE_URL}/bookings`, body, Object.assign(headers(booker),
+        { tags: { name: 'POST /bookings' } }));
+    check(res, { 'booking created': (r) => r.status === 200 || r.status === 201 });
+}
+
+export function createItem() {
+    const word = WORDS[Math.floor(random() * WORDS.length)];
+    const body = JSON.stringify({ name: `${word} k6`, description: `Spare ${word}`, available: true });
+    const res = http.post(`${BASE_URL}/items`, body, Object.assign(headers(anyUser()), { tags: { name: 'POST /items' } }));
+    check(res, { 'item created': (r) => r.status === 200 || r.status === 201 });
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Завершенное бронирование, перенесенное в архивную таблицу.
+ * Сохраняет идентификатор исходного бронирования.
+ */
+@Entity
+@Table(name = "bookings_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchivedBooking {
+    @Id
+    private Long id;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDateTime start;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDateTime end;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booker_id", nullable = false)
+    private User booker;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private BookingStatus status;
+
+    @Column(name = "created")
+    private LocalDateTime created;
+
+    @Column(name = "decided")
+    private LocalDateTime decided;
+
+    @Column(name = "archived", nullable = false)
+    private LocalDateTime archived;
+}
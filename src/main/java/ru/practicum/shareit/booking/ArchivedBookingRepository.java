@@ -0,0 +1,69 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.owner.OwnerItemArchiveStats;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.List;
+
+/**
+ * Интерфейс репозитория архива завершенных бронирований.
+ */
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    /**
+     * Находит архивные бронирования пользователя, отсортированные по дате начала.
+     */
+    @Query("SELECT b FROM ArchivedBooking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.booker.id = :bookerId ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findByBookerId(@Param("bookerId") Long bookerId, Pageable pageable);
+
+    /**
+     * Находит архивные бронирования вещей владельца, отсортированные по дате начала.
+     */
+    @Query("SELECT b FROM ArchivedBooking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.item.owner.id = :ownerId ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findByItemOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    /**
+     * Считает статистику архивных бронирований по вещам владельца; вещи без архивных
+     * бронирований в результат не попадают.
+     */
+    @Query("SELECT i.id AS itemId, " +
+            "SUM(CASE WHEN b.status = 'APPROVED' THEN 1 ELSE 0 END) AS past, " +
+            "SUM(CASE WHEN b.status IN ('APPROVED', 'REJECTED') AND b.decided IS NOT NULL AND b.created IS NOT NULL " +
+            "THEN EXTRACT(EPOCH FROM b.decided) - EXTRACT(EPOCH FROM b.created) END) AS turnaroundSeconds, " +
+            "SUM(CASE WHEN b.status IN ('APPROVED', 'REJECTED') AND b.decided IS NOT NULL AND b.created IS NOT NULL " +
+            "THEN 1 ELSE 0 END) AS decidedCount " +
+            "FROM ArchivedBooking b JOIN b.item i " +
+            "WHERE i.owner.id = :ownerId " +
+            "GROUP BY i.id")
+    List<OwnerItemArchiveStats> getOwnerItemArchiveStats(@Param("ownerId") Long ownerId);
+
+    boolean existsByItemIdAndBookerIdAndStatus(Long itemId, Long bookerId, BookingStatus status);
+
+    /**
+     * Находит последнее архивное бронирование вещи с указанным статусом.
+     */
+    @Query("SELECT b FROM ArchivedBooking b JOIN FETCH b.booker " +
+            "WHERE b.item.id = :itemId AND b.status = :status ORDER BY b.end DESC LIMIT 1")
+    Optional<ArchivedBooking> findLastByItemIdAndStatus(@Param("itemId") Long itemId,
+                                                        @Param("status") BookingStatus status);
+
+    /**
+     * Копирует бронирования из основной таблицы в архив.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO bookings_archive " +
+            "(id, start_date, end_date, item_id, booker_id, status, created, decided, archived) " +
+            "SELECT id, start_date, end_date, item_id, booker_id, status, created, decided, :now " +
+            "FROM bookings WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromBookings(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+}
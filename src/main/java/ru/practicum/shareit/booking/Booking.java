@@ -5,6 +5,7 @@ import lombok.*;
 
 import java.time.LocalDateTime;
 
+import ru.practicum.shareit.booking.dto.BookingPhase;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.user.User;
@@ -18,7 +19,8 @@ import ru.practicum.shareit.user.User;
 @Builder
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -38,4 +40,14 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false, length = 20)
     private BookingStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", length = 10)
+    private BookingPhase phase;
+
+    @Column(name = "created")
+    private LocalDateTime created;
+
+    @Column(name = "decided")
+    private LocalDateTime decided;
 }
\ No newline at end of file
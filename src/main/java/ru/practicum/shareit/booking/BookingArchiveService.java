@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.web.ResourceVersions;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Архивация старых бронирований.
+ * Завершенные бронирования старше горизонта архивации переносятся порциями в таблицу
+ * bookings_archive, чтобы основная таблица и ее индексы содержали только актуальные данные.
+ * Каждая порция переносится в отдельной транзакции.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingArchiveService {
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final ResourceVersions resourceVersions;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shareit.booking-archive.horizon:P365D}")
+    private Duration horizon;
+
+    @Value("${shareit.booking-archive.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${shareit.booking-archive.interval-ms:3600000}",
+            fixedDelayString = "${shareit.booking-archive.interval-ms:3600000}")
+    public void archive() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(horizon);
+        int total = 0;
+        int moved;
+        do {
+            Integer batch = transactionTemplate.execute(status -> archiveBatch(cutoff, now));
+            moved = batch != null ? batch : 0;
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            log.info("Archived {} bookings that ended before {}", total, cutoff);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff, LocalDateTime now) {
+        List<DueBooking> due = bookingRepository.findToArchive(cutoff, PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = due.stream().map(DueBooking::getId).collect(Collectors.toList());
+        archivedBookingRepository.copyFromBookings(ids, now);
+        bookingRepository.deleteByIds(ids);
+        due.stream().map(DueBooking::getOwnerId).distinct().forEach(resourceVersions::touchOwner);
+        return ids.size();
+    }
+}
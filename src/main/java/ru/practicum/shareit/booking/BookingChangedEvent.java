@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingWithUserDto;
+
+/**
+ * Событие об изменении бронирования (создание, смена статуса, удаление).
+ * Публикуется {@link BookingService} и позволяет кешам, зависящим от бронирований, сбрасывать свои данные.
+ */
+@Getter
+@RequiredArgsConstructor
+public class BookingChangedEvent {
+    private final Long bookingId;
+    private final Long itemId;
+    private final Long ownerId;
+
+    /**
+     * Новое состояние бронирования; null, если бронирование удалено.
+     */
+    private final BookingWithUserDto booking;
+}
@@ -2,11 +2,20 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingWithUserDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.db.SqlBudget;
+import ru.practicum.shareit.idempotency.IdempotencyService;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
@@ -14,12 +23,16 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
     private final BookingService bookingService;
+    private final BookingStreamHub bookingStreamHub;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
     public BookingWithUserDto create(@RequestBody BookingCreateDto bookingCreateDto,
-                                     @RequestHeader("X-Sharer-User-Id") Long bookerId) {
+                                     @RequestHeader("X-Sharer-User-Id") Long bookerId,
+                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("POST /bookings - Creating booking: {}, bookerId: {}", bookingCreateDto, bookerId);
-        BookingWithUserDto result = bookingService.create(bookingCreateDto, bookerId);  // ← ИЗМЕНИ ТИП
+        BookingWithUserDto result = idempotencyService.execute(bookerId, "POST /bookings", idempotencyKey,
+                bookingCreateDto, BookingWithUserDto.class, () -> bookingService.create(bookingCreateDto, bookerId));
         log.info("POST /bookings - Booking created successfully: {}", result);
         return result;
     }
@@ -42,24 +55,62 @@ public class BookingController {
         return result;
     }
 
+    @SqlBudget(4)
+    @PatchMapping("/owner/decisions")
+    public List<BookingDecisionResultDto> decideAll(@RequestBody List<BookingDecisionDto> decisions,
+                                                    @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        log.info("PATCH /bookings/owner/decisions - Deciding {} bookings, ownerId: {}", decisions.size(), ownerId);
+        List<BookingDecisionResultDto> result = bookingService.decideAll(decisions, ownerId);
+        log.info("PATCH /bookings/owner/decisions - Decisions applied: {}", result.stream()
+                .collect(Collectors.groupingBy(BookingDecisionResultDto::getOutcome, Collectors.counting())));
+        return result;
+    }
+
+    @SqlBudget(4)
     @GetMapping
     public List<BookingWithUserDto> getByBookerId(@RequestHeader("X-Sharer-User-Id") Long bookerId,
-                                                  @RequestParam(defaultValue = "ALL") String state) {
+                                                  @RequestParam(defaultValue = "ALL") String state,
+                                                  @RequestParam(defaultValue = "0") int from,
+                                                  @RequestParam(required = false) Integer size) {
         log.info("GET /bookings - Getting bookings for bookerId: {}, state: {}", bookerId, state);
-        List<BookingWithUserDto> result = bookingService.getByBookerId(bookerId, state);
+        List<BookingWithUserDto> result = bookingService.getByBookerId(bookerId, state, from, size);
         log.info("GET /bookings - Found {} bookings for bookerId: {}", result.size(), bookerId);
         return result;
     }
 
-    @GetMapping("/owner")
+    @SqlBudget(4)
+    @GetMapping(value = "/owner", params = "size")
     public List<BookingWithUserDto> getByOwnerId(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                                 @RequestParam(defaultValue = "ALL") String state) {
+                                                 @RequestParam(defaultValue = "ALL") String state,
+                                                 @RequestParam(defaultValue = "0") int from,
+                                                 @RequestParam(required = false) Integer size) {
         log.info("GET /bookings/owner - Getting bookings for ownerId: {}, state: {}", ownerId, state);
-        List<BookingWithUserDto> result = bookingService.getByOwnerId(ownerId, state);
+        List<BookingWithUserDto> result = bookingService.getByOwnerId(ownerId, state, from, size);
         log.info("GET /bookings/owner - Found {} bookings for ownerId: {}", result.size(), ownerId);
         return result;
     }
 
+    /**
+     * Полный (без постраничного вывода) список бронирований владельца отдается потоково.
+     * Запросы, выполняемые при записи ответа в асинхронном потоке (для ALL и PAST - еще и к архиву),
+     * входят в бюджет.
+     */
+    @SqlBudget(4)
+    @GetMapping(value = "/owner", params = "!size")
+    public ResponseEntity<StreamingResponseBody> streamByOwnerId(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                                 @RequestParam(defaultValue = "ALL") String state) {
+        log.info("GET /bookings/owner - Streaming bookings for ownerId: {}, state: {}", ownerId, state);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(bookingService.streamByOwnerId(ownerId, state));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("GET /bookings/stream - Subscribing userId: {}", userId);
+        return bookingStreamHub.subscribe(userId);
+    }
+
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
         log.info("DELETE /bookings/{} - Deleting booking", id);
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingPhase;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.exception.ValidationException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Потоковая выдача списка бронирований владельца в JSON.
+ * Строки результата запроса пишутся прямо в {@link JsonGenerator} без создания сущностей
+ * и промежуточных DTO. Формат ответа совпадает с сериализацией {@code BookingWithUserDto},
+ * порядок - с постраничной выдачей: для ALL и PAST за актуальными бронированиями идут архивные.
+ */
+@Component
+public class BookingJsonWriter {
+    private static final String COLUMNS = "SELECT b.id, b.start_date, b.end_date, b.status, " +
+            "i.id AS item_id, i.name AS item_name, i.description, i.is_available, " +
+            "u.id AS booker_id, u.name AS booker_name, u.email ";
+    private static final String JOINS = "JOIN items i ON i.id = b.item_id " +
+            "JOIN users u ON u.id = b.booker_id " +
+            "WHERE i.owner_id = ? AND i.deleted_at IS NULL AND u.deleted_at IS NULL";
+    private static final String OWNER_BOOKINGS_SQL = COLUMNS + "FROM bookings b " + JOINS;
+    private static final String ORDER = " ORDER BY b.start_date DESC, b.id DESC";
+    private static final String OWNER_ARCHIVE_SQL = COLUMNS + "FROM bookings_archive b " + JOINS + ORDER;
+
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookingJsonWriter(ObjectMapper objectMapper, DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${shareit.booking-json.fetch-size:500}") int fetchSize) {
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // PostgreSQL читает результат порциями только внутри транзакции и с заданным fetch size
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Возвращает тело ответа со списком бронирований вещей владельца в указанном состоянии.
+     */
+    public StreamingResponseBody ownerBookings(Long ownerId, String state) {
+        String sql;
+        Object[] args;
+        switch (state.toUpperCase()) {
+            case "ALL":
+                sql = OWNER_BOOKINGS_SQL;
+                args = new Object[]{ownerId};
+                break;
+            case "CURRENT":
+            case "PAST":
+            case "FUTURE":
+                sql = OWNER_BOOKINGS_SQL + " AND b.phase = ?";
+                args = new Object[]{ownerId, BookingPhase.valueOf(state.toUpperCase()).name()};
+                break;
+            case "WAITING":
+            case "REJECTED":
+            case "EXPIRED":
+                sql = OWNER_BOOKINGS_SQL + " AND b.status = ?";
+                args = new Object[]{ownerId, BookingStatus.valueOf(state.toUpperCase()).name()};
+                break;
+            default:
+                throw new ValidationException("Unknown state: " + state);
+        }
+        String orderedSql = sql + ORDER;
+        boolean withArchive = state.equalsIgnoreCase("ALL") || state.equalsIgnoreCase("PAST");
+
+        return out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                RowCallbackHandler writer = rs -> writeBooking(generator, rs);
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.query(orderedSql, writer, args);
+                    if (withArchive) {
+                        jdbcTemplate.query(OWNER_ARCHIVE_SQL, writer, ownerId);
+                    }
+                });
+                generator.writeEndArray();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private void writeBooking(JsonGenerator generator, ResultSet rs) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong("id"));
+            generator.writeFieldName("start");
+            generator.writeObject(rs.getObject("start_date", LocalDateTime.class));
+            generator.writeFieldName("end");
+            generator.writeObject(rs.getObject("end_date", LocalDateTime.class));
+
+            generator.writeObjectFieldStart("item");
+            generator.writeNumberField("id", rs.getLong("item_id"));
+            generator.writeStringField("name", rs.getString("item_name"));
+            generator.writeStringField("description", rs.getString("description"));
+            generator.writeBooleanField("available", rs.getBoolean("is_available"));
+            generator.writeNullField("requestId");
+            generator.writeNullField("category");
+            generator.writeNullField("area");
+            generator.writeNullField("lastBooking");
+            generator.writeNullField("nextBooking");
+            generator.writeNullField("comments");
+            generator.writeEndObject();
+
+            generator.writeObjectFieldStart("booker");
+            generator.writeNumberField("id", rs.getLong("booker_id"));
+            generator.writeStringField("name", rs.getString("booker_name"));
+            generator.writeStringField("email", rs.getString("email"));
+            generator.writeEndObject();
+
+            generator.writeStringField("status", rs.getString("status"));
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
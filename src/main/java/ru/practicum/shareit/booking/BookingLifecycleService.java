@@ -0,0 +1,124 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingPhase;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingWithUserDto;
+import ru.practicum.shareit.web.ResourceVersions;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Планировщик жизненного цикла бронирований.
+ * Раз в тик выбирает из индексов (phase, start_date) и (phase, end_date) бронирования, у которых
+ * наступил срок, и переводит их в следующую фазу порциями. Неподтвержденные бронирования,
+ * начавшиеся раньше допустимого срока ожидания, помечаются истекшими.
+ * Тики не выполняются параллельно: тик, запущенный при старте приложения, и плановый тик
+ * не обрабатывают одни и те же бронирования одновременно.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingLifecycleService {
+    private final BookingRepository bookingRepository;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicBoolean ticking = new AtomicBoolean();
+
+    @Value("${shareit.booking-lifecycle.batch-size:500}")
+    private int batchSize;
+
+    @Value("${shareit.booking-lifecycle.waiting-grace:PT24H}")
+    private Duration waitingGrace;
+
+    /**
+     * Проставляет фазу бронированиям, созданным до появления столбца фазы.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillMissingPhases() {
+        int updated = bookingRepository.fillMissingPhases();
+        if (updated > 0) {
+            log.info("Assigned phase to {} bookings created before lifecycle tracking", updated);
+            tick();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-lifecycle.tick-ms:1000}")
+    public void tick() {
+        if (!ticking.compareAndSet(false, true)) {
+            // Предыдущий тик еще выполняется, оставшееся доделает следующий
+            log.debug("Booking lifecycle tick skipped: previous tick is still running");
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // Сначала FUTURE -> PAST: бронирования, целиком пропущенные за время простоя
+            advance(BookingPhase.FUTURE, BookingPhase.PAST, now, bookingRepository::findEndedInPhase);
+            advance(BookingPhase.CURRENT, BookingPhase.PAST, now, bookingRepository::findEndedInPhase);
+            advance(BookingPhase.FUTURE, BookingPhase.CURRENT, now, bookingRepository::findStartedInPhase);
+            expireWaiting(now);
+        } finally {
+            ticking.set(false);
+        }
+    }
+
+    private void advance(BookingPhase from, BookingPhase to, LocalDateTime now, DueQuery dueQuery) {
+        Pageable batch = PageRequest.of(0, batchSize);
+        List<DueBooking> due;
+        do {
+            due = dueQuery.find(from, now, batch);
+            if (due.isEmpty()) {
+                return;
+            }
+            bookingRepository.updatePhase(due.stream().map(DueBooking::getId).collect(Collectors.toList()), to);
+            due.stream().map(DueBooking::getOwnerId).distinct().forEach(resourceVersions::touchOwner);
+            log.debug("Moved {} bookings from {} to {}", due.size(), from, to);
+        } while (due.size() == batchSize);
+    }
+
+    private void expireWaiting(LocalDateTime now) {
+        LocalDateTime cutoff = now.minus(waitingGrace);
+        Pageable batch = PageRequest.of(0, batchSize);
+        List<Booking> due;
+        do {
+            due = bookingRepository.findWaitingStartedBefore(cutoff, batch);
+            if (due.isEmpty()) {
+                return;
+            }
+            List<Long> ids = due.stream().map(Booking::getId).collect(Collectors.toList());
+            bookingRepository.expireWaiting(ids);
+            // Повторно читаем статусы: решение по части бронирований могло быть принято параллельно
+            Set<Long> expired = new HashSet<>(bookingRepository.findIdsByIdInAndStatus(ids, BookingStatus.EXPIRED));
+            for (Booking booking : due) {
+                if (!expired.contains(booking.getId())) {
+                    continue;
+                }
+                booking.setStatus(BookingStatus.EXPIRED);
+                BookingWithUserDto dto = BookingMapper.toBookingWithUserDto(booking);
+                eventPublisher.publishEvent(new BookingChangedEvent(
+                        booking.getId(), booking.getItem().getId(), booking.getItem().getOwner().getId(), dto));
+            }
+            log.info("Expired {} unanswered bookings", expired.size());
+        } while (due.size() == batchSize);
+    }
+
+    @FunctionalInterface
+    private interface DueQuery {
+        List<DueBooking> find(BookingPhase phase, LocalDateTime now, Pageable pageable);
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingPhase;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingWithUserDto;
 import ru.practicum.shareit.item.Item;
@@ -9,6 +10,8 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.time.LocalDateTime;
+
 public class BookingMapper {
     private BookingMapper() {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
@@ -31,7 +34,10 @@ public class BookingMapper {
         booking.setEnd(bookingCreateDto.getEnd());
         booking.setItem(item);
         booking.setBooker(booker);
+        LocalDateTime now = LocalDateTime.now();
         booking.setStatus(BookingStatus.WAITING);
+        booking.setPhase(BookingPhase.of(booking.getStart(), booking.getEnd(), now));
+        booking.setCreated(now);
         return booking;
     }
 
@@ -54,4 +60,24 @@ public class BookingMapper {
                 .status(booking.getStatus().name())
                 .build();
     }
-}
\ No newline at end of file
+
+    public static BookingWithUserDto toBookingWithUserDto(ArchivedBooking booking) {
+        return BookingWithUserDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(ItemDto.builder()
+                        .id(booking.getItem().getId())
+                        .name(booking.getItem().getName())
+                        .description(booking.getItem().getDescription())
+                        .available(booking.getItem().getAvailable())
+                        .build())
+                .booker(new UserDto(
+                        booking.getBooker().getId(),
+                        booking.getBooker().getName(),
+                        booking.getBooker().getEmail()
+                ))
+                .status(booking.getStatus().name())
+                .build();
+    }
+}
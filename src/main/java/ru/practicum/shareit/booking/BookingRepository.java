@@ -1,11 +1,17 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingPhase;
 import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.owner.OwnerItemStats;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,12 +23,18 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     /**
      * Находит все бронирования определенного пользователя, отсортированные по дате начала.
      */
-    List<Booking> findByBookerIdOrderByStartDesc(Long bookerId);
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.booker.id = :bookerId ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByBookerIdOrderByStartDesc(@Param("bookerId") Long bookerId, Pageable pageable);
 
     /**
      * Находит бронирования пользователя с определенным статусом, отсортированные по дате начала.
      */
-    List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status);
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.booker.id = :bookerId AND b.status = :status ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByBookerIdAndStatusOrderByStartDesc(@Param("bookerId") Long bookerId,
+                                                          @Param("status") BookingStatus status,
+                                                          Pageable pageable);
 
     /**
      * Находит текущие бронирования пользователя.
@@ -45,14 +57,18 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     /**
      * Находит все бронирования вещей владельца, отсортированные по дате начала.
      */
-    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.item.owner.id = :ownerId ORDER BY b.start DESC")
-    List<Booking> findByItemOwnerIdOrderByStartDesc(@Param("ownerId") Long ownerId);
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.item.owner.id = :ownerId ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByItemOwnerIdOrderByStartDesc(@Param("ownerId") Long ownerId, Pageable pageable);
 
     /**
      * Находит бронирования вещей владельца с определенным статусом.
      */
-    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.item.owner.id = :ownerId AND b.status = :status ORDER BY b.start DESC")
-    List<Booking> findByItemOwnerIdAndStatusOrderByStartDesc(@Param("ownerId") Long ownerId, @Param("status") BookingStatus status);
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.item.owner.id = :ownerId AND b.status = :status ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByItemOwnerIdAndStatusOrderByStartDesc(@Param("ownerId") Long ownerId,
+                                                             @Param("status") BookingStatus status,
+                                                             Pageable pageable);
 
     /**
      * Находит текущие бронирования вещей владельца.
@@ -73,6 +89,49 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.item.owner.id = :ownerId AND b.start >= :start ORDER BY b.start DESC")
     List<Booking> findByItemOwnerIdAndStartAfterOrderByStartDesc(@Param("ownerId") Long ownerId, @Param("start") LocalDateTime start);
 
+    /**
+     * Находит бронирования пользователя в указанной фазе (CURRENT, PAST или FUTURE).
+     */
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.booker.id = :bookerId AND b.phase = :phase ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByBookerIdAndPhase(@Param("bookerId") Long bookerId, @Param("phase") BookingPhase phase,
+                                         Pageable pageable);
+
+    /**
+     * Находит бронирования вещей владельца в указанной фазе (CURRENT, PAST или FUTURE).
+     */
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.item.owner.id = :ownerId AND b.phase = :phase ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByItemOwnerIdAndPhase(@Param("ownerId") Long ownerId, @Param("phase") BookingPhase phase,
+                                            Pageable pageable);
+
+    /**
+     * Считает бронирования пользователя; соединения те же, что у списка, поэтому бронирования
+     * удаленных вещей и пользователей не учитываются.
+     */
+    @Query("SELECT COUNT(b) FROM Booking b JOIN b.item JOIN b.booker WHERE b.booker.id = :bookerId")
+    long countByBookerId(@Param("bookerId") Long bookerId);
+
+    /**
+     * Считает бронирования пользователя в указанной фазе.
+     */
+    @Query("SELECT COUNT(b) FROM Booking b JOIN b.item JOIN b.booker " +
+            "WHERE b.booker.id = :bookerId AND b.phase = :phase")
+    long countByBookerIdAndPhase(@Param("bookerId") Long bookerId, @Param("phase") BookingPhase phase);
+
+    /**
+     * Считает бронирования вещей владельца.
+     */
+    @Query("SELECT COUNT(b) FROM Booking b JOIN b.item JOIN b.booker WHERE b.item.owner.id = :ownerId")
+    long countByItemOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Считает бронирования вещей владельца в указанной фазе.
+     */
+    @Query("SELECT COUNT(b) FROM Booking b JOIN b.item JOIN b.booker " +
+            "WHERE b.item.owner.id = :ownerId AND b.phase = :phase")
+    long countByItemOwnerIdAndPhase(@Param("ownerId") Long ownerId, @Param("phase") BookingPhase phase);
+
     // === ДОБАВЛЯЕМ МЕТОДЫ ДЛЯ CURRENT СТАТУСА ===
 
     /**
@@ -138,5 +197,173 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "AND b.status = 'APPROVED' ORDER BY b.end DESC")
     List<Booking> findCurrentBookingsByItemId(@Param("itemIds") List<Long> itemIds, @Param("currentTime") LocalDateTime currentTime);
 
-    List<Booking> findByItemIdInAndStatusOrderByStartAsc(List<Long> itemIds, BookingStatus status);
-}
\ No newline at end of file
+    /**
+     * Последнее подтвержденное бронирование (завершенное или текущее) каждой из вещей.
+     * Оконная функция отбирает по одной строке на вещь в БД, а не всю историю бронирований.
+     * Завершенные бронирования могли уйти в архив, поэтому он просматривается в том же запросе.
+     */
+    @Query(value = "SELECT t.id AS id, t.item_id AS itemId, t.booker_id AS bookerId, " +
+            "t.start_date AS startDate, t.end_date AS endDate FROM (" +
+            "SELECT b.id, b.item_id, b.booker_id, b.start_date, b.end_date, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.end_date DESC, b.id DESC) AS rn " +
+            "FROM (SELECT id, item_id, booker_id, start_date, end_date FROM bookings " +
+            "WHERE item_id = ANY(:itemIds) AND status = 'APPROVED' " +
+            "AND (end_date < :now OR (start_date < :now AND end_date > :now)) " +
+            "UNION ALL SELECT id, item_id, booker_id, start_date, end_date FROM bookings_archive " +
+            "WHERE item_id = ANY(:itemIds) AND status = 'APPROVED') b " +
+            "JOIN users u ON u.id = b.booker_id WHERE u.deleted_at IS NULL) t " +
+            "WHERE t.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastApprovedPerItem(@Param("itemIds") long[] itemIds,
+                                                  @Param("now") LocalDateTime now);
+
+    /**
+     * Ближайшее будущее подтвержденное бронирование каждой из вещей.
+     */
+    @Query(value = "SELECT t.id AS id, t.item_id AS itemId, t.booker_id AS bookerId, " +
+            "t.start_date AS startDate, t.end_date AS endDate FROM (" +
+            "SELECT b.id, b.item_id, b.booker_id, b.start_date, b.end_date, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date, b.id) AS rn " +
+            "FROM bookings b JOIN users u ON u.id = b.booker_id " +
+            "WHERE b.item_id = ANY(:itemIds) AND b.status = 'APPROVED' AND u.deleted_at IS NULL " +
+            "AND b.start_date > :now) t " +
+            "WHERE t.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findNextApprovedPerItem(@Param("itemIds") long[] itemIds,
+                                                  @Param("now") LocalDateTime now);
+
+    /**
+     * Находит бронирования вещей с указанными статусами, отсортированные по дате начала.
+     */
+    List<Booking> findByItemIdInAndStatusInOrderByStartAsc(Collection<Long> itemIds, Collection<BookingStatus> statuses);
+
+    /**
+     * Считает статистику бронирований по каждой вещи владельца одним сгруппированным запросом.
+     * Вещи без бронирований также попадают в результат (с нулевыми счетчиками).
+     * Время ответа считается только по решениям владельца (подтверждено или отклонено).
+     */
+    @Query("SELECT i.id AS itemId, i.name AS itemName, " +
+            "SUM(CASE WHEN b.status = 'WAITING' THEN 1 ELSE 0 END) AS waiting, " +
+            "SUM(CASE WHEN b.status = 'APPROVED' AND b.start > :now THEN 1 ELSE 0 END) AS approvedUpcoming, " +
+            "SUM(CASE WHEN b.status = 'APPROVED' AND b.start <= :now AND b.end >= :now THEN 1 ELSE 0 END) AS currentCount, " +
+            "SUM(CASE WHEN b.status = 'APPROVED' AND b.end < :now THEN 1 ELSE 0 END) AS past, " +
+            "MIN(CASE WHEN b.status = 'WAITING' AND b.start > :now THEN b.start END) AS nextPendingStart, " +
+            "SUM(CASE WHEN b.status IN ('APPROVED', 'REJECTED') AND b.decided IS NOT NULL AND b.created IS NOT NULL " +
+            "THEN EXTRACT(EPOCH FROM b.decided) - EXTRACT(EPOCH FROM b.created) END) AS turnaroundSeconds, " +
+            "SUM(CASE WHEN b.status IN ('APPROVED', 'REJECTED') AND b.decided IS NOT NULL AND b.created IS NOT NULL " +
+            "THEN 1 ELSE 0 END) AS decidedCount " +
+            "FROM Item i LEFT JOIN Booking b ON b.item = i " +
+            "WHERE i.owner.id = :ownerId " +
+            "GROUP BY i.id, i.name " +
+            "ORDER BY i.id")
+    List<OwnerItemStats> getOwnerItemStats(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    // === ПЛАНИРОВЩИК ЖИЗНЕННОГО ЦИКЛА ===
+
+    /**
+     * Находит бронирования в фазе, у которых наступило начало (порция для планировщика).
+     */
+    @Query("SELECT b.id AS id, b.item.owner.id AS ownerId FROM Booking b " +
+            "WHERE b.phase = :phase AND b.start <= :now ORDER BY b.start")
+    List<DueBooking> findStartedInPhase(@Param("phase") BookingPhase phase, @Param("now") LocalDateTime now,
+                                        Pageable pageable);
+
+    /**
+     * Находит бронирования в фазе, срок которых уже закончился (порция для планировщика).
+     */
+    @Query("SELECT b.id AS id, b.item.owner.id AS ownerId FROM Booking b " +
+            "WHERE b.phase = :phase AND b.end < :now ORDER BY b.end")
+    List<DueBooking> findEndedInPhase(@Param("phase") BookingPhase phase, @Param("now") LocalDateTime now,
+                                      Pageable pageable);
+
+    /**
+     * Переводит бронирования в указанную фазу.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Booking b SET b.phase = :phase WHERE b.id IN :ids")
+    int updatePhase(@Param("ids") Collection<Long> ids, @Param("phase") BookingPhase phase);
+
+    /**
+     * Проставляет фазу FUTURE бронированиям, созданным до появления столбца фазы;
+     * дальше их продвигает планировщик.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Booking b SET b.phase = ru.practicum.shareit.booking.dto.BookingPhase.FUTURE WHERE b.phase IS NULL")
+    int fillMissingPhases();
+
+    /**
+     * Находит неподтвержденные бронирования, начавшиеся до указанного момента (порция для планировщика).
+     */
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.status = ru.practicum.shareit.booking.dto.BookingStatus.WAITING AND b.start <= :cutoff " +
+            "ORDER BY b.start")
+    List<Booking> findWaitingStartedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Помечает неподтвержденные бронирования истекшими. Бронирования, решение по которым
+     * было принято параллельно, не затрагиваются. Время решения не проставляется: владелец не отвечал.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.dto.BookingStatus.EXPIRED " +
+            "WHERE b.id IN :ids AND b.status = ru.practicum.shareit.booking.dto.BookingStatus.WAITING")
+    int expireWaiting(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Находит бронирование вместе с вещью и арендатором. Бронирования удаленных вещей
+     * и пользователей не находятся: соединение учитывает их пометку об удалении.
+     */
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.id = :id")
+    Optional<Booking> findWithItemAndBookerById(@Param("id") Long id);
+
+    /**
+     * Загружает бронирования вместе с вещами и арендаторами одним запросом (пакетное решение владельца).
+     */
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.id IN :ids")
+    List<Booking> findAllWithItemAndBookerByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Находит подтвержденные бронирования вещей, пересекающиеся с периодом [from, to].
+     */
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds " +
+            "AND b.status = ru.practicum.shareit.booking.dto.BookingStatus.APPROVED " +
+            "AND b.end >= :from AND b.start <= :to")
+    List<Booking> findApprovedByItemIdInOverlapping(@Param("itemIds") Collection<Long> itemIds,
+                                                     @Param("from") LocalDateTime from,
+                                                     @Param("to") LocalDateTime to);
+
+    /**
+     * Записывает решения владельца одним запросом: бронирования из approvedIds подтверждаются,
+     * остальные из ids отклоняются. Затрагиваются только бронирования, еще ожидающие решения.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = CASE WHEN b.id IN :approvedIds " +
+            "THEN ru.practicum.shareit.booking.dto.BookingStatus.APPROVED " +
+            "ELSE ru.practicum.shareit.booking.dto.BookingStatus.REJECTED END, b.decided = :now " +
+            "WHERE b.id IN :ids AND b.status = ru.practicum.shareit.booking.dto.BookingStatus.WAITING")
+    int decide(@Param("ids") Collection<Long> ids, @Param("approvedIds") Collection<Long> approvedIds,
+               @Param("now") LocalDateTime now);
+
+    /**
+     * Отклоняет бронирования, еще ожидающие решения. Используется вместо {@link #decide}, когда
+     * подтверждать нечего: пустой список в IN недопустим.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.dto.BookingStatus.REJECTED, " +
+            "b.decided = :now WHERE b.id IN :ids AND b.status = ru.practicum.shareit.booking.dto.BookingStatus.WAITING")
+    int rejectWaiting(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Находит завершенные бронирования, закончившиеся до указанного момента (порция для архивации).
+     */
+    @Query("SELECT b.id AS id, b.item.owner.id AS ownerId FROM Booking b " +
+            "WHERE b.phase = ru.practicum.shareit.booking.dto.BookingPhase.PAST AND b.end < :cutoff ORDER BY b.end")
+    List<DueBooking> findToArchive(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.id IN :ids AND b.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
+}
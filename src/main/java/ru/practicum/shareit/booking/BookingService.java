@@ -1,10 +1,19 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingWithUserDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionOutcome;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingPhase;
 import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.db.OffsetPageRequest;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
@@ -14,15 +23,28 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookingService {
+    private static final int MAX_DECISIONS = 500;
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingJsonWriter bookingJsonWriter;
 
     public BookingWithUserDto create(BookingCreateDto bookingCreateDto, Long bookerId) {  // ← ИЗМЕНИ ТИП
         User booker = userRepository.findById(bookerId)
@@ -58,17 +80,20 @@ public class BookingService {
 
         Booking booking = BookingMapper.toBooking(bookingCreateDto, booker, item);
         Booking savedBooking = bookingRepository.save(booking);
-        return BookingMapper.toBookingWithUserDto(savedBooking);  // ← ИСПОЛЬЗУЙ toBookingWithUserDto
+        BookingWithUserDto result = BookingMapper.toBookingWithUserDto(savedBooking);  // ← ИСПОЛЬЗУЙ toBookingWithUserDto
+        eventPublisher.publishEvent(new BookingChangedEvent(
+                savedBooking.getId(), item.getId(), item.getOwner().getId(), result));
+        return result;
     }
 
     public BookingWithUserDto getById(Long id) {  // ← ИЗМЕНИ ТИП
-        Booking booking = bookingRepository.findById(id)
+        Booking booking = bookingRepository.findWithItemAndBookerById(id)
                 .orElseThrow(() -> new NotFoundException("Booking not found"));
         return BookingMapper.toBookingWithUserDto(booking);  // ← ИСПОЛЬЗУЙ toBookingWithUserDto
     }
 
     public BookingWithUserDto updateStatus(Long id, Boolean approved, Long ownerId) {  // ← ИЗМЕНИ ТИП
-        Booking booking = bookingRepository.findById(id)
+        Booking booking = bookingRepository.findWithItemAndBookerById(id)
                 .orElseThrow(() -> new NotFoundException("Booking not found"));
 
         // Проверка что пользователь - владелец вещи
@@ -83,85 +108,294 @@ public class BookingService {
 
         BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
         booking.setStatus(newStatus);
+        booking.setDecided(LocalDateTime.now());
 
         Booking updatedBooking = bookingRepository.save(booking);
-        return BookingMapper.toBookingWithUserDto(updatedBooking);  // ← ИСПОЛЬЗУЙ toBookingWithUserDto
+        BookingWithUserDto result = BookingMapper.toBookingWithUserDto(updatedBooking);  // ← ИСПОЛЬЗУЙ toBookingWithUserDto
+        eventPublisher.publishEvent(new BookingChangedEvent(
+                updatedBooking.getId(), updatedBooking.getItem().getId(), ownerId, result));
+        return result;
     }
 
-    public List<BookingWithUserDto> getByBookerId(Long bookerId, String state) {  // ← ИЗМЕНИ ТИП
+    /**
+     * Принимает решения владельца сразу по нескольким бронированиям.
+     * Бронирования загружаются одним запросом, принадлежность и статус проверяются для всего пакета.
+     * Подтверждения, пересекающиеся с подтвержденными бронированиями или друг с другом, разрешаются
+     * детерминированно: выигрывает бронирование с более ранним началом, при равенстве — с меньшим id;
+     * проигравшие остаются в ожидании с итогом CONFLICT. Все решения записываются одним UPDATE.
+     *
+     * @return итоги в порядке переданных решений
+     */
+    @Transactional
+    public List<BookingDecisionResultDto> decideAll(List<BookingDecisionDto> decisions, Long ownerId) {
+        if (decisions == null || decisions.isEmpty() || decisions.size() > MAX_DECISIONS) {
+            throw new ValidationException("From 1 to " + MAX_DECISIONS + " decisions are expected");
+        }
+        Map<Long, Boolean> approvedById = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (decision.getBookingId() == null || decision.getApproved() == null) {
+                throw new ValidationException("Booking id and decision are required");
+            }
+            if (approvedById.put(decision.getBookingId(), decision.getApproved()) != null) {
+                throw new ValidationException("Duplicate decision for booking " + decision.getBookingId());
+            }
+        }
+        userRepository.findById(ownerId)
+                .orElseThrow(() -> new NotFoundException("User not found with id: " + ownerId));
+
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemAndBookerByIdIn(approvedById.keySet()).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<Long> missing = approvedById.keySet().stream().filter(id -> !bookings.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            throw new NotFoundException("Bookings not found: " + missing);
+        }
+        List<Long> foreign = bookings.values().stream()
+                .filter(b -> !b.getItem().getOwner().getId().equals(ownerId))
+                .map(Booking::getId)
+                .sorted()
+                .toList();
+        if (!foreign.isEmpty()) {
+            throw new AccessDeniedException("Only item owner can approve/reject bookings: " + foreign);
+        }
+        List<Long> decided = bookings.values().stream()
+                .filter(b -> b.getStatus() != BookingStatus.WAITING)
+                .map(Booking::getId)
+                .sorted()
+                .toList();
+        if (!decided.isEmpty()) {
+            throw new ValidationException("Booking status already decided: " + decided);
+        }
+
+        Set<Long> approved = resolveApprovals(bookings.values().stream()
+                .filter(b -> approvedById.get(b.getId()))
+                .toList());
+        List<Long> toUpdate = approvedById.entrySet().stream()
+                .filter(e -> !e.getValue() || approved.contains(e.getKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+        LocalDateTime now = LocalDateTime.now();
+        if (!toUpdate.isEmpty()) {
+            int updated = approved.isEmpty()
+                    ? bookingRepository.rejectWaiting(toUpdate, now)
+                    : bookingRepository.decide(toUpdate, approved, now);
+            if (updated != toUpdate.size()) {
+                throw new ValidationException("Bookings were decided concurrently, retry the request");
+            }
+        }
+
+        List<BookingDecisionResultDto> results = new ArrayList<>(approvedById.size());
+        for (Map.Entry<Long, Boolean> entry : approvedById.entrySet()) {
+            Booking booking = bookings.get(entry.getKey());
+            BookingDecisionOutcome outcome;
+            if (!entry.getValue()) {
+                outcome = BookingDecisionOutcome.REJECTED;
+            } else if (approved.contains(booking.getId())) {
+                outcome = BookingDecisionOutcome.APPROVED;
+            } else {
+                outcome = BookingDecisionOutcome.CONFLICT;
+            }
+            if (outcome != BookingDecisionOutcome.CONFLICT) {
+                // Сущности отсоединены после UPDATE, изменения нужны только для ответа
+                booking.setStatus(BookingStatus.valueOf(outcome.name()));
+                booking.setDecided(now);
+            }
+            BookingWithUserDto dto = BookingMapper.toBookingWithUserDto(booking);
+            if (outcome != BookingDecisionOutcome.CONFLICT) {
+                eventPublisher.publishEvent(new BookingChangedEvent(booking.getId(), booking.getItem().getId(),
+                        ownerId, dto));
+            }
+            results.add(new BookingDecisionResultDto(booking.getId(), outcome, dto));
+        }
+        return results;
+    }
+
+    /**
+     * Выбирает подтверждения, не пересекающиеся с уже подтвержденными бронированиями и друг с другом.
+     * Границы периодов включаются, как в {@link BookingRepository#existOverlappingBookings}.
+     */
+    private Set<Long> resolveApprovals(List<Booking> requested) {
+        if (requested.isEmpty()) {
+            return Set.of();
+        }
+        LocalDateTime from = requested.stream().map(Booking::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = requested.stream().map(Booking::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        Set<Long> itemIds = requested.stream().map(b -> b.getItem().getId()).collect(Collectors.toSet());
+        Map<Long, List<Booking>> taken = bookingRepository.findApprovedByItemIdInOverlapping(itemIds, from, to)
+                .stream()
+                .collect(Collectors.groupingBy(b -> b.getItem().getId(), Collectors.toCollection(ArrayList::new)));
+
+        Set<Long> approved = new HashSet<>();
+        requested.stream()
+                .sorted(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId))
+                .forEach(candidate -> {
+                    List<Booking> itemTaken = taken.computeIfAbsent(candidate.getItem().getId(),
+                            id -> new ArrayList<>());
+                    boolean overlaps = itemTaken.stream().anyMatch(b ->
+                            !b.getEnd().isBefore(candidate.getStart()) && !b.getStart().isAfter(candidate.getEnd()));
+                    if (!overlaps) {
+                        itemTaken.add(candidate);
+                        approved.add(candidate.getId());
+                    }
+                });
+        return approved;
+    }
+
+    public List<BookingWithUserDto> getByBookerId(Long bookerId, String state, int from, Integer size) {  // ← ИЗМЕНИ ТИП
         userRepository.findById(bookerId)
                 .orElseThrow(() -> new NotFoundException("User not found with id: " + bookerId));
+        if (from < 0 || (size != null && size <= 0)) {
+            throw new ValidationException("Invalid pagination parameters");
+        }
 
-        List<Booking> bookings;
-        LocalDateTime now = LocalDateTime.now();
+        Function<Pageable, List<Booking>> bookings;
 
         switch (state.toUpperCase()) {
             case "ALL":
-                bookings = bookingRepository.findByBookerIdOrderByStartDesc(bookerId);
+                bookings = pageable -> bookingRepository.findByBookerIdOrderByStartDesc(bookerId, pageable);
                 break;
             case "CURRENT":
-                bookings = bookingRepository.findCurrentBookingsByBookerId(bookerId, now);
+                bookings = pageable -> bookingRepository.findByBookerIdAndPhase(bookerId, BookingPhase.CURRENT, pageable);
                 break;
             case "PAST":
-                bookings = bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(bookerId, now);
+                bookings = pageable -> bookingRepository.findByBookerIdAndPhase(bookerId, BookingPhase.PAST, pageable);
                 break;
             case "FUTURE":
-                bookings = bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(bookerId, now);
+                bookings = pageable -> bookingRepository.findByBookerIdAndPhase(bookerId, BookingPhase.FUTURE, pageable);
                 break;
             case "WAITING":
-                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(bookerId, BookingStatus.WAITING);
+                bookings = pageable -> bookingRepository.findByBookerIdAndStatusOrderByStartDesc(
+                        bookerId, BookingStatus.WAITING, pageable);
                 break;
             case "REJECTED":
-                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(bookerId, BookingStatus.REJECTED);
+                bookings = pageable -> bookingRepository.findByBookerIdAndStatusOrderByStartDesc(
+                        bookerId, BookingStatus.REJECTED, pageable);
+                break;
+            case "EXPIRED":
+                bookings = pageable -> bookingRepository.findByBookerIdAndStatusOrderByStartDesc(
+                        bookerId, BookingStatus.EXPIRED, pageable);
                 break;
             default:
                 throw new ValidationException("Unknown state: " + state);
         }
 
-        return bookings.stream()
-                .map(BookingMapper::toBookingWithUserDto)  // ← ИСПОЛЬЗУЙ toBookingWithUserDto
-                .collect(Collectors.toList());
+        if (state.equalsIgnoreCase("ALL")) {
+            return page(bookings, from, size, () -> bookingRepository.countByBookerId(bookerId),
+                    pageable -> archivedBookingRepository.findByBookerId(bookerId, pageable));
+        }
+        if (state.equalsIgnoreCase("PAST")) {
+            return page(bookings, from, size,
+                    () -> bookingRepository.countByBookerIdAndPhase(bookerId, BookingPhase.PAST),
+                    pageable -> archivedBookingRepository.findByBookerId(bookerId, pageable));
+        }
+        return page(bookings, from, size);
     }
 
-    public List<BookingWithUserDto> getByOwnerId(Long ownerId, String state) {  // ← ИЗМЕНИ ТИП
+    public List<BookingWithUserDto> getByOwnerId(Long ownerId, String state, int from, Integer size) {  // ← ИЗМЕНИ ТИП
         userRepository.findById(ownerId)
                 .orElseThrow(() -> new NotFoundException("User not found with id: " + ownerId));
+        if (from < 0 || (size != null && size <= 0)) {
+            throw new ValidationException("Invalid pagination parameters");
+        }
 
-        List<Booking> bookings;
-        LocalDateTime now = LocalDateTime.now();
+        Function<Pageable, List<Booking>> bookings;
 
         switch (state.toUpperCase()) {
             case "ALL":
-                bookings = bookingRepository.findByItemOwnerIdOrderByStartDesc(ownerId);
+                bookings = pageable -> bookingRepository.findByItemOwnerIdOrderByStartDesc(ownerId, pageable);
                 break;
             case "CURRENT":
-                bookings = bookingRepository.findCurrentBookingsByOwnerId(ownerId, now);
+                bookings = pageable -> bookingRepository.findByItemOwnerIdAndPhase(ownerId, BookingPhase.CURRENT, pageable);
                 break;
             case "PAST":
-                bookings = bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(ownerId, now);
+                bookings = pageable -> bookingRepository.findByItemOwnerIdAndPhase(ownerId, BookingPhase.PAST, pageable);
                 break;
             case "FUTURE":
-                bookings = bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(ownerId, now);
+                bookings = pageable -> bookingRepository.findByItemOwnerIdAndPhase(ownerId, BookingPhase.FUTURE, pageable);
                 break;
             case "WAITING":
-                bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.WAITING);
+                bookings = pageable -> bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(
+                        ownerId, BookingStatus.WAITING, pageable);
                 break;
             case "REJECTED":
-                bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.REJECTED);
+                bookings = pageable -> bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(
+                        ownerId, BookingStatus.REJECTED, pageable);
+                break;
+            case "EXPIRED":
+                bookings = pageable -> bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(
+                        ownerId, BookingStatus.EXPIRED, pageable);
                 break;
             default:
                 throw new ValidationException("Unknown state: " + state);
         }
 
-        return bookings.stream()
-                .map(BookingMapper::toBookingWithUserDto)  // ← ИСПОЛЬЗУЙ toBookingWithUserDto
-                .collect(Collectors.toList());
+        if (state.equalsIgnoreCase("ALL")) {
+            return page(bookings, from, size, () -> bookingRepository.countByItemOwnerId(ownerId),
+                    pageable -> archivedBookingRepository.findByItemOwnerId(ownerId, pageable));
+        }
+        if (state.equalsIgnoreCase("PAST")) {
+            return page(bookings, from, size,
+                    () -> bookingRepository.countByItemOwnerIdAndPhase(ownerId, BookingPhase.PAST),
+                    pageable -> archivedBookingRepository.findByItemOwnerId(ownerId, pageable));
+        }
+        return page(bookings, from, size);
     }
 
-    public void delete(Long id) {
-        if (!bookingRepository.existsById(id)) {
-            throw new NotFoundException("Booking not found");
+    /**
+     * Возвращает полный список бронирований вещей владельца в виде потока JSON.
+     */
+    public StreamingResponseBody streamByOwnerId(Long ownerId, String state) {
+        if (!userRepository.existsById(ownerId)) {
+            throw new NotFoundException("User not found with id: " + ownerId);
         }
-        bookingRepository.deleteById(id);
+        return bookingJsonWriter.ownerBookings(ownerId, state);
+    }
+
+    /**
+     * Возвращает страницу списка бронирований, отсортированного по дате начала (и id) по убыванию.
+     * Без параметра size возвращается весь список. Смещение и размер страницы передаются в запрос,
+     * поэтому из БД читается только нужная страница.
+     */
+    private List<BookingWithUserDto> page(Function<Pageable, List<Booking>> bookings, int from, Integer size) {
+        Pageable pageable = size != null ? OffsetPageRequest.of(from, size) : Pageable.unpaged();
+        return bookings.apply(pageable).stream()
+                .map(BookingMapper::toBookingWithUserDto)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Возвращает страницу состояния с архивом (ALL и PAST): сначала актуальные бронирования,
+     * за ними архивные, каждые от новых к старым. Архив читается, только если актуальных строк
+     * не хватило на страницу, со сдвигом на их число. Отдельный подсчет актуальных строк нужен,
+     * лишь когда страница целиком лежит за ними.
+     * <p>
+     * Длинное текущее бронирование, начавшееся раньше архивного, выводится перед ним: первые
+     * страницы не обращаются к архиву ценой нестрогого порядка по дате начала на стыке таблиц.
+     */
+    private List<BookingWithUserDto> page(Function<Pageable, List<Booking>> bookings, int from, Integer size,
+                                          LongSupplier liveCount,
+                                          Function<Pageable, List<ArchivedBooking>> archive) {
+        if (size == null) {
+            List<BookingWithUserDto> result = page(bookings, from, null);
+            archive.apply(Pageable.unpaged())
+                    .forEach(booking -> result.add(BookingMapper.toBookingWithUserDto(booking)));
+            return result;
+        }
+
+        List<BookingWithUserDto> result = page(bookings, from, size);
+        if (result.size() == size) {
+            return result;
+        }
+        long live = !result.isEmpty() || from == 0 ? from + result.size() : liveCount.getAsLong();
+        archive.apply(OffsetPageRequest.of(Math.max(0, from - live), size - result.size()))
+                .forEach(booking -> result.add(BookingMapper.toBookingWithUserDto(booking)));
+        return result;
+    }
+
+    public void delete(Long id) {
+        Booking booking = bookingRepository.findWithItemAndBookerById(id)
+                .orElseThrow(() -> new NotFoundException("Booking not found"));
+        Item item = booking.getItem();
+        bookingRepository.delete(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(id, item.getId(), item.getOwner().getId(), null));
     }
 }
\ No newline at end of file
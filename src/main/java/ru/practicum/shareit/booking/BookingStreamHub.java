@@ -0,0 +1,170 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingWithUserDto;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Рассылка изменений бронирований подписчикам SSE (арендаторам и владельцам вещей).
+ * Публикация не блокирует поток, изменивший бронирование: событие кладется в ограниченный буфер
+ * каждого подписчика, а отправка выполняется отдельным пулом потоков. Подписчик, буфер которого
+ * переполнен (медленный клиент), отключается.
+ */
+@Slf4j
+@Component
+public class BookingStreamHub {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "booking-stream-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int bufferSize;
+    private final long timeoutMs;
+
+    public BookingStreamHub(UserRepository userRepository,
+                            @Value("${shareit.booking-stream.buffer-size:64}") int bufferSize,
+                            @Value("${shareit.booking-stream.timeout-ms:1800000}") long timeoutMs) {
+        this.userRepository = userRepository;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Подписывает пользователя на изменения его бронирований и бронирований его вещей.
+     */
+    public SseEmitter subscribe(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User not found with id: " + userId);
+        }
+
+        Subscriber subscriber = new Subscriber(userId, createEmitter(timeoutMs), new ArrayBlockingQueue<>(bufferSize));
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        try {
+            // Первый комментарий сразу фиксирует заголовки ответа, не дожидаясь первого события
+            subscriber.emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (IOException e) {
+            subscriber.emitter.completeWithError(e);
+            return subscriber.emitter;
+        }
+        // Добавление внутри compute: иначе параллельный remove() может убрать из карты множество,
+        // в которое уже добавляется новый подписчик, и тот не получит ни одного события
+        subscribers.compute(userId, (id, set) -> {
+            Set<Subscriber> userSubscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+            userSubscribers.add(subscriber);
+            return userSubscribers;
+        });
+        return subscriber.emitter;
+    }
+
+    SseEmitter createEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    /**
+     * Число активных подписок пользователя.
+     */
+    int subscriberCount(Long userId) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        return userSubscribers != null ? userSubscribers.size() : 0;
+    }
+
+    /**
+     * Рассылает новое состояние бронирования арендатору и владельцу вещи после фиксации изменения.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        BookingWithUserDto booking = event.getBooking();
+        if (booking == null) {
+            return;
+        }
+        publish(event.getOwnerId(), booking);
+        if (!booking.getBooker().getId().equals(event.getOwnerId())) {
+            publish(booking.getBooker().getId(), booking);
+        }
+    }
+
+    private void publish(Long userId, BookingWithUserDto booking) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : userSubscribers) {
+            if (!subscriber.buffer.offer(booking)) {
+                log.warn("Booking stream subscriber of user {} is too slow, disconnecting", userId);
+                remove(subscriber);
+                subscriber.emitter.complete();
+                continue;
+            }
+            if (subscriber.draining.compareAndSet(false, true)) {
+                sender.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            BookingWithUserDto booking;
+            while ((booking = subscriber.buffer.poll()) != null) {
+                try {
+                    subscriber.emitter.send(SseEmitter.event().name("booking").data(booking));
+                } catch (IOException | IllegalStateException e) {
+                    remove(subscriber);
+                    subscriber.buffer.clear();
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+            // Событие могло прийти между последним poll() и сбросом флага
+        } while (!subscriber.buffer.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private static final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<BookingWithUserDto> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(Long userId, SseEmitter emitter, BlockingQueue<BookingWithUserDto> buffer) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+}
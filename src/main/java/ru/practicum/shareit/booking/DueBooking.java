@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking;
+
+/**
+ * Проекция бронирования, у которого наступил срок смены фазы или архивации.
+ * Содержит только то, что нужно планировщику: идентификатор и владельца вещи.
+ */
+public interface DueBooking {
+    Long getId();
+
+    Long getOwnerId();
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Итог решения по бронированию в пакетном запросе.
+ */
+public enum BookingDecisionOutcome {
+    /**
+     * Бронирование подтверждено
+     */
+    APPROVED,
+
+    /**
+     * Бронирование отклонено
+     */
+    REJECTED,
+
+    /**
+     * Подтверждение не выполнено: период пересекается с уже подтвержденным бронированием
+     * или с бронированием, подтвержденным раньше в этом же пакете. Бронирование остается WAITING.
+     */
+    CONFLICT
+}
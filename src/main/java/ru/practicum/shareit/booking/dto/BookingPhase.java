@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Фаза бронирования во времени. Хранится в таблице и продвигается планировщиком,
+ * поэтому фильтры CURRENT/PAST/FUTURE сводятся к сравнению по индексируемому столбцу.
+ */
+public enum BookingPhase {
+    /**
+     * Бронирование еще не началось
+     */
+    FUTURE,
+
+    /**
+     * Бронирование идет сейчас
+     */
+    CURRENT,
+
+    /**
+     * Бронирование завершилось
+     */
+    PAST;
+
+    /**
+     * Вычисляет фазу бронирования на указанный момент.
+     */
+    public static BookingPhase of(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (end.isBefore(now)) {
+            return PAST;
+        }
+        return start.isAfter(now) ? FUTURE : CURRENT;
+    }
+}
@@ -22,5 +22,10 @@ public enum BookingStatus {
     /**
      * Бронирование отменено пользователем, который создал запрос
      */
-    CANCELED
+    CANCELED,
+
+    /**
+     * Бронирование не было рассмотрено владельцем до начала срока и истекло
+     */
+    EXPIRED
 }
\ No newline at end of file
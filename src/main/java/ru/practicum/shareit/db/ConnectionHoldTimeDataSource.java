@@ -0,0 +1,105 @@
+package ru.practicum.shareit.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Источник данных, замеряющий время удержания соединения из пула в разрезе эндпоинтов.
+ * Время от выдачи соединения до его возврата в пул пишется в таймер shareit.db.connection.hold
+ * с тегом endpoint ("GET /bookings/owner"); соединения, взятые вне HTTP-запроса
+ * (планировщики, асинхронная отдача ответа), попадают под тег background.
+ */
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+    static final String METRIC = "shareit.db.connection.hold";
+    static final String BACKGROUND = "background";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ConnectionHoldTimeDataSource(DataSource targetDataSource, MeterRegistry meterRegistry) {
+        super(targetDataSource);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection track(Connection connection) {
+        Timer timer = timers.computeIfAbsent(currentEndpoint(), endpoint -> Timer.builder(METRIC)
+                .description("Time a pooled JDBC connection is held before it is returned")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry));
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new HoldTimer(connection, timer));
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return BACKGROUND;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        // Без шаблона пути (запрос не сопоставлен контроллеру) URI не берем, чтобы не плодить теги
+        return servletAttributes.getRequest().getMethod() + " " + (pattern != null ? pattern : "unmapped");
+    }
+
+    /**
+     * Останавливает таймер при первом закрытии соединения, остальные вызовы передает как есть.
+     */
+    private static final class HoldTimer implements InvocationHandler {
+        private final Connection target;
+        private final Timer timer;
+        private final long acquired = System.nanoTime();
+        private boolean closed;
+
+        private HoldTimer(Connection target, Timer timer) {
+            this.target = target;
+            this.timer = timer;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if ("close".equals(method.getName()) && !closed) {
+                closed = true;
+                timer.record(System.nanoTime() - acquired, TimeUnit.NANOSECONDS);
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
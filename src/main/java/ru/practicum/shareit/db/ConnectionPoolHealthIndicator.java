@@ -0,0 +1,54 @@
+package ru.practicum.shareit.db;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Состояние пула соединений в /actuator/health (компонент connectionPool).
+ * Пул считается перегруженным (DEGRADED), если запросы ждут соединения
+ * или занята заданная доля соединений.
+ */
+@Component("connectionPool")
+public class ConnectionPoolHealthIndicator implements HealthIndicator {
+    static final Status DEGRADED = new Status("DEGRADED", "Connection pool is saturated");
+
+    private final HikariDataSource hikariDataSource;
+    private final double saturationThreshold;
+
+    public ConnectionPoolHealthIndicator(DataSource dataSource,
+                                         @Value("${shareit.db-pool.saturation-threshold:0.9}") double saturationThreshold) {
+        this.hikariDataSource = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+        this.saturationThreshold = saturationThreshold;
+    }
+
+    @Override
+    public Health health() {
+        if (hikariDataSource == null) {
+            return Health.unknown().withDetail("reason", "Not a Hikari pool").build();
+        }
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return Health.unknown().withDetail("reason", "Pool is not started").build();
+        }
+        int max = hikariDataSource.getMaximumPoolSize();
+        int active = pool.getActiveConnections();
+        int waiting = pool.getThreadsAwaitingConnection();
+        boolean saturated = waiting > 0 || active >= max * saturationThreshold;
+        return Health.status(saturated ? DEGRADED : Status.UP)
+                .withDetail("active", active)
+                .withDetail("idle", pool.getIdleConnections())
+                .withDetail("total", pool.getTotalConnections())
+                .withDetail("max", max)
+                .withDetail("threadsAwaiting", waiting)
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает пул соединений замером времени удержания соединения по эндпоинтам
+ * и прокси datasource-proxy, через который {@link QueryStatsListener} видит каждый SQL.
+ * Метрики самого пула (ожидание выдачи, активные и свободные соединения) Spring Boot
+ * публикует как hikaricp.connections.*.
+ */
+@Configuration
+public class DataSourceConfig {
+    @Bean
+    public static BeanPostProcessor connectionHoldTimePostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                    ObjectProvider<QueryStatsListener> queryListener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionHoldTimeDataSource)) {
+                    DataSource withQueryStats = ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(queryListener.getObject())
+                            .build();
+                    return new ConnectionHoldTimeDataSource(withQueryStats, meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.db;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Открывает счетчики SQL на время обработки запроса и сводит их по эндпоинтам.
+ * При асинхронной обработке (например, потоковой выдаче {@code StreamingResponseBody})
+ * счетчики передаются в асинхронный поток и обратно, поэтому SQL, выполненный там,
+ * учитывается в том же запросе и в его {@link SqlBudget}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryStatsInterceptor implements AsyncHandlerInterceptor, CallableProcessingInterceptor {
+    private static final String STATS_ATTRIBUTE = QueryStatsInterceptor.class.getName() + ".STATS";
+
+    private final QueryStatsRegistry registry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC
+                && request.getAttribute(STATS_ATTRIBUTE) instanceof QueryStatsRegistry.RequestStats stats) {
+            // Повторная диспетчеризация после асинхронной обработки: продолжаем те же счетчики
+            registry.attach(stats);
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "unmapped");
+        SqlBudget budget = handler instanceof HandlerMethod method ? method.getMethodAnnotation(SqlBudget.class) : null;
+        registry.start(endpoint, budget != null ? budget.value() : 0);
+        return true;
+    }
+
+    /**
+     * Вызывается в потоке запроса до отправки задачи в асинхронный пул: если передавать счетчики
+     * только в {@link #afterConcurrentHandlingStarted}, задача может начаться раньше и не найти их.
+     */
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        QueryStatsRegistry.RequestStats stats = QueryStatsRegistry.current();
+        if (stats != null) {
+            request.setAttribute(STATS_ATTRIBUTE, stats, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        registry.detach();
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        Object stats = request.getAttribute(STATS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (stats instanceof QueryStatsRegistry.RequestStats requestStats) {
+            registry.attach(requestStats);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        registry.detach();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        request.removeAttribute(STATS_ATTRIBUTE);
+        QueryStatsRegistry.RequestStats stats = registry.finish();
+        if (stats != null && log.isDebugEnabled()) {
+            log.debug("{} executed {} statements in {} ms", stats.getEndpoint(), stats.getStatements(),
+                    stats.getElapsedMs());
+        }
+    }
+}
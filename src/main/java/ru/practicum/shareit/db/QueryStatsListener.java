@@ -0,0 +1,124 @@
+package ru.practicum.shareit.db;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Слушатель выполнения SQL (datasource-proxy).
+ * Считает выполнения и время в рамках текущего HTTP-запроса, следит за бюджетом {@link SqlBudget}
+ * и пишет в лог медленные запросы с параметрами и вызвавшим их методом репозитория.
+ */
+@Slf4j
+@Component
+public class QueryStatsListener implements QueryExecutionListener {
+    private static final String APP_PACKAGE = "ru.practicum.shareit.";
+    private static final int MAX_LOGGED_VALUE_LENGTH = 100;
+    private static final int MAX_LOGGED_PARAMETER_SETS = 3;
+
+    private final QueryStatsRegistry registry;
+    private final long slowQueryMs;
+    private final boolean enforceBudget;
+
+    public QueryStatsListener(QueryStatsRegistry registry,
+                              @Value("${shareit.sql.slow-query-ms:200}") long slowQueryMs,
+                              @Value("${shareit.sql.budget.enforce:false}") boolean enforceBudget) {
+        this.registry = registry;
+        this.slowQueryMs = slowQueryMs;
+        this.enforceBudget = enforceBudget;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryStatsRegistry.RequestStats stats = QueryStatsRegistry.current();
+        if (stats == null || !stats.countStatement()) {
+            return;
+        }
+        String message = String.format("%s exceeded its SQL budget of %d statements at %s: %s",
+                stats.getEndpoint(), stats.getBudget(), caller(), sql(queryInfoList));
+        if (enforceBudget) {
+            throw new SqlBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        QueryStatsRegistry.RequestStats stats = QueryStatsRegistry.current();
+        if (stats != null) {
+            stats.addElapsed(elapsed);
+        }
+        boolean slow = elapsed >= slowQueryMs;
+        String sql = sql(queryInfoList);
+        registry.recordStatement(sql, elapsed, slow);
+        if (slow) {
+            log.warn("Slow query {} ms [{}] from {}: {} params {}", elapsed,
+                    stats != null ? stats.getEndpoint() : ConnectionHoldTimeDataSource.BACKGROUND,
+                    caller(), sql, parameters(queryInfoList));
+        }
+    }
+
+    private static String sql(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream().map(QueryInfo::getQuery).distinct().collect(Collectors.joining("; "));
+    }
+
+    private static String parameters(List<QueryInfo> queryInfoList) {
+        List<List<ParameterSetOperation>> sets = queryInfoList.stream()
+                .flatMap(query -> query.getParametersList().stream())
+                .toList();
+        // Для пакетных вставок достаточно первых наборов параметров
+        String logged = sets.stream()
+                .limit(MAX_LOGGED_PARAMETER_SETS)
+                .map(operations -> operations.stream()
+                        .map(QueryStatsListener::parameterValue)
+                        .collect(Collectors.joining(", ", "[", "]")))
+                .collect(Collectors.joining(", "));
+        return sets.size() > MAX_LOGGED_PARAMETER_SETS
+                ? logged + " and " + (sets.size() - MAX_LOGGED_PARAMETER_SETS) + " more"
+                : logged;
+    }
+
+    private static String parameterValue(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        String value = args.length > 1 ? String.valueOf(args[1]) : "";
+        return value.length() > MAX_LOGGED_VALUE_LENGTH ? value.substring(0, MAX_LOGGED_VALUE_LENGTH) + "..." : value;
+    }
+
+    /**
+     * Метод репозитория, выполняющий запрос, и место в коде приложения, откуда он вызван.
+     */
+    private static String caller() {
+        String repositoryMethod = null;
+        try {
+            // Прокси репозиториев Spring Data публикуют текущий вызов через ExposeInvocationInterceptor
+            MethodInvocation invocation = ExposeInvocationInterceptor.currentInvocation();
+            if (invocation instanceof ProxyMethodInvocation proxyInvocation) {
+                Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(proxyInvocation.getProxy());
+                repositoryMethod = interfaces[0].getSimpleName() + "." + invocation.getMethod().getName();
+            }
+        } catch (IllegalStateException e) {
+            // Запрос выполняется не через репозиторий (JdbcTemplate, загрузка ассоциаций)
+        }
+        String frame = StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APP_PACKAGE)
+                        && !f.getClassName().startsWith(APP_PACKAGE + "db.")
+                        && !f.getClassName().contains("$$"))
+                .findFirst()
+                .map(f -> f.getClassName().substring(APP_PACKAGE.length()) + "." + f.getMethodName()
+                        + ":" + f.getLineNumber())
+                .orElse("unknown"));
+        return repositoryMethod != null ? repositoryMethod + " via " + frame : frame;
+    }
+}
@@ -0,0 +1,228 @@
+package ru.practicum.shareit.db;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика SQL в разрезе HTTP-запросов.
+ * Счетчики текущего запроса живут в потоке обработки (их открывает и закрывает
+ * {@link QueryStatsInterceptor}, в том числе при переходе в асинхронный поток),
+ * по завершении они сводятся в агрегаты по эндпоинтам.
+ * Отдельно копится статистика по текстам запросов; число различных текстов ограничено,
+ * новые тексты сверх лимита не учитываются.
+ */
+@Component
+public class QueryStatsRegistry {
+    private static final ThreadLocal<RequestStats> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final int maxStatements;
+
+    public QueryStatsRegistry(@Value("${shareit.sql.max-tracked-statements:1000}") int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * Счетчики запроса, обрабатываемого текущим потоком, или null вне HTTP-запроса.
+     */
+    static RequestStats current() {
+        return CURRENT.get();
+    }
+
+    void start(String endpoint, int budget) {
+        CURRENT.set(new RequestStats(endpoint, budget));
+    }
+
+    /**
+     * Отвязывает счетчики от текущего потока без сведения в агрегаты: обработка запроса
+     * продолжается в другом потоке, который подхватит их через {@link #attach}.
+     */
+    RequestStats detach() {
+        RequestStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    void attach(RequestStats stats) {
+        CURRENT.set(stats);
+    }
+
+    /**
+     * Закрывает счетчики текущего потока и добавляет их к агрегатам эндпоинта.
+     */
+    RequestStats finish() {
+        RequestStats stats = CURRENT.get();
+        CURRENT.remove();
+        if (stats != null) {
+            endpoints.computeIfAbsent(stats.endpoint, EndpointStats::new).add(stats);
+        }
+        return stats;
+    }
+
+    void recordStatement(String sql, long elapsedMs, boolean slow) {
+        StatementStats stats = statements.get(sql);
+        if (stats == null) {
+            if (statements.size() >= maxStatements) {
+                return;
+            }
+            stats = statements.computeIfAbsent(sql, StatementStats::new);
+        }
+        stats.add(elapsedMs, slow);
+    }
+
+    /**
+     * Эндпоинты с наибольшим средним числом SQL на запрос.
+     */
+    public List<EndpointSummary> topEndpoints(int limit) {
+        return endpoints.values().stream()
+                .map(EndpointStats::summary)
+                .sorted(Comparator.comparingDouble(EndpointSummary::getAvgStatements).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Тексты SQL с наибольшим суммарным временем выполнения.
+     */
+    public List<StatementSummary> topStatements(int limit) {
+        return statements.values().stream()
+                .map(StatementStats::summary)
+                .sorted(Comparator.comparingLong(StatementSummary::getTotalMs).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public void reset() {
+        endpoints.clear();
+        statements.clear();
+    }
+
+    /**
+     * Счетчики одного HTTP-запроса. В каждый момент используются одним потоком: при асинхронной
+     * обработке они передаются между потоками через атрибут запроса.
+     */
+    @Getter
+    static final class RequestStats {
+        private final String endpoint;
+        private final int budget;
+        private int statements;
+        private long elapsedMs;
+        private boolean overBudget;
+
+        private RequestStats(String endpoint, int budget) {
+            this.endpoint = endpoint;
+            this.budget = budget;
+        }
+
+        /**
+         * Учитывает начало выполнения SQL.
+         *
+         * @return true, если этим выполнением запрос впервые превысил бюджет
+         */
+        boolean countStatement() {
+            statements++;
+            if (budget > 0 && statements > budget && !overBudget) {
+                overBudget = true;
+                return true;
+            }
+            return false;
+        }
+
+        void addElapsed(long ms) {
+            elapsedMs += ms;
+        }
+    }
+
+    private static final class EndpointStats {
+        private final String endpoint;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder elapsedMs = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder overBudget = new LongAdder();
+
+        private EndpointStats(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        private void add(RequestStats stats) {
+            requests.increment();
+            statements.add(stats.statements);
+            elapsedMs.add(stats.elapsedMs);
+            maxStatements.accumulate(stats.statements);
+            if (stats.overBudget) {
+                overBudget.increment();
+            }
+        }
+
+        private EndpointSummary summary() {
+            long count = requests.sum();
+            long total = statements.sum();
+            return new EndpointSummary(endpoint, count, total, count > 0 ? (double) total / count : 0,
+                    maxStatements.get(), elapsedMs.sum(), overBudget.sum());
+        }
+    }
+
+    private static final class StatementStats {
+        private final String sql;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+        private final LongAccumulator maxMs = new LongAccumulator(Math::max, 0);
+        private final LongAdder slow = new LongAdder();
+
+        private StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        private void add(long elapsedMs, boolean isSlow) {
+            count.increment();
+            totalMs.add(elapsedMs);
+            maxMs.accumulate(elapsedMs);
+            if (isSlow) {
+                slow.increment();
+            }
+        }
+
+        private StatementSummary summary() {
+            return new StatementSummary(sql, count.sum(), totalMs.sum(), maxMs.get(), slow.sum());
+        }
+    }
+
+    /**
+     * Сводка по эндпоинту для /actuator/sqlstats.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class EndpointSummary {
+        private final String endpoint;
+        private final long requests;
+        private final long statements;
+        private final double avgStatements;
+        private final long maxStatements;
+        private final long totalMs;
+        private final long overBudget;
+    }
+
+    /**
+     * Сводка по тексту SQL для /actuator/sqlstats.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class StatementSummary {
+        private final String sql;
+        private final long count;
+        private final long totalMs;
+        private final long maxMs;
+        private final long slow;
+    }
+}
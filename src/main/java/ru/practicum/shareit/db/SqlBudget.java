@@ -0,0 +1,21 @@
+package ru.practicum.shareit.db;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Бюджет SQL-запросов на один вызов эндпоинта.
+ * Превышение всегда пишется в лог и учитывается в /actuator/sqlstats, а при
+ * shareit.sql.budget.enforce=true (профиль test) запрос завершается ошибкой,
+ * так что N+1 ловится тестами, а не в продакшене.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+    /**
+     * Максимальное число выполнений SQL в потоке обработки запроса.
+     */
+    int value();
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.db;
+
+/**
+ * Запрос выполнил больше SQL, чем разрешено его {@link SqlBudget}.
+ */
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.db;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/sqlstats: эндпоинты с наибольшим числом SQL на запрос и самые затратные тексты SQL.
+ * DELETE сбрасывает накопленную статистику.
+ */
+@Component
+@Endpoint(id = "sqlstats")
+@RequiredArgsConstructor
+public class SqlStatsEndpoint {
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final QueryStatsRegistry registry;
+
+    @ReadOperation
+    public Map<String, Object> top(@Nullable Integer limit) {
+        int top = limit != null && limit > 0 ? limit : DEFAULT_LIMIT;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("endpoints", registry.topEndpoints(top));
+        result.put("statements", registry.topStatements(top));
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        registry.reset();
+    }
+}
@@ -61,6 +61,24 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    /**
+     * Обрабатывает TooManyRequestsException и возвращает HTTP 429.
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ErrorResponse handleTooManyRequestsException(final TooManyRequestsException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    /**
+     * Обрабатывает ServiceOverloadedException и возвращает HTTP 503.
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleServiceOverloadedException(final ServiceOverloadedException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
     /**
      * Обрабатывает все остальные исключения и возвращает HTTP 500.
      */
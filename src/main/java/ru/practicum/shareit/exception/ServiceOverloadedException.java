@@ -0,0 +1,11 @@
+package ru.practicum.shareit.exception;
+
+/**
+ * Исключение для случаев, когда сервис перегружен и не принимает новые запросы.
+ * Используется для возвращения HTTP 503 статуса.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.exception;
+
+/**
+ * Исключение для случаев, когда клиент превысил допустимую частоту запросов.
+ * Используется для возвращения HTTP 429 статуса.
+ */
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.idempotency;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сохраненный результат запроса, выполненного с заголовком Idempotency-Key.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    /**
+     * Пользователь, эндпоинт и значение ключа.
+     */
+    @Id
+    @Column(name = "id", length = 400)
+    private String id;
+
+    /**
+     * Отпечаток тела запроса: ключ нельзя переиспользовать для другого запроса.
+     */
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+
+    /**
+     * Тело ответа в JSON.
+     */
+    @Column(name = "response", nullable = false, columnDefinition = "TEXT")
+    private String response;
+
+    @Column(name = "created", nullable = false)
+    private LocalDateTime created;
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интерфейс репозитория сохраненных ответов идемпотентных запросов.
+ */
+public interface IdempotencyRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Вставляет запись; если ключ уже занят, бросает DataIntegrityViolationException, а не перезаписывает ответ.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (id, fingerprint, response, created) " +
+            "VALUES (:#{#r.id}, :#{#r.fingerprint}, :#{#r.response}, :#{#r.created})", nativeQuery = true)
+    void insert(@Param("r") IdempotencyRecord record);
+
+    /**
+     * Удаляет записи, созданные раньше указанного момента.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.created < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
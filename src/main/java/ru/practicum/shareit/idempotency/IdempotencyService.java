@@ -0,0 +1,216 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Поддержка заголовка Idempotency-Key для создающих запросов.
+ * Результат первого выполнения сохраняется в таблице idempotency_keys и в ограниченном LRU-кеше;
+ * повторный запрос с тем же ключом получает сохраненный ответ без обращения к сервису.
+ * Одновременные повторы ждут завершения первого выполнения, а не запускают свое.
+ * Действие и запись ключа выполняются в одной транзакции: если ключ успел занять другой экземпляр,
+ * результат действия откатывается и возвращается сохраненный ответ.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final long waitTimeoutMs;
+    private final Map<String, IdempotencyRecord> cache;
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRepository idempotencyRepository, ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${shareit.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${shareit.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${shareit.idempotency.wait-timeout-ms:5000}") long waitTimeoutMs) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.cache = Collections.synchronizedMap(new LruMap<>(cacheSize));
+    }
+
+    /**
+     * Выполняет действие не более одного раза для данного пользователя, эндпоинта и ключа.
+     * Без ключа действие выполняется как обычно.
+     *
+     * @param request тело запроса; повтор ключа с другим телом отклоняется.
+     */
+    public <T> T execute(Long userId, String endpoint, String key, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("Invalid Idempotency-Key");
+        }
+
+        String id = userId + " " + endpoint + " " + key;
+        String fingerprint = fingerprint(request);
+        IdempotencyRecord stored = find(id);
+        if (stored == null) {
+            CompletableFuture<IdempotencyRecord> own = new CompletableFuture<>();
+            CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(id, own);
+            if (running != null) {
+                stored = await(running);
+            } else {
+                try {
+                    // Первое выполнение могло завершиться между поиском и регистрацией
+                    stored = find(id);
+                    if (stored == null) {
+                        IdempotencyRecord record = executeOnce(id, fingerprint, action);
+                        cache.put(id, record);
+                        own.complete(record);
+                        stored = record;
+                    } else {
+                        own.complete(stored);
+                    }
+                } catch (RuntimeException e) {
+                    own.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.remove(id, own);
+                }
+            }
+        }
+
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            throw new ValidationException("Idempotency-Key has already been used for a different request");
+        }
+        return read(stored.getResponse(), responseType);
+    }
+
+    /**
+     * Выполняет действие и записывает ключ в одной транзакции. Конфликт по ключу означает,
+     * что запрос уже выполнил другой экземпляр: транзакция откатывается, возвращается его запись.
+     */
+    private <T> IdempotencyRecord executeOnce(String id, String fingerprint, Supplier<T> action) {
+        try {
+            return transactionTemplate.execute(status -> {
+                IdempotencyRecord record = new IdempotencyRecord(id, fingerprint, write(action.get()),
+                        LocalDateTime.now());
+                idempotencyRepository.insert(record);
+                return record;
+            });
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyRecord stored = idempotencyRepository.findById(id).orElseThrow(() -> e);
+            log.debug("Idempotency key {} was taken concurrently, returning the stored response", id);
+            return stored;
+        }
+    }
+
+    /**
+     * Удаляет сохраненные ответы старше времени хранения.
+     */
+    @Scheduled(fixedDelayString = "${shareit.idempotency.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        int deleted = idempotencyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private IdempotencyRecord find(String id) {
+        IdempotencyRecord record = cache.get(id);
+        if (record == null) {
+            record = idempotencyRepository.findById(id).orElse(null);
+            if (record != null) {
+                cache.put(id, record);
+            }
+        }
+        if (record != null && record.getCreated().isBefore(LocalDateTime.now().minus(ttl))) {
+            cache.remove(id);
+            return null;
+        }
+        return record;
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Повтор получает ту же ошибку, что и первое выполнение
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceOverloadedException("Request with this Idempotency-Key is still running, retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Waiting for the idempotent request was interrupted");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize response", e);
+        }
+    }
+
+    private <T> T read(String response, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize stored response", e);
+        }
+    }
+
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.dto.IntervalDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Неизменяемый отсортированный список непересекающихся занятых интервалов одной вещи.
+ */
+final class BusyIntervals {
+    /**
+     * Отступ свободного интервала от соседних занятых.
+     */
+    static final Duration FREE_SLOT_MARGIN = Duration.ofSeconds(1);
+    static final BusyIntervals EMPTY = new BusyIntervals(new LocalDateTime[0], new LocalDateTime[0]);
+
+    private final LocalDateTime[] starts;
+    private final LocalDateTime[] ends;
+
+    private BusyIntervals(LocalDateTime[] starts, LocalDateTime[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * Объединяет интервалы, отсортированные по дате начала, в список непересекающихся интервалов.
+     */
+    static BusyIntervals merge(List<LocalDateTime> sortedStarts, List<LocalDateTime> ends) {
+        if (sortedStarts.isEmpty()) {
+            return EMPTY;
+        }
+        List<LocalDateTime> mergedStarts = new ArrayList<>();
+        List<LocalDateTime> mergedEnds = new ArrayList<>();
+        LocalDateTime currentStart = sortedStarts.get(0);
+        LocalDateTime currentEnd = ends.get(0);
+        for (int i = 1; i < sortedStarts.size(); i++) {
+            LocalDateTime start = sortedStarts.get(i);
+            LocalDateTime end = ends.get(i);
+            if (!start.isAfter(currentEnd)) {
+                if (end.isAfter(currentEnd)) {
+                    currentEnd = end;
+                }
+            } else {
+                mergedStarts.add(currentStart);
+                mergedEnds.add(currentEnd);
+                currentStart = start;
+                currentEnd = end;
+            }
+        }
+        mergedStarts.add(currentStart);
+        mergedEnds.add(currentEnd);
+        return new BusyIntervals(mergedStarts.toArray(new LocalDateTime[0]), mergedEnds.toArray(new LocalDateTime[0]));
+    }
+
+    /**
+     * Возвращает занятые интервалы, пересекающиеся с периодом [from, to], обрезанные по его границам.
+     * Интервалы, которые только касаются периода (заканчиваются в from или начинаются в to), не возвращаются.
+     */
+    List<IntervalDto> busy(LocalDateTime from, LocalDateTime to) {
+        int index = firstEndingAfter(from);
+        if (index == starts.length || !starts[index].isBefore(to)) {
+            return Collections.emptyList();
+        }
+        List<IntervalDto> result = new ArrayList<>();
+        for (int i = index; i < starts.length && starts[i].isBefore(to); i++) {
+            result.add(new IntervalDto(
+                    starts[i].isBefore(from) ? from : starts[i],
+                    ends[i].isAfter(to) ? to : ends[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает свободные интервалы внутри периода [from, to], которые можно забронировать целиком.
+     * Проверка пересечения при бронировании включает границы периодов, поэтому свободный интервал
+     * начинается через {@link #FREE_SLOT_MARGIN} после конца занятого и заканчивается за столько же
+     * до начала следующего; занятые интервалы, касающиеся периода, тоже учитываются.
+     */
+    List<IntervalDto> free(LocalDateTime from, LocalDateTime to) {
+        List<IntervalDto> result = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (int i = firstEndingNotBefore(from); i < starts.length && !starts[i].isAfter(to); i++) {
+            LocalDateTime gapEnd = starts[i].minus(FREE_SLOT_MARGIN);
+            if (gapEnd.isAfter(cursor)) {
+                result.add(new IntervalDto(cursor, gapEnd));
+            }
+            LocalDateTime next = ends[i].plus(FREE_SLOT_MARGIN);
+            if (next.isAfter(cursor)) {
+                cursor = next;
+            }
+        }
+        if (cursor.isBefore(to)) {
+            result.add(new IntervalDto(cursor, to));
+        }
+        return result;
+    }
+
+    private int firstEndingAfter(LocalDateTime from) {
+        return firstEnding(from, false);
+    }
+
+    private int firstEndingNotBefore(LocalDateTime from) {
+        return firstEnding(from, true);
+    }
+
+    private int firstEnding(LocalDateTime from, boolean inclusive) {
+        // Концы объединенных интервалов возрастают, поэтому по ним можно искать бинарным поиском
+        int low = 0;
+        int high = ends.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (inclusive ? ends[mid].isBefore(from) : !ends[mid].isAfter(from)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -17,10 +17,17 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByItemIdOrderByCreatedDesc(@Param("itemId") Long itemId);
 
     /**
-     * Находит все комментарии для списка вещей.
+     * Находит не больше perItem последних комментариев к каждой из вещей (оконная функция в БД).
      */
-    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.item.id IN :itemIds ORDER BY c.item.id, c.created DESC")
-    List<Comment> findByItemIdInOrderByCreatedDesc(@Param("itemIds") List<Long> itemIds);
+    @Query(value = "SELECT t.id AS id, t.item_id AS itemId, t.text AS text, t.author_name AS authorName, " +
+            "t.created AS created FROM (" +
+            "SELECT c.id, c.item_id, c.text, u.name AS author_name, c.created, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.created DESC, c.id DESC) AS rn " +
+            "FROM comments c JOIN users u ON u.id = c.author_id " +
+            "WHERE c.item_id = ANY(:itemIds) AND u.deleted_at IS NULL) t " +
+            "WHERE t.rn <= :perItem ORDER BY t.item_id, t.created DESC, t.id DESC", nativeQuery = true)
+    List<ItemCommentView> findLatestByItemIds(@Param("itemIds") long[] itemIds,
+                                              @Param("perItem") int perItem);
 
     /**
      * Проверяет, существует ли комментарий от пользователя к вещи.
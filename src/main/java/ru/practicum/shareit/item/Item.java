@@ -2,8 +2,13 @@ package ru.practicum.shareit.item;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 import ru.practicum.shareit.user.User;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Table(name = "items")
 @Getter
@@ -11,9 +16,12 @@ import ru.practicum.shareit.user.User;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
+@SQLRestriction("deleted_at IS NULL")
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false)
@@ -31,4 +39,14 @@ public class Item {
 
     @Column(name = "request_id")
     private Long requestId;
+
+    @Column(name = "category", length = 50)
+    private String category;
+
+    @Column(name = "area", length = 100)
+    private String area;
+
+    // Время мягкого удаления; удаленные вещи не видны запросам и физически удаляются фоновой очисткой
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.IntervalDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис календаря занятости вещей.
+ * Для каждой вещи хранит в кеше объединенные интервалы бронирований; кеш вещи сбрасывается
+ * при любом изменении ее бронирований.
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemAvailabilityService {
+    private static final int MAX_IDS_PER_LOOKUP = 1000;
+    private static final Set<BookingStatus> BUSY_STATUSES = EnumSet.of(BookingStatus.APPROVED, BookingStatus.WAITING);
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+
+    private final Map<Long, ItemIntervals> cache = new ConcurrentHashMap<>();
+    // Счетчик сбросов: результат загрузки не кладется в кеш, если за время загрузки что-то было сброшено
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Value("${shareit.availability.cache-size:10000}")
+    private int cacheSize;
+
+    /**
+     * Возвращает занятые и свободные интервалы вещи в периоде [from, to].
+     *
+     * @param includeWaiting учитывать ли бронирования, ожидающие подтверждения.
+     */
+    @Transactional(readOnly = true)
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to,
+                                               boolean includeWaiting) {
+        return getAvailability(List.of(itemId), from, to, includeWaiting).get(0);
+    }
+
+    /**
+     * Возвращает календари занятости для нескольких вещей; отсутствующие в кеше вещи загружаются одним запросом.
+     */
+    @Transactional(readOnly = true)
+    public List<ItemAvailabilityDto> getAvailability(List<Long> itemIds, LocalDateTime from, LocalDateTime to,
+                                                     boolean includeWaiting) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ValidationException("Invalid availability period");
+        }
+        if (itemIds.size() > MAX_IDS_PER_LOOKUP) {
+            throw new ValidationException("Too many ids, at most " + MAX_IDS_PER_LOOKUP + " allowed");
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(itemIds);
+        Map<Long, ItemIntervals> intervals = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            ItemIntervals cached = cache.get(id);
+            if (cached != null) {
+                intervals.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            intervals.putAll(load(missing));
+        }
+
+        List<ItemAvailabilityDto> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BusyIntervals busyIntervals = includeWaiting ? intervals.get(id).all() : intervals.get(id).approved();
+            List<IntervalDto> busy = busyIntervals.busy(from, to);
+            result.add(ItemAvailabilityDto.builder()
+                    .itemId(id)
+                    .from(from)
+                    .to(to)
+                    .busy(busy)
+                    .free(busyIntervals.free(from, to))
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * Сбрасывает кеш вещи после изменения ее бронирований.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        evict(event.getItemId());
+    }
+
+    public void evict(Long itemId) {
+        invalidations.incrementAndGet();
+        cache.remove(itemId);
+    }
+
+    private Map<Long, ItemIntervals> load(List<Long> itemIds) {
+        long invalidationsBefore = invalidations.get();
+
+        Set<Long> existing = new LinkedHashSet<>(itemRepository.findExistingIds(itemIds));
+        for (Long id : itemIds) {
+            if (!existing.contains(id)) {
+                throw new NotFoundException("Item not found with id: " + id);
+            }
+        }
+
+        Map<Long, List<Booking>> bookingsByItemId = bookingRepository
+                .findByItemIdInAndStatusInOrderByStartAsc(itemIds, BUSY_STATUSES)
+                .stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+
+        Map<Long, ItemIntervals> loaded = new HashMap<>();
+        for (Long id : itemIds) {
+            loaded.put(id, toItemIntervals(bookingsByItemId.getOrDefault(id, Collections.emptyList())));
+        }
+
+        if (invalidations.get() == invalidationsBefore) {
+            if (cache.size() + loaded.size() > cacheSize) {
+                cache.clear();
+            }
+            cache.putAll(loaded);
+        }
+        return loaded;
+    }
+
+    private ItemIntervals toItemIntervals(List<Booking> bookings) {
+        List<LocalDateTime> approvedStarts = new ArrayList<>();
+        List<LocalDateTime> approvedEnds = new ArrayList<>();
+        List<LocalDateTime> allStarts = new ArrayList<>(bookings.size());
+        List<LocalDateTime> allEnds = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            if (booking.getStatus() == BookingStatus.APPROVED) {
+                approvedStarts.add(booking.getStart());
+                approvedEnds.add(booking.getEnd());
+            }
+            allStarts.add(booking.getStart());
+            allEnds.add(booking.getEnd());
+        }
+        return new ItemIntervals(BusyIntervals.merge(approvedStarts, approvedEnds), BusyIntervals.merge(allStarts, allEnds));
+    }
+
+    /**
+     * Занятость вещи: только подтвержденные бронирования и подтвержденные вместе с ожидающими.
+     */
+    private record ItemIntervals(BusyIntervals approved, BusyIntervals all) {
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+/**
+ * Событие об изменении вещи (создание, обновление, удаление).
+ * Публикуется {@link ItemServiceImpl} и позволяет индексам в памяти обновляться после фиксации транзакции.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ItemChangedEvent {
+    private final Long itemId;
+
+    /**
+     * Новое состояние вещи; null, если вещь удалена.
+     */
+    private final ItemDto item;
+}
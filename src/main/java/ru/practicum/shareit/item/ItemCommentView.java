@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция комментария вместе с вещью и именем автора для списка вещей владельца.
+ */
+public interface ItemCommentView {
+    Long getId();
+
+    Long getItemId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+}
@@ -2,11 +2,20 @@ package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.db.SqlBudget;
+import ru.practicum.shareit.idempotency.IdempotencyService;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.recommendation.ItemRecommendationService;
+import ru.practicum.shareit.recommendation.dto.SimilarItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -19,6 +28,10 @@ import java.util.List;
 public class ItemController {
     // Внедрение зависимости сервиса через конструктор
     private final ItemService itemService;
+    private final ItemAvailabilityService itemAvailabilityService;
+    private final IdempotencyService idempotencyService;
+    private final ItemRecommendationService itemRecommendationService;
+    private final ItemSuggestIndex itemSuggestIndex;
 
     // Имя заголовка для передачи идентификатора пользователя
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
@@ -28,12 +41,15 @@ public class ItemController {
      *
      * @param itemDto данные вещи из тела запроса
      * @param ownerId идентификатор владельца из заголовка X-Sharer-User-Id
+     * @param idempotencyKey ключ идемпотентности: повтор с тем же ключом вернет ранее созданную вещь
      * @return созданная вещь
      */
     @PostMapping
     public ItemDto create(@Valid @RequestBody ItemDto itemDto,
-                          @RequestHeader(USER_ID_HEADER) Long ownerId) {
-        return itemService.create(itemDto, ownerId);
+                          @RequestHeader(USER_ID_HEADER) Long ownerId,
+                          @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(ownerId, "POST /items", idempotencyKey, itemDto, ItemDto.class,
+                () -> itemService.create(itemDto, ownerId));
     }
 
     /**
@@ -42,6 +58,7 @@ public class ItemController {
      * @param id идентификатор вещи.
      * @return вещь.
      */
+    @SqlBudget(6)
     @GetMapping("/{id}")
     public ItemDto getById(@PathVariable Long id,
                            @RequestHeader(USER_ID_HEADER) Long userId) {
@@ -49,14 +66,19 @@ public class ItemController {
     }
 
     /**
-     * Возвращает все вещи владельца.
+     * Возвращает вещи владельца страницей по возрастанию id.
      *
      * @param ownerId идентификатор владельца из заголовка.
+     * @param after   id последней вещи предыдущей страницы (необязательно)
+     * @param size    размер страницы (по умолчанию — все вещи)
      * @return список вещей владельца.
      */
+    @SqlBudget(5)
     @GetMapping
-    public List<ItemDto> getByOwnerId(@RequestHeader(USER_ID_HEADER) Long ownerId) {
-        return itemService.getByOwnerId(ownerId);
+    public List<ItemDto> getByOwnerId(@RequestHeader(USER_ID_HEADER) Long ownerId,
+                                      @RequestParam(required = false) Long after,
+                                      @RequestParam(required = false) Integer size) {
+        return itemService.getByOwnerId(ownerId, after, size);
     }
 
     /**
@@ -87,12 +109,105 @@ public class ItemController {
     /**
      * Ищет доступные вещи по тексту
      *
-     * @param text текст для поиска (из параметра запроса)
+     * @param text     текст для поиска (из параметра запроса)
+     * @param category категория вещи (необязательно)
+     * @param area     район, где находится вещь (необязательно)
+     * @param start    начало периода, в который вещь должна быть свободна (необязательно)
+     * @param end      конец периода, в который вещь должна быть свободна (необязательно)
+     * @param from     индекс первого элемента
+     * @param size     размер страницы (по умолчанию — все результаты)
      * @return список подходящих вещей
      */
+    @SqlBudget(3)
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam String text) {
-        return itemService.search(text);
+    public List<ItemDto> search(@RequestParam String text,
+                                @RequestParam(required = false) String category,
+                                @RequestParam(required = false) String area,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                @RequestParam(defaultValue = "0") int from,
+                                @RequestParam(required = false) Integer size) {
+        return itemService.search(text, category, area, start, end, from, size);
+    }
+
+    /**
+     * Ищет доступные вещи по тексту и возвращает вместе со страницей результатов
+     * число найденных вещей по категориям и районам. Параметры совпадают с /items/search.
+     *
+     * @return страница вещей, их общее число и фасеты
+     */
+    @SqlBudget(3)
+    @GetMapping("/search/faceted")
+    public ItemSearchResultDto searchFaceted(@RequestParam String text,
+                                             @RequestParam(required = false) String category,
+                                             @RequestParam(required = false) String area,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                             @RequestParam(defaultValue = "0") int from,
+                                             @RequestParam(required = false) Integer size) {
+        return itemService.searchFaceted(text, category, area, start, end, from, size);
+    }
+
+    /**
+     * Возвращает подсказки для строки поиска: слова и названия доступных вещей, начинающиеся с префикса,
+     * в порядке популярности. Ответ строится из индекса в памяти без обращения к БД.
+     *
+     * @param prefix введенное начало запроса.
+     * @param limit  максимальное число подсказок.
+     * @return подсказки по убыванию веса.
+     */
+    @GetMapping("/suggest")
+    public List<ItemSuggestionDto> suggest(@RequestParam String prefix,
+                                           @RequestParam(defaultValue = "10") int limit) {
+        return itemSuggestIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Возвращает занятые и свободные интервалы вещи в указанном периоде.
+     *
+     * @param id             идентификатор вещи.
+     * @param from           начало периода.
+     * @param to             конец периода.
+     * @param includeWaiting учитывать ли бронирования, ожидающие подтверждения.
+     * @return календарь занятости вещи.
+     */
+    @GetMapping("/{id}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable Long id,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                               @RequestParam(defaultValue = "false") boolean includeWaiting) {
+        return itemAvailabilityService.getAvailability(id, from, to, includeWaiting);
+    }
+
+    /**
+     * Возвращает календари занятости сразу для нескольких вещей.
+     *
+     * @param ids            идентификаторы вещей (не больше 1000).
+     * @param from           начало периода.
+     * @param to             конец периода.
+     * @param includeWaiting учитывать ли бронирования, ожидающие подтверждения.
+     * @return календари занятости в порядке переданных идентификаторов.
+     */
+    @GetMapping("/availability")
+    public List<ItemAvailabilityDto> getAvailability(@RequestParam List<Long> ids,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                     @RequestParam(defaultValue = "false") boolean includeWaiting) {
+        return itemAvailabilityService.getAvailability(ids, from, to, includeWaiting);
+    }
+
+    /**
+     * Возвращает вещи, которые чаще всего бронируют вместе с указанной.
+     * Ответ строится из модели в памяти без обращения к БД.
+     *
+     * @param id    идентификатор вещи.
+     * @param limit максимальное число вещей в ответе.
+     * @return похожие вещи по убыванию score.
+     */
+    @GetMapping("/{id}/similar")
+    public List<SimilarItemDto> getSimilar(@PathVariable Long id,
+                                           @RequestParam(defaultValue = "10") int limit) {
+        return itemRecommendationService.getSimilar(id, limit);
     }
 
     /**
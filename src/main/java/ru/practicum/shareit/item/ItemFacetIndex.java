@@ -0,0 +1,163 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс вещей по категориям и районам для фасетного поиска.
+ * Для каждого значения фасета хранится сжатое битовое множество (Roaring) идентификаторов вещей:
+ * {@link Roaring64NavigableMap} держит по 32-битному RoaringBitmap на старшие 32 бита id,
+ * так что id за пределами int поддерживаются, а обычные id занимают один RoaringBitmap.
+ * Число совпадений в каждом значении считается пересечением с множеством найденных по тексту вещей.
+ * <p>
+ * Индекс строится при старте и обновляется по {@link ItemChangedEvent} после фиксации транзакции.
+ */
+@Slf4j
+@Component
+public class ItemFacetIndex {
+    private static final int MAX_FACET_VALUES = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Roaring64NavigableMap> categories = new HashMap<>();
+    private final Map<String, Roaring64NavigableMap> areas = new HashMap<>();
+    // Текущие значения фасетов вещи: при обновлении вещь снимается со старых значений
+    private final Map<Long, ItemFacets> facetsByItem = new HashMap<>();
+
+    public ItemFacetIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            categories.clear();
+            areas.clear();
+            facetsByItem.clear();
+            jdbcTemplate.query("SELECT id, category, area FROM items " +
+                            "WHERE deleted_at IS NULL AND (category IS NOT NULL OR area IS NOT NULL)",
+                    rs -> {
+                        put(rs.getLong(1), new ItemFacets(rs.getString(2), rs.getString(3)));
+                    });
+            categories.values().forEach(Roaring64NavigableMap::runOptimize);
+            areas.values().forEach(Roaring64NavigableMap::runOptimize);
+            log.info("Item facet index loaded: {} items, {} categories, {} areas",
+                    facetsByItem.size(), categories.size(), areas.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        long itemId = event.getItemId();
+        ItemDto item = event.getItem();
+        lock.writeLock().lock();
+        try {
+            remove(itemId);
+            if (item != null && (item.getCategory() != null || item.getArea() != null)) {
+                put(itemId, new ItemFacets(item.getCategory(), item.getArea()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Применяет фильтры по категории и району к найденным вещам и считает фасеты.
+     * Число вещей по категориям считается с учетом фильтра по району и наоборот,
+     * чтобы выбор значения не скрывал остальные значения того же фасета.
+     *
+     * @param matched  вещи, найденные по тексту
+     * @param category фильтр по категории (null — без фильтра)
+     * @param area     фильтр по району (null — без фильтра)
+     */
+    public FacetedMatch facet(Roaring64NavigableMap matched, String category, String area) {
+        lock.readLock().lock();
+        try {
+            Roaring64NavigableMap byCategory = category != null
+                    ? categories.getOrDefault(category, new Roaring64NavigableMap()) : null;
+            Roaring64NavigableMap byArea = area != null
+                    ? areas.getOrDefault(area, new Roaring64NavigableMap()) : null;
+            Roaring64NavigableMap categoryBase = byArea != null
+                    ? Roaring64NavigableMap.and(matched, byArea) : matched;
+            Roaring64NavigableMap areaBase = byCategory != null
+                    ? Roaring64NavigableMap.and(matched, byCategory) : matched;
+            Roaring64NavigableMap items = byCategory != null
+                    ? Roaring64NavigableMap.and(categoryBase, byCategory) : categoryBase;
+            return new FacetedMatch(items, counts(categories, categoryBase), counts(areas, areaBase));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Long> counts(Map<String, Roaring64NavigableMap> postings, Roaring64NavigableMap base) {
+        Map<String, Long> counts = new HashMap<>();
+        postings.forEach((value, itemIds) -> {
+            long count = Roaring64NavigableMap.andCardinality(base, itemIds);
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        });
+        Map<String, Long> result = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAX_FACET_VALUES)
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    private void put(long itemId, ItemFacets facets) {
+        facetsByItem.put(itemId, facets);
+        if (facets.category() != null) {
+            categories.computeIfAbsent(facets.category(), value -> new Roaring64NavigableMap()).addLong(itemId);
+        }
+        if (facets.area() != null) {
+            areas.computeIfAbsent(facets.area(), value -> new Roaring64NavigableMap()).addLong(itemId);
+        }
+    }
+
+    private void remove(long itemId) {
+        ItemFacets facets = facetsByItem.remove(itemId);
+        if (facets == null) {
+            return;
+        }
+        removeFrom(categories, facets.category(), itemId);
+        removeFrom(areas, facets.area(), itemId);
+    }
+
+    private static void removeFrom(Map<String, Roaring64NavigableMap> postings, String value, long itemId) {
+        if (value == null) {
+            return;
+        }
+        Roaring64NavigableMap itemIds = postings.get(value);
+        itemIds.removeLong(itemId);
+        if (itemIds.isEmpty()) {
+            postings.remove(value);
+        }
+    }
+
+    private record ItemFacets(String category, String area) {
+    }
+
+    /**
+     * Вещи, прошедшие фильтры, и число найденных вещей по значениям фасетов (по убыванию).
+     */
+    public record FacetedMatch(Roaring64NavigableMap items, Map<String, Long> categories, Map<String, Long> areas) {
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.BookingInfoDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.user.User;
 
 import java.util.List;
@@ -18,6 +19,8 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .requestId(item.getRequestId())
+                .category(item.getCategory())
+                .area(item.getArea())
                 .build();
     }
 
@@ -31,12 +34,22 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .requestId(item.getRequestId())
+                .category(item.getCategory())
+                .area(item.getArea())
                 .lastBooking(lastBooking)
                 .nextBooking(nextBooking)
                 .comments(comments)
                 .build();
     }
 
+    public ItemShortDto toItemShortDto(Item item) {
+        return new ItemShortDto(
+                item.getId(),
+                item.getName(),
+                item.getOwner().getId()
+        );
+    }
+
     public Item toItem(ItemDto itemDto, User owner) {
         return Item.builder()
                 .id(itemDto.getId())
@@ -45,6 +58,8 @@ public class ItemMapper {
                 .available(itemDto.getAvailable())
                 .owner(owner)
                 .requestId(itemDto.getRequestId())
+                .category(itemDto.getCategory())
+                .area(itemDto.getArea())
                 .build();
     }
 
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одновременных одинаковых чтений вещи (single-flight).
+ * Первый запрос по ключу (вещь, представление для владельца) выполняет загрузку, остальные
+ * одновременные запросы с тем же ключом ждут его результат, не обращаясь к БД.
+ * Ошибка загрузки передается всем ожидающим. Метрики shareit.items.reads с тегом
+ * result=loaded|coalesced позволяют считать долю объединенных чтений.
+ */
+@Component
+public class ItemReadCoalescer {
+    private final Map<ReadKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loaded;
+    private final Counter coalesced;
+    private final long timeoutMs;
+
+    public ItemReadCoalescer(MeterRegistry meterRegistry,
+                             @Value("${shareit.items.coalesce-timeout-ms:5000}") long timeoutMs) {
+        this.loaded = Counter.builder("shareit.items.reads")
+                .description("Item reads that executed their own load")
+                .tag("result", "loaded")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("shareit.items.reads")
+                .description("Item reads served by a concurrent identical load")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("shareit.items.reads.in-flight", inFlight, Map::size)
+                .description("Item loads currently in progress")
+                .register(meterRegistry);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Возвращает результат загрузки для ключа, выполняя ее, только если такая же загрузка еще не идет.
+     * Для одного значения ownerView загрузчик всегда должен возвращать один и тот же тип.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Long itemId, boolean ownerView, Supplier<T> loader) {
+        ReadKey key = new ReadKey(itemId, ownerView);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            coalesced.increment();
+            return (T) await(running);
+        }
+
+        loaded.increment();
+        try {
+            T result = loader.get();
+            own.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Включая Error: иначе ожидающие ждали бы незавершенный результат до таймаута
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> running) {
+        try {
+            return running.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceOverloadedException("Item read timed out, retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Item read was interrupted");
+        }
+    }
+
+    private record ReadKey(Long itemId, boolean ownerView) {
+    }
+}
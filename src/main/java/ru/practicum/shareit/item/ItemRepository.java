@@ -1,19 +1,100 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findByOwnerId(Long ownerId);
+    /**
+     * Страница вещей владельца по возрастанию id, начиная после указанного id (keyset-пагинация).
+     */
+    List<Item> findByOwnerIdAndIdGreaterThanOrderByIdAsc(Long ownerId, Long id, Limit limit);
 
     @Query("SELECT i FROM Item i " +
+            "WHERE i.available = true " +
+            "AND (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
+            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%'))) " +
+            "ORDER BY i.id")
+    List<Item> searchAvailableItems(@Param("text") String text, Pageable pageable);
+
+    /**
+     * Ищет доступные вещи по тексту, у которых нет подтвержденных бронирований, пересекающихся с периодом.
+     * Проверка пересечений выполняется анти-соединением по индексу bookings (item_id, status, start_date, end_date).
+     */
+    @Query("SELECT i FROM Item i " +
+            "WHERE i.available = true " +
+            "AND (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
+            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%'))) " +
+            "AND NOT EXISTS (SELECT b.id FROM Booking b WHERE b.item = i AND b.status = 'APPROVED' " +
+            "AND b.start <= :end AND b.end >= :start) " +
+            "ORDER BY i.id")
+    List<Item> searchAvailableItemsInPeriod(@Param("text") String text,
+                                            @Param("start") LocalDateTime start,
+                                            @Param("end") LocalDateTime end,
+                                            Pageable pageable);
+
+    /**
+     * Идентификаторы всех доступных вещей, подходящих по тексту (для фасетного поиска).
+     */
+    @Query("SELECT i.id FROM Item i " +
             "WHERE i.available = true " +
             "AND (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
             "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')))")
-    List<Item> searchAvailableItems(@Param("text") String text);
+    List<Long> searchAvailableItemIds(@Param("text") String text);
+
+    /**
+     * Идентификаторы всех доступных вещей, подходящих по тексту и свободных в период (для фасетного поиска).
+     */
+    @Query("SELECT i.id FROM Item i " +
+            "WHERE i.available = true " +
+            "AND (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
+            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%'))) " +
+            "AND NOT EXISTS (SELECT b.id FROM Booking b WHERE b.item = i AND b.status = 'APPROVED' " +
+            "AND b.start <= :end AND b.end >= :start)")
+    List<Long> searchAvailableItemIdsInPeriod(@Param("text") String text,
+                                              @Param("start") LocalDateTime start,
+                                              @Param("end") LocalDateTime end);
+
+    /**
+     * Находит вещи, созданные в ответ на любой из переданных запросов.
+     */
+    @Query("SELECT i FROM Item i WHERE i.requestId IN :requestIds ORDER BY i.id")
+    List<Item> findByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * Отвязывает вещи от запроса (перед удалением запроса).
+     */
+    @Modifying
+    @Query("UPDATE Item i SET i.requestId = NULL WHERE i.requestId = :requestId")
+    void clearRequestId(@Param("requestId") Long requestId);
+
+    /**
+     * Возвращает идентификаторы существующих вещей из переданного списка.
+     */
+    @Query("SELECT i.id FROM Item i WHERE i.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Помечает вещи удаленными. Массовое обновление сбрасывает кеш второго уровня вещей,
+     * поэтому удаленные вещи не читаются из кеша.
+     */
+    @Modifying
+    @Query("UPDATE Item i SET i.deletedAt = :now WHERE i.id IN :ids")
+    int softDelete(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Отвязывает вещи от запросов (перед удалением запросов).
+     */
+    @Modifying
+    @Query("UPDATE Item i SET i.requestId = NULL WHERE i.id IN :ids")
+    void clearRequestIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -3,8 +3,10 @@ package ru.practicum.shareit.item;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
 import ru.practicum.shareit.item.dto.BookingInfoDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -32,12 +34,14 @@ public interface ItemService {
     ItemDto getById(Long id, Long userId);
 
     /**
-     * Находит все вещи определенного владельца.
+     * Находит вещи определенного владельца страницей по возрастанию id.
      *
      * @param ownerId идентификатор владельца.
+     * @param after   id, после которого начинается страница (необязательно).
+     * @param size    размер страницы (по умолчанию — все вещи).
      * @return список вещей владельца в формате DTO.
      */
-    List<ItemDto> getByOwnerId(Long ownerId);
+    List<ItemDto> getByOwnerId(Long ownerId, Long after, Integer size);
 
     /**
      * Обновляет данные вещи (может выполнять только владелец вещи).
@@ -59,11 +63,28 @@ public interface ItemService {
 
     /**
      * Ищет доступные вещи по тексту.
+     * Если задан период, возвращаются только вещи без подтвержденных бронирований, пересекающихся с ним.
      *
-     * @param text текст для поиска.
+     * @param text     текст для поиска.
+     * @param category категория (может быть null).
+     * @param area     район (может быть null).
+     * @param start    начало периода (может быть null).
+     * @param end      конец периода (может быть null).
+     * @param from     индекс первого элемента.
+     * @param size     размер страницы (null — без ограничения).
      * @return список подходящих вещей в формате DTO.
      */
-    List<ItemDto> search(String text);
+    List<ItemDto> search(String text, String category, String area, LocalDateTime start, LocalDateTime end,
+                         int from, Integer size);
+
+    /**
+     * Ищет доступные вещи по тексту и считает найденные вещи по категориям и районам.
+     * Параметры совпадают с {@link #search}.
+     *
+     * @return страница вещей, их общее число и фасеты.
+     */
+    ItemSearchResultDto searchFaceted(String text, String category, String area, LocalDateTime start,
+                                      LocalDateTime end, int from, Integer size);
 
     /**
      * Добавляет комментарий к вещи.
@@ -1,18 +1,31 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.ItemBookingView;
 import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.db.OffsetPageRequest;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
 import ru.practicum.shareit.item.dto.BookingInfoDto;
+import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.web.ResourceVersions;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -27,10 +40,20 @@ public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final CommentRepository commentRepository;
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
+    private final ItemAvailabilityService itemAvailabilityService;
+    private final ResourceVersions resourceVersions;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemReadCoalescer itemReadCoalescer;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemFacetIndex itemFacetIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Value("${shareit.items.comments-per-item:10}")
+    private int commentsPerItem;
 
     /**
      * Создает вещь, предварительно проверив существование владельца
@@ -41,77 +64,150 @@ public class ItemServiceImpl implements ItemService {
         User owner = userRepository.findById(ownerId)
                 .orElseThrow(() -> new NotFoundException("User not found with id: " + ownerId));
 
-        Item item = itemMapper.toItem(itemDto, owner);
+        if (itemDto.getRequestId() != null && !itemRequestRepository.existsById(itemDto.getRequestId())) {
+            throw new NotFoundException("Item request not found with id: " + itemDto.getRequestId());
+        }
 
+        Item item = itemMapper.toItem(itemDto, owner);
+        Item savedItem = itemRepository.save(item);
+        touch(savedItem);
 
-        return itemMapper.toItemDto(itemRepository.save(item));
+        ItemDto savedDto = itemMapper.toItemDto(savedItem);
+        eventPublisher.publishEvent(new ItemChangedEvent(savedItem.getId(), savedDto));
+        return savedDto;
     }
 
     /**
      * Находит вещь по идентификатору с дополнительной информацией о бронированиях и комментариях..
+     * Одновременные чтения одной вещи объединяются: вещь с комментариями загружается один раз для всех,
+     * бронирования - один раз для всех запросов владельца. Метод не транзакционный, чтобы ожидающие
+     * запросы не занимали соединение с БД; загрузка выполняется в собственной транзакции.
      */
     @Override
-    @Transactional(readOnly = true)
     public ItemDto getById(Long id, Long userId) {
+        ItemView view = itemReadCoalescer.execute(id, false,
+                () -> transactionTemplate.execute(status -> loadItemView(id)));
+        ItemDto itemDto = copy(view.item());
+
+        // Добавляем информацию о бронированиях только для владельца
+        if (view.ownerId().equals(userId)) {
+            OwnerBookings bookings = itemReadCoalescer.execute(id, true,
+                    () -> transactionTemplate.execute(status ->
+                            new OwnerBookings(findLastBooking(id), findNextBooking(id))));
+            itemDto.setLastBooking(bookings.last());
+            itemDto.setNextBooking(bookings.next());
+        }
+
+        return itemDto;
+    }
+
+    private ItemView loadItemView(Long id) {
         Item item = itemRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Item not found with id: " + id));
 
         ItemDto itemDto = itemMapper.toItemDto(item);
 
-        // Добавляем информацию о бронированиях только для владельца
-        if (item.getOwner().getId().equals(userId)) {
-            itemDto.setLastBooking(findLastBooking(id));
-            itemDto.setNextBooking(findNextBooking(id));
-        }
-
         // Добавляем комментарии для всех пользователей
         List<CommentDto> comments = commentRepository.findByItemIdOrderByCreatedDesc(id)
                 .stream()
                 .map(commentMapper::toCommentDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList());
         itemDto.setComments(comments);
 
-        return itemDto;
-
+        return new ItemView(item.getOwner().getId(), itemDto);
     }
 
     /**
-     * Находит все вещи определенного владельца с информацией о бронированиях и комментариях.
+     * Копия общего результата загрузки, которую можно дополнять для конкретного запроса.
      */
-    @Override
-    @Transactional(readOnly = true)
-    public List<ItemDto> getByOwnerId(Long ownerId) {
-        List<Item> items = itemRepository.findByOwnerId(ownerId);
-        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+    private static ItemDto copy(ItemDto itemDto) {
+        return ItemDto.builder()
+                .id(itemDto.getId())
+                .name(itemDto.getName())
+                .description(itemDto.getDescription())
+                .available(itemDto.getAvailable())
+                .requestId(itemDto.getRequestId())
+                .category(itemDto.getCategory())
+                .area(itemDto.getArea())
+                .lastBooking(itemDto.getLastBooking())
+                .nextBooking(itemDto.getNextBooking())
+                .comments(itemDto.getComments())
+                .build();
+    }
 
-        // Загружаем комментарии для всех вещей одним запросом
-        Map<Long, List<CommentDto>> commentsByItemId = getCommentsByItemIds(itemIds);
+    private record ItemView(Long ownerId, ItemDto item) {
+    }
 
-        // Загружаем все бронирования для всех вещей владельца одним запросом
-        Map<Long, List<Booking>> bookingsByItemId = bookingRepository
-                .findByItemIdInAndStatusOrderByStartAsc(itemIds, BookingStatus.APPROVED)
-                .stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+    private record OwnerBookings(BookingInfoDto last, BookingInfoDto next) {
+    }
 
+    /**
+     * Находит вещи владельца страницей по возрастанию id с информацией о бронированиях и комментариях.
+     * Бронирования и комментарии загружаются только для вещей страницы: последнее и следующее
+     * бронирование и не больше {@code commentsPerItem} последних комментариев на вещь.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDto> getByOwnerId(Long ownerId, Long after, Integer size) {
+        if (size != null && size <= 0) {
+            throw new ValidationException("Invalid pagination parameters");
+        }
+        List<Item> items = itemRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(ownerId,
+                after != null ? after : 0L, size != null ? Limit.of(size) : Limit.unlimited());
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        // Страница отсортирована по id, поэтому индекс вещи на странице находится поиском по long[] (см. indexOf)
+        long[] ids = new long[items.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = items.get(i).getId();
+        }
         LocalDateTime now = LocalDateTime.now();
+        return assemblePage(items, ids,
+                bookingRepository.findLastApprovedPerItem(ids, now),
+                bookingRepository.findNextApprovedPerItem(ids, now),
+                commentRepository.findLatestByItemIds(ids, commentsPerItem),
+                itemMapper);
+    }
 
-        return items.stream()
-                .map(item -> {
-                    ItemDto itemDto = itemMapper.toItemDto(item);
-
-                    // Добавляем информацию о бронированиях для владельца
-                    List<Booking> itemBookings = bookingsByItemId.getOrDefault(item.getId(), Collections.emptyList());
-                    if (!itemBookings.isEmpty()) {
-                        itemDto.setLastBooking(findLastBookingFromList(itemBookings, now));
-                        itemDto.setNextBooking(findNextBookingFromList(itemBookings, now));
-                    }
-
-                    // Добавляем комментарии
-                    itemDto.setComments(commentsByItemId.getOrDefault(item.getId(), Collections.emptyList()));
+    /**
+     * Собирает DTO страницы из вещей и строк запросов бронирований и комментариев.
+     * ids — id вещей страницы в том же порядке, что и items, по возрастанию.
+     */
+    static List<ItemDto> assemblePage(List<Item> items, long[] ids, List<ItemBookingView> lastBookingRows,
+                                      List<ItemBookingView> nextBookingRows, List<ItemCommentView> commentRows,
+                                      ItemMapper itemMapper) {
+        BookingInfoDto[] lastBookings = toBookingInfoByIndex(ids, lastBookingRows);
+        BookingInfoDto[] nextBookings = toBookingInfoByIndex(ids, nextBookingRows);
+
+        // Комментарии приходят отсортированными по вещи, поэтому комментарии одной вещи лежат подряд
+        // в общем списке: для вещи достаточно запомнить начало и длину ее отрезка
+        List<CommentDto> comments = new ArrayList<>(commentRows.size());
+        int[] commentsFrom = new int[ids.length];
+        int[] commentsCount = new int[ids.length];
+        int index = 0;
+        for (ItemCommentView row : commentRows) {
+            index = indexOf(ids, row.getItemId(), index);
+            if (index < 0) {
+                index = 0;
+                continue;
+            }
+            if (commentsCount[index]++ == 0) {
+                commentsFrom[index] = comments.size();
+            }
+            comments.add(new CommentDto(row.getId(), row.getText(), row.getAuthorName(), row.getCreated()));
+        }
 
-                    return itemDto;
-                })
-                .collect(Collectors.toList());
+        List<ItemDto> result = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            ItemDto itemDto = itemMapper.toItemDto(items.get(i));
+            itemDto.setLastBooking(lastBookings[i]);
+            itemDto.setNextBooking(nextBookings[i]);
+            itemDto.setComments(commentsCount[i] == 0 ? Collections.emptyList()
+                    : comments.subList(commentsFrom[i], commentsFrom[i] + commentsCount[i]));
+            result.add(itemDto);
+        }
+        return result;
     }
 
     /**
@@ -138,17 +234,32 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             existingItem.setAvailable(itemDto.getAvailable());
         }
+        if (itemDto.getCategory() != null) {
+            existingItem.setCategory(itemDto.getCategory());
+        }
+        if (itemDto.getArea() != null) {
+            existingItem.setArea(itemDto.getArea());
+        }
 
-        return itemMapper.toItemDto(itemRepository.save(existingItem));
+        Item savedItem = itemRepository.save(existingItem);
+        touch(savedItem);
+        ItemDto savedDto = itemMapper.toItemDto(savedItem);
+        eventPublisher.publishEvent(new ItemChangedEvent(savedItem.getId(), savedDto));
+        return savedDto;
     }
 
     /**
-     * Удаляет вещь.
+     * Помечает вещь удаленной; ее бронирования и комментарии удаляет фоновая очистка.
      */
     @Override
     @Transactional
     public void delete(Long id) {
-        itemRepository.deleteById(id);
+        itemRepository.findById(id).ifPresent(item -> {
+            itemRepository.softDelete(List.of(id), LocalDateTime.now());
+            touch(item);
+            eventPublisher.publishEvent(new ItemChangedEvent(id, null));
+        });
+        itemAvailabilityService.evict(id);
     }
 
     /**
@@ -156,11 +267,93 @@ public class ItemServiceImpl implements ItemService {
      */
     @Override
     @Transactional(readOnly = true)
-    public List<ItemDto> search(String text) {
+    public List<ItemDto> search(String text, String category, String area, LocalDateTime start, LocalDateTime end,
+                                int from, Integer size) {
+        validateSearch(start, end, from, size);
         if (text == null || text.isBlank()) {
             return Collections.emptyList();
         }
-        return itemRepository.searchAvailableItems(text).stream()
+        if (category != null || area != null) {
+            return loadPage(facetedMatch(text, category, area, start, end).items(), from, size);
+        }
+
+        Pageable pageable = size != null ? OffsetPageRequest.of(from, size) : Pageable.unpaged();
+        List<Item> items = start != null
+                ? itemRepository.searchAvailableItemsInPeriod(text, start, end, pageable)
+                : itemRepository.searchAvailableItems(text, pageable);
+
+        return items.stream()
+                .map(itemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Ищет доступные вещи по тексту и считает фасеты по индексу {@link ItemFacetIndex}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ItemSearchResultDto searchFaceted(String text, String category, String area, LocalDateTime start,
+                                             LocalDateTime end, int from, Integer size) {
+        validateSearch(start, end, from, size);
+        if (text == null || text.isBlank()) {
+            return new ItemSearchResultDto(Collections.emptyList(), 0, Collections.emptyMap(), Collections.emptyMap());
+        }
+        ItemFacetIndex.FacetedMatch match = facetedMatch(text, category, area, start, end);
+        return new ItemSearchResultDto(loadPage(match.items(), from, size), match.items().getLongCardinality(),
+                match.categories(), match.areas());
+    }
+
+    private static void validateSearch(LocalDateTime start, LocalDateTime end, int from, Integer size) {
+        if ((start == null) != (end == null)) {
+            throw new ValidationException("Both start and end must be specified");
+        }
+        if (start != null && !start.isBefore(end)) {
+            throw new ValidationException("Invalid search period");
+        }
+        if (from < 0 || (size != null && size <= 0)) {
+            throw new ValidationException("Invalid pagination parameters");
+        }
+    }
+
+    /**
+     * Находит по тексту идентификаторы всех подходящих вещей и применяет к ним фасетные фильтры.
+     */
+    private ItemFacetIndex.FacetedMatch facetedMatch(String text, String category, String area,
+                                                     LocalDateTime start, LocalDateTime end) {
+        List<Long> ids = start != null
+                ? itemRepository.searchAvailableItemIdsInPeriod(text, start, end)
+                : itemRepository.searchAvailableItemIds(text);
+        Roaring64NavigableMap matched = new Roaring64NavigableMap();
+        for (Long id : ids) {
+            matched.addLong(id);
+        }
+        return itemFacetIndex.facet(matched, category, area);
+    }
+
+    /**
+     * Загружает страницу вещей из множества идентификаторов в порядке возрастания id,
+     * начиная с from-го элемента (без size — все вещи).
+     */
+    private List<ItemDto> loadPage(Roaring64NavigableMap itemIds, int from, Integer size) {
+        int total = (int) Math.min(itemIds.getLongCardinality(), Integer.MAX_VALUE);
+        int offset = size != null ? from : 0;
+        int limit = size != null ? size : total;
+        List<Long> pageIds = new ArrayList<>(Math.min(limit, total));
+        LongIterator iterator = itemIds.getLongIterator();
+        for (int i = 0; iterator.hasNext() && pageIds.size() < limit; i++) {
+            long id = iterator.next();
+            if (i >= offset) {
+                pageIds.add(id);
+            }
+        }
+        if (pageIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Item> items = itemRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
+        return pageIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
                 .map(itemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
@@ -179,7 +372,8 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new NotFoundException("Item not found with id: " + itemId));
 
         boolean hasBooked = bookingRepository.findFirstByItemIdAndBookerIdAndStatusAndEndBefore(
-                itemId, userId, BookingStatus.APPROVED, LocalDateTime.now()).isPresent();
+                itemId, userId, BookingStatus.APPROVED, LocalDateTime.now()).isPresent()
+                || archivedBookingRepository.existsByItemIdAndBookerIdAndStatus(itemId, userId, BookingStatus.APPROVED);
 
         if (!hasBooked) {
             throw new ValidationException("User can only comment on items they have booked in the past");
@@ -195,6 +389,7 @@ public class ItemServiceImpl implements ItemService {
         comment.setCreated(LocalDateTime.now());
 
         Comment savedComment = commentRepository.save(comment);
+        resourceVersions.touchOwner(item.getOwner().getId());
         return commentMapper.toCommentDto(savedComment);
     }
 
@@ -210,6 +405,13 @@ public class ItemServiceImpl implements ItemService {
                 .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
                 .findFirst();
 
+        if (lastBooking.isEmpty()) {
+            // Завершенных бронирований в основной таблице нет - последнее могло уйти в архив
+            return archivedBookingRepository.findLastByItemIdAndStatus(itemId, BookingStatus.APPROVED)
+                    .map(booking -> new BookingInfoDto(
+                            booking.getId(), booking.getBooker().getId(), booking.getStart(), booking.getEnd()))
+                    .orElse(null);
+        }
         return lastBooking.map(this::convertToBookingInfoDto).orElse(null);
     }
 
@@ -229,42 +431,46 @@ public class ItemServiceImpl implements ItemService {
     }
 
     /**
-     * Вспомогательный метод для получения комментариев по списку идентификаторов вещей.
+     * Раскладывает бронирования по индексам вещей страницы (ids отсортированы по возрастанию).
      */
-    private Map<Long, List<CommentDto>> getCommentsByItemIds(List<Long> itemIds) {
-        if (itemIds.isEmpty()) {
-            return Collections.emptyMap();
+    private static BookingInfoDto[] toBookingInfoByIndex(long[] ids, List<ItemBookingView> bookings) {
+        BookingInfoDto[] result = new BookingInfoDto[ids.length];
+        int index = 0;
+        for (ItemBookingView booking : bookings) {
+            index = indexOf(ids, booking.getItemId(), index);
+            if (index < 0) {
+                index = 0;
+                continue;
+            }
+            result[index] = new BookingInfoDto(
+                    booking.getId(), booking.getBookerId(), booking.getStartDate(), booking.getEndDate());
         }
-
-        return commentRepository.findByItemIdInOrderByCreatedDesc(itemIds)
-                .stream()
-                .collect(Collectors.groupingBy(
-                        comment -> comment.getItem().getId(),
-                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())
-                ));
+        return result;
     }
 
     /**
-     * Вспомогательный метод для поиска последнего бронирования из списка
+     * Индекс вещи в отсортированном массиве id страницы или отрицательное число.
+     * Строки запросов обычно идут по возрастанию id вещи, поэтому сначала проверяются
+     * индекс предыдущей строки и следующий за ним, и только потом выполняется двоичный поиск.
      */
-    private BookingInfoDto findLastBookingFromList(List<Booking> bookings, LocalDateTime now) {
-        return bookings.stream()
-                .filter(booking -> booking.getEnd().isBefore(now) ||
-                        (booking.getStart().isBefore(now) && booking.getEnd().isAfter(now)))
-                .max(Comparator.comparing(Booking::getEnd))
-                .map(this::convertToBookingInfoDto)
-                .orElse(null);
+    private static int indexOf(long[] ids, long itemId, int hint) {
+        if (ids[hint] == itemId) {
+            return hint;
+        }
+        if (hint + 1 < ids.length && ids[hint + 1] == itemId) {
+            return hint + 1;
+        }
+        return Arrays.binarySearch(ids, itemId);
     }
 
     /**
-     * Вспомогательный метод для поиска следующего бронирования из списка
+     * Отмечает изменение данных, в которые встраивается вещь (списки владельца и ответы на запросы).
      */
-    private BookingInfoDto findNextBookingFromList(List<Booking> bookings, LocalDateTime now) {
-        return bookings.stream()
-                .filter(booking -> booking.getStart().isAfter(now))
-                .min(Comparator.comparing(Booking::getStart))
-                .map(this::convertToBookingInfoDto)
-                .orElse(null);
+    private void touch(Item item) {
+        resourceVersions.touchOwner(item.getOwner().getId());
+        if (item.getRequestId() != null) {
+            resourceVersions.touchRequests();
+        }
     }
 
     /**
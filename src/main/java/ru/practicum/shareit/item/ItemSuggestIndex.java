@@ -0,0 +1,203 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Подсказки для строки поиска по префиксу из памяти.
+ * Терминами считаются слова названий доступных вещей и сами названия; вес термина — сумма по вещам
+ * с этим термином (1 + число бронирований вещи), так что выше оказываются популярные вещи.
+ * <p>
+ * Индекс полностью перестраивается при старте и периодически (при этом обновляется популярность),
+ * а между перестроениями следует за {@link ItemChangedEvent}.
+ */
+@Slf4j
+@Component
+public class ItemSuggestIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_WORD_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 50;
+    private static final String ITEMS_SQL = "SELECT i.id, i.name, COALESCE(b.bookings, 0) FROM items i " +
+            "LEFT JOIN (SELECT item_id, COUNT(*) AS bookings FROM bookings GROUP BY item_id) b ON b.item_id = i.id " +
+            "WHERE i.is_available = true AND i.deleted_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int topK;
+    private final int maxTerms;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state;
+    // События, пришедшие во время перестроения: применяются и к новому индексу
+    private List<ItemChangedEvent> replay;
+
+    public ItemSuggestIndex(JdbcTemplate jdbcTemplate,
+                            @Value("${shareit.suggest.top-k:10}") int topK,
+                            @Value("${shareit.suggest.max-terms:100000}") int maxTerms) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.topK = topK;
+        this.maxTerms = maxTerms;
+        this.state = new State(new SuggestTrie(topK, maxTerms), Map.of());
+    }
+
+    /**
+     * Термины, начинающиеся с префикса, по убыванию веса.
+     */
+    public List<ItemSuggestionDto> suggest(String prefix, int limit) {
+        String normalized = WORD_SEPARATOR.matcher(prefix.toLowerCase(Locale.ROOT)).replaceAll(" ").stripLeading();
+        if (normalized.isEmpty() || normalized.length() > MAX_TERM_LENGTH || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return state.trie.suggest(normalized, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${shareit.suggest.rebuild-ms:600000}",
+            fixedDelayString = "${shareit.suggest.rebuild-ms:600000}")
+    public void rebuild() {
+        setReplay(new ArrayList<>());
+        Map<Long, Long> bookings = new HashMap<>();
+        List<ItemRow> rows = new ArrayList<>();
+        try {
+            jdbcTemplate.query(ITEMS_SQL, rs -> {
+                long itemId = rs.getLong(1);
+                long itemBookings = rs.getLong(3);
+                if (itemBookings > 0) {
+                    bookings.put(itemId, itemBookings);
+                }
+                rows.add(new ItemRow(itemId, rs.getString(2)));
+            });
+        } catch (RuntimeException e) {
+            setReplay(null);
+            throw e;
+        }
+
+        State rebuilt = new State(new SuggestTrie(topK, maxTerms), bookings);
+        for (ItemRow row : rows) {
+            rebuilt.put(row.id(), row.name(), false);
+        }
+        rebuilt.trie.recomputeAll();
+
+        lock.writeLock().lock();
+        try {
+            for (ItemChangedEvent event : replay) {
+                rebuilt.apply(event);
+            }
+            replay = null;
+            state = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Item suggest index rebuilt: {} items, {} terms", rows.size(), rebuilt.trie.size());
+    }
+
+    private void setReplay(List<ItemChangedEvent> events) {
+        lock.writeLock().lock();
+        try {
+            replay = events;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            state.apply(event);
+            if (replay != null) {
+                replay.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Термины названия: слова (не короче двух символов) и, для названий из нескольких слов, само название.
+     */
+    private static String[] terms(String name) {
+        Set<String> terms = new LinkedHashSet<>();
+        String[] words = WORD_SEPARATOR.split(name.toLowerCase(Locale.ROOT).strip());
+        List<String> nonEmpty = new ArrayList<>(words.length);
+        for (String word : words) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            nonEmpty.add(word);
+            if (word.length() >= MIN_WORD_LENGTH && word.length() <= MAX_TERM_LENGTH) {
+                terms.add(word);
+            }
+        }
+        String phrase = String.join(" ", nonEmpty);
+        if (nonEmpty.size() > 1 && phrase.length() <= MAX_TERM_LENGTH) {
+            terms.add(phrase);
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    private record ItemRow(long id, String name) {
+    }
+
+    private record IndexedItem(String[] terms, long weight) {
+    }
+
+    /**
+     * Дерево терминов вместе с тем, что нужно для его инкрементального обновления:
+     * термины и вес каждой проиндексированной вещи и число бронирований на момент перестроения.
+     */
+    private static final class State {
+        private final SuggestTrie trie;
+        private final Map<Long, Long> bookings;
+        private final Map<Long, IndexedItem> items = new HashMap<>();
+
+        private State(SuggestTrie trie, Map<Long, Long> bookings) {
+            this.trie = trie;
+            this.bookings = bookings;
+        }
+
+        private void apply(ItemChangedEvent event) {
+            IndexedItem previous = items.remove(event.getItemId());
+            if (previous != null) {
+                for (String term : previous.terms()) {
+                    trie.add(term, -previous.weight(), true);
+                }
+            }
+            ItemDto item = event.getItem();
+            if (item != null && Boolean.TRUE.equals(item.getAvailable())) {
+                put(event.getItemId(), item.getName(), true);
+            }
+        }
+
+        private void put(long itemId, String name, boolean recompute) {
+            IndexedItem indexed = new IndexedItem(terms(name), 1 + bookings.getOrDefault(itemId, 0L));
+            for (String term : indexed.terms()) {
+                trie.add(term, indexed.weight(), recompute);
+            }
+            items.put(itemId, indexed);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Префиксное дерево терминов с весами. В каждом узле хранится top-K терминов его поддерева,
+ * поэтому подсказка по префиксу — это спуск по префиксу и чтение готового списка.
+ * При изменении веса термина списки пересчитываются только на пути от термина к корню.
+ * Число терминов ограничено; новые термины сверх лимита не добавляются. Класс не потокобезопасен.
+ */
+class SuggestTrie {
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Term[] NO_TERMS = new Term[0];
+    private static final Comparator<Term> BY_WEIGHT = Comparator.comparingLong((Term term) -> term.weight).reversed()
+            .thenComparing(term -> term.text);
+
+    private final Node root = new Node();
+    private final int topK;
+    private final int maxTerms;
+    private int size;
+
+    SuggestTrie(int topK, int maxTerms) {
+        this.topK = topK;
+        this.maxTerms = maxTerms;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Изменяет вес термина на delta. Термин с неположительным весом удаляется.
+     *
+     * @param recompute пересчитать top-K на пути к корню; при массовой загрузке вместо этого
+     *                  один раз вызывается {@link #recomputeAll()}
+     */
+    void add(String text, long delta, boolean recompute) {
+        Node node = find(text);
+        if (node == null || node.term == null) {
+            if (delta <= 0 || size >= maxTerms) {
+                return;
+            }
+            node = root;
+            for (int i = 0; i < text.length(); i++) {
+                Node child = node.child(text.charAt(i));
+                node = child != null ? child : node.addChild(text.charAt(i));
+            }
+            node.term = new Term(text);
+            size++;
+        }
+        node.term.weight += delta;
+        if (node.term.weight <= 0) {
+            node.term = null;
+            size--;
+        }
+        if (recompute) {
+            recomputePath(text);
+        }
+    }
+
+    void recomputeAll() {
+        recompute(root);
+    }
+
+    /**
+     * До limit терминов с наибольшим весом среди начинающихся с префикса.
+     */
+    List<ItemSuggestionDto> suggest(String prefix, int limit) {
+        Node node = find(prefix);
+        if (node == null) {
+            return List.of();
+        }
+        int count = Math.min(limit, node.top.length);
+        List<ItemSuggestionDto> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new ItemSuggestionDto(node.top[i].text, node.top[i].weight));
+        }
+        return result;
+    }
+
+    private Node find(String text) {
+        Node node = root;
+        for (int i = 0; i < text.length() && node != null; i++) {
+            node = node.child(text.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Пересчитывает top-K от узла термина к корню и удаляет опустевшие узлы.
+     */
+    private void recomputePath(String text) {
+        Node[] path = new Node[text.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < text.length(); i++) {
+            path[i + 1] = path[i].child(text.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        for (int i = text.length(); i >= 0; i--) {
+            Node node = path[i];
+            if (i > 0 && node.term == null && node.children.length == 0) {
+                path[i - 1].removeChild(text.charAt(i - 1));
+            } else {
+                node.top = top(node);
+            }
+        }
+    }
+
+    private void recompute(Node node) {
+        for (Node child : node.children) {
+            recompute(child);
+        }
+        node.top = top(node);
+    }
+
+    private Term[] top(Node node) {
+        List<Term> candidates = new ArrayList<>();
+        if (node.term != null) {
+            candidates.add(node.term);
+        }
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        if (candidates.isEmpty()) {
+            return NO_TERMS;
+        }
+        candidates.sort(BY_WEIGHT);
+        return candidates.subList(0, Math.min(topK, candidates.size())).toArray(NO_TERMS);
+    }
+
+    private static final class Term {
+        private final String text;
+        private long weight;
+
+        private Term(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * Узел дерева; дочерние узлы хранятся в массивах, отсортированных по символу.
+     */
+    private static final class Node {
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private Term term;
+        private Term[] top = NO_TERMS;
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node addChild(char label) {
+            int index = -Arrays.binarySearch(labels, label) - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            Node child = new Node();
+            newLabels[index] = label;
+            newChildren[index] = child;
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+    }
+}
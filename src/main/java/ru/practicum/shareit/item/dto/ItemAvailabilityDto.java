@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Календарь занятости вещи в запрошенном периоде.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAvailabilityDto {
+    private Long itemId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    /**
+     * Занятые интервалы (объединенные и обрезанные по границам периода), по возрастанию.
+     */
+    private List<IntervalDto> busy;
+
+    /**
+     * Свободные интервалы внутри периода, по возрастанию. Каждый можно забронировать целиком:
+     * от соседних занятых интервалов он отстоит на секунду, так как границы бронирований включаются.
+     */
+    private List<IntervalDto> free;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 
 import java.util.List;
@@ -27,6 +28,13 @@ public class ItemDto {
     private Boolean available;
 
     private Long requestId;
+
+    @Size(max = 50, message = "Category must be at most 50 characters")
+    private String category;
+
+    @Size(max = 100, message = "Area must be at most 100 characters")
+    private String area;
+
     private BookingInfoDto lastBooking;
     private BookingInfoDto nextBooking;
     private List<CommentDto> comments;
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат фасетного поиска: страница вещей, общее число найденных вещей
+ * и число найденных вещей по категориям и районам.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSearchResultDto {
+    private List<ItemDto> items;
+    private long total;
+    private Map<String, Long> categories;
+    private Map<String, Long> areas;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Подсказка для строки поиска: слово или название вещи и его вес
+ * (число доступных вещей с этим термином плюс число их бронирований).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSuggestionDto {
+    private String text;
+    private long score;
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.owner;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.owner.dto.OwnerSummaryDto;
+
+/**
+ * REST контроллер с агрегированными данными для владельца вещей.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/owners")
+@RequiredArgsConstructor
+public class OwnerController {
+    private final OwnerSummaryService ownerSummaryService;
+
+    /**
+     * Возвращает сводку по бронированиям всех вещей текущего владельца.
+     *
+     * @param ownerId идентификатор владельца из заголовка X-Sharer-User-Id.
+     * @return сводка для панели владельца.
+     */
+    @GetMapping("/me/summary")
+    public OwnerSummaryDto getSummary(@RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        log.info("GET /owners/me/summary - Getting summary for ownerId: {}", ownerId);
+        return ownerSummaryService.getSummary(ownerId);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.owner;
+
+/**
+ * Проекция статистики архивных бронирований по одной вещи владельца.
+ * Заполняется запросом {@code ArchivedBookingRepository.getOwnerItemArchiveStats} и добавляется
+ * к {@link OwnerItemStats}: в архиве только завершенные бронирования.
+ */
+public interface OwnerItemArchiveStats {
+    Long getItemId();
+
+    Long getPast();
+
+    Double getTurnaroundSeconds();
+
+    Long getDecidedCount();
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.owner;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция агрегированной статистики бронирований по одной вещи владельца.
+ * Заполняется одним сгруппированным запросом {@code BookingRepository.getOwnerItemStats}.
+ */
+public interface OwnerItemStats {
+    Long getItemId();
+
+    String getItemName();
+
+    Long getWaiting();
+
+    Long getApprovedUpcoming();
+
+    Long getCurrentCount();
+
+    Long getPast();
+
+    /**
+     * Дата начала ближайшего бронирования, ожидающего решения владельца.
+     */
+    LocalDateTime getNextPendingStart();
+
+    /**
+     * Суммарное время (в секундах) между созданием бронирования и решением владельца.
+     */
+    Double getTurnaroundSeconds();
+
+    /**
+     * Количество бронирований, по которым владелец уже принял решение.
+     */
+    Long getDecidedCount();
+}
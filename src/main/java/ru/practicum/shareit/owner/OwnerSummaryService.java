@@ -0,0 +1,88 @@
+package ru.practicum.shareit.owner;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.owner.dto.ItemSummaryDto;
+import ru.practicum.shareit.owner.dto.OwnerSummaryDto;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сервис сводной информации для владельца вещей.
+ * Статистика считается двумя сгруппированными запросами, независимо от объема истории: к bookings
+ * и к архиву bookings_archive, куда переносятся давно завершенные бронирования.
+ */
+@Service
+@RequiredArgsConstructor
+public class OwnerSummaryService {
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final UserRepository userRepository;
+
+    @Transactional(readOnly = true)
+    public OwnerSummaryDto getSummary(Long ownerId) {
+        if (!userRepository.existsById(ownerId)) {
+            throw new NotFoundException("User not found with id: " + ownerId);
+        }
+
+        List<OwnerItemStats> stats = bookingRepository.getOwnerItemStats(ownerId, LocalDateTime.now());
+        Map<Long, OwnerItemArchiveStats> archived = new HashMap<>();
+        for (OwnerItemArchiveStats row : archivedBookingRepository.getOwnerItemArchiveStats(ownerId)) {
+            archived.put(row.getItemId(), row);
+        }
+
+        List<ItemSummaryDto> items = new ArrayList<>(stats.size());
+        ItemSummaryDto nextPending = null;
+        double turnaroundSeconds = 0;
+        long decidedCount = 0;
+
+        for (OwnerItemStats row : stats) {
+            OwnerItemArchiveStats archivedRow = archived.get(row.getItemId());
+            double itemTurnaround = valueOf(row.getTurnaroundSeconds())
+                    + (archivedRow != null ? valueOf(archivedRow.getTurnaroundSeconds()) : 0);
+            long itemDecided = valueOf(row.getDecidedCount())
+                    + (archivedRow != null ? valueOf(archivedRow.getDecidedCount()) : 0);
+            ItemSummaryDto item = ItemSummaryDto.builder()
+                    .itemId(row.getItemId())
+                    .itemName(row.getItemName())
+                    .waiting(valueOf(row.getWaiting()))
+                    .approvedUpcoming(valueOf(row.getApprovedUpcoming()))
+                    .current(valueOf(row.getCurrentCount()))
+                    .past(valueOf(row.getPast()) + (archivedRow != null ? valueOf(archivedRow.getPast()) : 0))
+                    .nextPendingStart(row.getNextPendingStart())
+                    .averageTurnaroundSeconds(itemDecided > 0 ? itemTurnaround / itemDecided : null)
+                    .build();
+            items.add(item);
+
+            if (item.getNextPendingStart() != null && (nextPending == null
+                    || item.getNextPendingStart().isBefore(nextPending.getNextPendingStart()))) {
+                nextPending = item;
+            }
+            turnaroundSeconds += itemTurnaround;
+            decidedCount += itemDecided;
+        }
+
+        return OwnerSummaryDto.builder()
+                .items(items)
+                .nextPendingApproval(nextPending)
+                .averageTurnaroundSeconds(decidedCount > 0 ? turnaroundSeconds / decidedCount : null)
+                .build();
+    }
+
+    private static long valueOf(Long count) {
+        return count != null ? count : 0;
+    }
+
+    private static double valueOf(Double seconds) {
+        return seconds != null ? seconds : 0;
+    }
+}
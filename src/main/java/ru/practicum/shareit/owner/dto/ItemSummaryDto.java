@@ -0,0 +1,47 @@
+package ru.practicum.shareit.owner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сводка по бронированиям одной вещи владельца.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSummaryDto {
+    private Long itemId;
+    private String itemName;
+
+    /**
+     * Количество бронирований, ожидающих решения владельца.
+     */
+    private long waiting;
+
+    /**
+     * Количество подтвержденных бронирований, которые еще не начались.
+     */
+    private long approvedUpcoming;
+
+    /**
+     * Количество подтвержденных бронирований, идущих в данный момент.
+     */
+    private long current;
+
+    /**
+     * Количество подтвержденных завершенных бронирований.
+     */
+    private long past;
+
+    private LocalDateTime nextPendingStart;
+
+    /**
+     * Среднее время принятия решения по бронированию в секундах (null, если решений еще не было).
+     */
+    private Double averageTurnaroundSeconds;
+}
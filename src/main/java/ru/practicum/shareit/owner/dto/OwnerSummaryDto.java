@@ -0,0 +1,27 @@
+package ru.practicum.shareit.owner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Сводка для панели владельца: статистика по вещам, ближайшее ожидающее решения
+ * бронирование и среднее время принятия решения.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OwnerSummaryDto {
+    private List<ItemSummaryDto> items;
+
+    /**
+     * Вещь с ближайшим по дате начала бронированием в статусе WAITING (null, если таких нет).
+     */
+    private ItemSummaryDto nextPendingApproval;
+
+    private Double averageTurnaroundSeconds;
+}
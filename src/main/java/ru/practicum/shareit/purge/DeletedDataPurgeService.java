@@ -0,0 +1,198 @@
+package ru.practicum.shareit.purge;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.web.ResourceVersions;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Фоновая очистка мягко удаленных пользователей и вещей.
+ * Запрос на удаление только помечает строку (deleted_at), а зависимые строки удаляются здесь
+ * небольшими порциями, каждая в своей транзакции и с паузой между порциями, чтобы не держать
+ * долгих блокировок на bookings и comments. Порядок: вещи удаленных владельцев помечаются удаленными,
+ * затем удаляются комментарии и бронирования удаленных вещей и пользователей, сами вещи,
+ * запросы удаленных пользователей и, наконец, пользователи. За один запуск обрабатывается не больше
+ * {@code maxBatches} порций на шаг; остаток дочищают следующие запуски.
+ */
+@Slf4j
+@Service
+public class DeletedDataPurgeService {
+    private static final String ITEMS_OF_DELETED_OWNERS_SQL = "SELECT i.id, i.owner_id FROM items i " +
+            "JOIN users u ON u.id = i.owner_id " +
+            "WHERE u.deleted_at IS NOT NULL AND i.deleted_at IS NULL ORDER BY i.id LIMIT ?";
+    private static final String DEPENDENT_BOOKINGS_SQL = "SELECT b.id, b.item_id, i.owner_id FROM bookings b " +
+            "JOIN items i ON i.id = b.item_id JOIN users u ON u.id = b.booker_id " +
+            "WHERE i.deleted_at <= ? OR u.deleted_at <= ? ORDER BY b.id LIMIT ?";
+    private static final String DEPENDENT_ARCHIVED_BOOKINGS_SQL = "DELETE FROM bookings_archive WHERE id IN (" +
+            "SELECT a.id FROM bookings_archive a JOIN items i ON i.id = a.item_id JOIN users u ON u.id = a.booker_id " +
+            "WHERE i.deleted_at <= ? OR u.deleted_at <= ? ORDER BY a.id LIMIT ?)";
+    private static final String DEPENDENT_COMMENTS_SQL = "SELECT c.id, i.owner_id FROM comments c " +
+            "JOIN items i ON i.id = c.item_id JOIN users u ON u.id = c.author_id " +
+            "WHERE i.deleted_at <= ? OR u.deleted_at <= ? ORDER BY c.id LIMIT ?";
+    private static final String DELETED_ITEMS_SQL = "DELETE FROM items WHERE id IN (" +
+            "SELECT i.id FROM items i WHERE i.deleted_at <= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.item_id = i.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM bookings_archive a WHERE a.item_id = i.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM comments c WHERE c.item_id = i.id) ORDER BY i.id LIMIT ?)";
+    private static final String ITEMS_ANSWERING_DELETED_REQUESTS_SQL = "SELECT i.id, i.owner_id FROM items i " +
+            "JOIN requests r ON r.id = i.request_id JOIN users u ON u.id = r.requester_id " +
+            "WHERE u.deleted_at <= ? AND i.deleted_at IS NULL ORDER BY i.id LIMIT ?";
+    private static final String DELETED_REQUESTS_SQL = "DELETE FROM requests WHERE id IN (" +
+            "SELECT r.id FROM requests r JOIN users u ON u.id = r.requester_id WHERE u.deleted_at <= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM items i WHERE i.request_id = r.id) ORDER BY r.id LIMIT ?)";
+    private static final String DELETED_USERS_SQL = "DELETE FROM users WHERE id IN (" +
+            "SELECT u.id FROM users u WHERE u.deleted_at <= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM items i WHERE i.owner_id = u.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM requests r WHERE r.requester_id = u.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.booker_id = u.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM bookings_archive a WHERE a.booker_id = u.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM comments c WHERE c.author_id = u.id) ORDER BY u.id LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long pauseMs;
+
+    public DeletedDataPurgeService(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                                   TransactionTemplate transactionTemplate, ItemRepository itemRepository,
+                                   BookingRepository bookingRepository, ResourceVersions resourceVersions,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${shareit.purge.batch-size:500}") int batchSize,
+                                   @Value("${shareit.purge.max-batches:20}") int maxBatches,
+                                   @Value("${shareit.purge.pause-ms:50}") long pauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.resourceVersions = resourceVersions;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(initialDelayString = "${shareit.purge.interval-ms:30000}",
+            fixedDelayString = "${shareit.purge.interval-ms:30000}")
+    public void purge() {
+        // Строки, помеченные после начала запуска, дочистит следующий запуск
+        LocalDateTime cutoff = LocalDateTime.now();
+        int items = repeat(this::markItemsOfDeletedOwners);
+        int comments = repeat(() -> deleteComments(cutoff));
+        int bookings = repeat(() -> deleteBookings(cutoff));
+        int archived = repeat(() -> jdbcTemplate.update(DEPENDENT_ARCHIVED_BOOKINGS_SQL, cutoff, cutoff, batchSize));
+        int purgedItems = repeat(() -> jdbcTemplate.update(DELETED_ITEMS_SQL, cutoff, batchSize));
+        int requests = repeat(() -> deleteRequests(cutoff));
+        int users = repeat(() -> jdbcTemplate.update(DELETED_USERS_SQL, cutoff, batchSize));
+        if (items + comments + bookings + archived + purgedItems + requests + users > 0) {
+            log.info("Purged deleted data: marked {} items of deleted owners, removed {} comments, {} bookings, " +
+                    "{} archived bookings, {} items, {} requests, {} users",
+                    items, comments, bookings, archived, purgedItems, requests, users);
+        }
+    }
+
+    /**
+     * Выполняет шаг порциями, пока порции полные и не исчерпан лимит порций.
+     *
+     * @return сколько строк обработано
+     */
+    private int repeat(Supplier<Integer> batch) {
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            if (i > 0 && !pause()) {
+                break;
+            }
+            Integer processed = transactionTemplate.execute(status -> batch.get());
+            int count = processed != null ? processed : 0;
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private int markItemsOfDeletedOwners() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(ITEMS_OF_DELETED_OWNERS_SQL, batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = rows.stream().map(row -> ((Number) row.get("id")).longValue()).toList();
+        itemRepository.softDelete(ids, LocalDateTime.now());
+        ids.forEach(id -> eventPublisher.publishEvent(new ItemChangedEvent(id, null)));
+        rows.stream().map(row -> ((Number) row.get("owner_id")).longValue()).distinct()
+                .forEach(resourceVersions::touchOwner);
+        return rows.size();
+    }
+
+    private int deleteComments(LocalDateTime cutoff) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(DEPENDENT_COMMENTS_SQL, cutoff, cutoff, batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = rows.stream().map(row -> ((Number) row.get("id")).longValue()).toList();
+        namedJdbcTemplate.update("DELETE FROM comments WHERE id IN (:ids)", Map.of("ids", ids));
+        rows.stream().map(row -> ((Number) row.get("owner_id")).longValue()).distinct()
+                .forEach(resourceVersions::touchOwner);
+        return rows.size();
+    }
+
+    private int deleteBookings(LocalDateTime cutoff) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(DEPENDENT_BOOKINGS_SQL, cutoff, cutoff, batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        bookingRepository.deleteByIds(rows.stream().map(row -> ((Number) row.get("id")).longValue()).toList());
+        // Те же события, что и при удалении бронирования через API: сбрасывают кеши занятости и сводок
+        rows.forEach(row -> eventPublisher.publishEvent(new BookingChangedEvent(
+                ((Number) row.get("id")).longValue(), ((Number) row.get("item_id")).longValue(),
+                ((Number) row.get("owner_id")).longValue(), null)));
+        return rows.size();
+    }
+
+    private int deleteRequests(LocalDateTime cutoff) {
+        List<Map<String, Object>> answers = jdbcTemplate.queryForList(ITEMS_ANSWERING_DELETED_REQUESTS_SQL,
+                cutoff, batchSize);
+        if (!answers.isEmpty()) {
+            itemRepository.clearRequestIds(answers.stream().map(row -> ((Number) row.get("id")).longValue()).toList());
+            answers.stream().map(row -> ((Number) row.get("owner_id")).longValue()).distinct()
+                    .forEach(resourceVersions::touchOwner);
+        }
+        int deleted = jdbcTemplate.update(DELETED_REQUESTS_SQL, cutoff, batchSize);
+        if (deleted > 0 || !answers.isEmpty()) {
+            resourceVersions.touchRequests();
+        }
+        // Порция считается полной, пока остаются вещи, отвечающие на запросы удаленных пользователей
+        return Math.max(deleted, answers.size());
+    }
+}
@@ -0,0 +1,489 @@
+package ru.practicum.shareit.recommendation;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.recommendation.dto.SimilarItemDto;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * Рекомендации "с этой вещью также бронируют" на основе совместной встречаемости.
+ * Каждое новое бронирование пользователя связывает вещь с его последними забронированными вещами
+ * (окно {@code window}); счетчик пары — число пользователей, у которых вещи оказались рядом.
+ * <p>
+ * Модель строится инкрементально: события бронирований копятся в очереди, фоновая задача
+ * применяет их и пересчитывает top-K затронутых вещей. Ответы читаются из опубликованных
+ * неизменяемых массивов без обращения к БД. У каждой вещи хранится не больше {@code maxNeighbours}
+ * соседей с наибольшими счетчиками, поэтому счетчики редких пар приближенные.
+ * Модель периодически сохраняется на диск и при старте загружается из снимка с догрузкой
+ * бронирований, созданных после него.
+ * <p>
+ * Удаленная вещь сразу перестает отвечать и пропадает из ответов по другим вещам; из модели
+ * она вычищается при ближайшем пересчете. Бронирования удаленных вещей и пользователей в модель не попадают.
+ */
+@Slf4j
+@Service
+public class ItemRecommendationService {
+    private static final int SNAPSHOT_MAGIC = 0x53524543;
+    private static final int SNAPSHOT_VERSION = 1;
+    // Идентификаторы выделяются блоками, поэтому бронирование с меньшим id может появиться позже снимка;
+    // повторное применение безопасно — пара пользователь-вещь учитывается один раз
+    private static final long CATCH_UP_MARGIN = 10_000;
+    private static final String BOOKINGS_SQL = "SELECT b.id, b.booker_id, b.item_id FROM bookings b " +
+            "JOIN items i ON i.id = b.item_id AND i.deleted_at IS NULL " +
+            "JOIN users u ON u.id = b.booker_id AND u.deleted_at IS NULL WHERE b.id > ? " +
+            "UNION ALL SELECT a.id, a.booker_id, a.item_id FROM bookings_archive a " +
+            "JOIN items i ON i.id = a.item_id AND i.deleted_at IS NULL " +
+            "JOIN users u ON u.id = a.booker_id AND u.deleted_at IS NULL WHERE a.id > ? ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path snapshotPath;
+    private final int topK;
+    private final int window;
+    private final int maxHistory;
+    private final int maxNeighbours;
+
+    private final Queue<long[]> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> pendingRemovals = new ConcurrentLinkedQueue<>();
+    private final Map<Long, SimilarItems> published = new ConcurrentHashMap<>();
+    // Удаленные вещи, которые могли попасть в модель; читается без lock
+    private final Set<Long> removed = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    // Состояние модели; изменяется только под lock
+    private final Object lock = new Object();
+    private final Map<Long, UserHistory> histories = new HashMap<>();
+    private final Map<Long, LongLongHashMap> cooccurrence = new HashMap<>();
+    private final Set<Long> dirty = new HashSet<>();
+    private long watermark;
+    private boolean changedSinceSnapshot;
+
+    public ItemRecommendationService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                     @Value("${shareit.recommendations.snapshot-path:}") String snapshotPath,
+                                     @Value("${shareit.recommendations.top-k:20}") int topK,
+                                     @Value("${shareit.recommendations.window:10}") int window,
+                                     @Value("${shareit.recommendations.max-history:500}") int maxHistory,
+                                     @Value("${shareit.recommendations.max-neighbours:50}") int maxNeighbours,
+                                     @Value("${shareit.recommendations.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.topK = topK;
+        this.window = window;
+        this.maxHistory = maxHistory;
+        this.maxNeighbours = Math.max(maxNeighbours, topK);
+    }
+
+    /**
+     * Вещи, которые чаще всего бронируют вместе с указанной, по убыванию score.
+     * Для неизвестной вещи или вещи без бронирований возвращается пустой список.
+     *
+     * @throws NotFoundException если вещь удалена
+     */
+    public List<SimilarItemDto> getSimilar(long itemId, int limit) {
+        if (removed.contains(itemId)) {
+            throw new NotFoundException("Item not found with id: " + itemId);
+        }
+        SimilarItems similar = published.get(itemId);
+        if (similar == null || limit <= 0) {
+            return List.of();
+        }
+        List<SimilarItemDto> result = new ArrayList<>(Math.min(limit, similar.ids.length));
+        // Соседи, удаленные после публикации, пропускаются до ближайшего пересчета
+        for (int i = 0; i < similar.ids.length && result.size() < limit; i++) {
+            if (!removed.contains(similar.ids[i])) {
+                result.add(new SimilarItemDto(similar.ids[i], similar.scores[i]));
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.getBooking() != null) {
+            pending.add(new long[]{event.getBookingId(), event.getBooking().getBooker().getId(), event.getItemId()});
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getItem() == null) {
+            removed.add(event.getItemId());
+            published.remove(event.getItemId());
+            pendingRemovals.add(event.getItemId());
+        }
+    }
+
+    /**
+     * Загружает модель из снимка (или строит заново) и догружает бронирования, созданные после него.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (lock) {
+            boolean restored = readSnapshot();
+            if (restored) {
+                removeDeletedSinceSnapshot();
+            }
+            long from = restored ? Math.max(0, watermark - CATCH_UP_MARGIN) : 0;
+            long[] applied = new long[1];
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(BOOKINGS_SQL, rs -> {
+                apply(rs.getLong(1), rs.getLong(2), rs.getLong(3));
+                applied[0]++;
+            }, from, from));
+            publish(cooccurrence.keySet());
+            dirty.clear();
+            log.info("Recommendation model ready: {} users, {} items, {} bookings read from the database",
+                    histories.size(), cooccurrence.size(), applied[0]);
+        }
+        ready = true;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.recommendations.refresh-ms:5000}")
+    public void refresh() {
+        if (!ready || pending.isEmpty() && pendingRemovals.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            long[] booking;
+            while ((booking = pending.poll()) != null) {
+                apply(booking[0], booking[1], booking[2]);
+            }
+            Long itemId;
+            while ((itemId = pendingRemovals.poll()) != null) {
+                remove(itemId);
+            }
+            publish(dirty);
+            dirty.clear();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${shareit.recommendations.snapshot-interval-ms:600000}",
+            fixedDelayString = "${shareit.recommendations.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        if (!ready || snapshotPath == null) {
+            return;
+        }
+        synchronized (lock) {
+            if (changedSinceSnapshot) {
+                writeSnapshot();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresh();
+        snapshot();
+    }
+
+    /**
+     * Учитывает бронирование вещи пользователем. Повторное бронирование той же вещи модель не меняет.
+     */
+    private void apply(long bookingId, long userId, long itemId) {
+        watermark = Math.max(watermark, bookingId);
+        if (removed.contains(itemId)) {
+            return;
+        }
+        UserHistory history = histories.computeIfAbsent(userId, id -> new UserHistory(window, new LongLongHashMap()));
+        if (!history.add(itemId, maxHistory)) {
+            return;
+        }
+        changedSinceSnapshot = true;
+        history.forEachRecent(other -> {
+            if (other != itemId && !removed.contains(other)) {
+                increment(itemId, other);
+                increment(other, itemId);
+            }
+        });
+        history.push(itemId);
+    }
+
+    private void increment(long itemId, long other) {
+        LongLongHashMap neighbours = cooccurrence.computeIfAbsent(itemId, id -> new LongLongHashMap());
+        neighbours.addTo(other, 1);
+        if (neighbours.size() > 2 * maxNeighbours) {
+            cooccurrence.put(itemId, strongest(neighbours, maxNeighbours));
+        }
+        dirty.add(itemId);
+    }
+
+    /**
+     * Убирает вещь из модели: ее соседей и ее саму из соседей других вещей.
+     * В истории пользователей вещь остается, новые пары с ней не создаются.
+     */
+    private void remove(long itemId) {
+        if (cooccurrence.remove(itemId) != null) {
+            changedSinceSnapshot = true;
+        }
+        // Списки соседей усечены независимо, поэтому вещь может остаться у соседа, которого нет у нее
+        for (Map.Entry<Long, LongLongHashMap> entry : cooccurrence.entrySet()) {
+            if (entry.getValue().remove(itemId)) {
+                dirty.add(entry.getKey());
+                changedSinceSnapshot = true;
+            }
+        }
+        dirty.remove(itemId);
+        published.remove(itemId);
+    }
+
+    /**
+     * Вычищает из восстановленной модели вещи, удаленные после снимка (события об их удалении
+     * не пережили перезапуск).
+     */
+    private void removeDeletedSinceSnapshot() {
+        LongLongHashMap live = new LongLongHashMap();
+        jdbcTemplate.query("SELECT id FROM items WHERE deleted_at IS NULL", rs -> {
+            live.addTo(rs.getLong(1), 1);
+        });
+        Set<Long> deleted = new HashSet<>();
+        for (Map.Entry<Long, LongLongHashMap> entry : cooccurrence.entrySet()) {
+            if (!live.containsKey(entry.getKey())) {
+                deleted.add(entry.getKey());
+            }
+            entry.getValue().forEach((other, count) -> {
+                if (!live.containsKey(other)) {
+                    deleted.add(other);
+                }
+            });
+        }
+        for (UserHistory history : histories.values()) {
+            history.forEachRecent(other -> {
+                if (!live.containsKey(other)) {
+                    deleted.add(other);
+                }
+            });
+        }
+        removed.addAll(deleted);
+        deleted.forEach(this::remove);
+        if (!deleted.isEmpty()) {
+            log.info("Removed {} deleted items from the restored recommendation model", deleted.size());
+        }
+    }
+
+    private static LongLongHashMap strongest(LongLongHashMap neighbours, int count) {
+        TopK top = new TopK(count);
+        neighbours.forEach(top::offer);
+        long[] ids = new long[top.size()];
+        long[] scores = new long[top.size()];
+        top.drainDescending(ids, scores);
+        LongLongHashMap result = new LongLongHashMap(count);
+        for (int i = 0; i < ids.length; i++) {
+            result.addTo(ids[i], scores[i]);
+        }
+        return result;
+    }
+
+    private void publish(Set<Long> itemIds) {
+        for (Long itemId : itemIds) {
+            TopK top = new TopK(topK);
+            cooccurrence.get(itemId).forEach(top::offer);
+            SimilarItems similar = new SimilarItems(new long[top.size()], new long[top.size()]);
+            top.drainDescending(similar.ids, similar.scores);
+            published.put(itemId, similar);
+        }
+    }
+
+    /**
+     * Записывает снимок во временный файл и атомарно подменяет им предыдущий.
+     */
+    private void writeSnapshot() {
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, snapshotPath.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(watermark);
+                out.writeInt(histories.size());
+                for (Map.Entry<Long, UserHistory> entry : histories.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    entry.getValue().write(out);
+                }
+                out.writeInt(cooccurrence.size());
+                for (Map.Entry<Long, LongLongHashMap> entry : cooccurrence.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    writeMap(out, entry.getValue());
+                }
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            changedSinceSnapshot = false;
+            log.info("Recommendation snapshot saved to {}: {} users, {} items", snapshotPath, histories.size(),
+                    cooccurrence.size());
+        } catch (IOException e) {
+            log.warn("Failed to save recommendation snapshot to {}", snapshotPath, e);
+        }
+    }
+
+    /**
+     * Загружает снимок, если он есть и сделан на этой же БД.
+     *
+     * @return true, если модель восстановлена из снимка
+     */
+    private boolean readSnapshot() {
+        if (snapshotPath == null || !Files.exists(snapshotPath)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring recommendation snapshot {} of unknown format", snapshotPath);
+                return false;
+            }
+            long snapshotWatermark = in.readLong();
+            // БД пересоздана: в снимке бронирования, которых в ней нет
+            if (snapshotWatermark > maxBookingId()) {
+                log.warn("Ignoring recommendation snapshot {}: it is ahead of the database", snapshotPath);
+                return false;
+            }
+            int users = in.readInt();
+            for (int i = 0; i < users; i++) {
+                histories.put(in.readLong(), UserHistory.read(in, window));
+            }
+            int items = in.readInt();
+            for (int i = 0; i < items; i++) {
+                cooccurrence.put(in.readLong(), readMap(in));
+            }
+            watermark = snapshotWatermark;
+            return true;
+        } catch (IOException e) {
+            log.warn("Failed to read recommendation snapshot {}, rebuilding from the database", snapshotPath, e);
+            histories.clear();
+            cooccurrence.clear();
+            dirty.clear();
+            return false;
+        }
+    }
+
+    private long maxBookingId() {
+        Long max = jdbcTemplate.queryForObject("SELECT GREATEST(" +
+                "(SELECT COALESCE(MAX(id), 0) FROM bookings), " +
+                "(SELECT COALESCE(MAX(id), 0) FROM bookings_archive))", Long.class);
+        return max != null ? max : 0;
+    }
+
+    private static void writeMap(DataOutputStream out, LongLongHashMap map) throws IOException {
+        out.writeInt(map.size());
+        IOException[] failure = new IOException[1];
+        map.forEach((key, value) -> {
+            if (failure[0] == null) {
+                try {
+                    out.writeLong(key);
+                    out.writeLong(value);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    private static LongLongHashMap readMap(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        LongLongHashMap map = new LongLongHashMap(size);
+        for (int i = 0; i < size; i++) {
+            map.addTo(in.readLong(), in.readLong());
+        }
+        return map;
+    }
+
+    /**
+     * Опубликованные соседи вещи по убыванию score; массивы после публикации не изменяются.
+     */
+    private record SimilarItems(long[] ids, long[] scores) {
+    }
+
+    /**
+     * Вещи, которые бронировал пользователь: множество для отсечения повторов
+     * и кольцевой буфер последних вещей для построения пар.
+     */
+    private static final class UserHistory {
+        private final LongLongHashMap seen;
+        private final long[] recent;
+        private long pushed;
+
+        private UserHistory(int window, LongLongHashMap seen) {
+            this.recent = new long[window];
+            this.seen = seen;
+        }
+
+        /**
+         * @return true, если пользователь раньше не бронировал вещь. Сверх лимита
+         * вещи не запоминаются, и их повторные бронирования учитываются заново.
+         */
+        private boolean add(long itemId, int maxHistory) {
+            if (seen.containsKey(itemId)) {
+                return false;
+            }
+            if (seen.size() < maxHistory) {
+                seen.addTo(itemId, 1);
+            }
+            return true;
+        }
+
+        private void forEachRecent(LongConsumer consumer) {
+            for (long i = Math.max(0, pushed - recent.length); i < pushed; i++) {
+                consumer.accept(recent[(int) (i % recent.length)]);
+            }
+        }
+
+        private void push(long itemId) {
+            if (recent.length > 0) {
+                recent[(int) (pushed % recent.length)] = itemId;
+                pushed++;
+            }
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            writeMap(out, seen);
+            int count = (int) Math.min(pushed, recent.length);
+            out.writeInt(count);
+            for (long i = pushed - count; i < pushed; i++) {
+                out.writeLong(recent[(int) (i % recent.length)]);
+            }
+        }
+
+        private static UserHistory read(DataInputStream in, int window) throws IOException {
+            UserHistory history = new UserHistory(window, readMap(in));
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                history.push(in.readLong());
+            }
+            return history;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.recommendation;
+
+/**
+ * Компактное отображение long -> long с открытой адресацией и линейным пробированием.
+ * Ключи и значения хранятся в двух примитивных массивах без упаковки; ключ 0 зарезервирован
+ * под пустую ячейку (идентификаторы сущностей начинаются с 1).
+ * Класс не потокобезопасен.
+ */
+class LongLongHashMap {
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    LongLongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(long key) {
+        return keys[slot(keys, key)] == key;
+    }
+
+    long get(long key) {
+        int slot = slot(keys, key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    /**
+     * Прибавляет delta к значению ключа (отсутствующий ключ считается равным 0).
+     *
+     * @return новое значение
+     */
+    long addTo(long key, long delta) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int slot = slot(keys, key);
+        if (keys[slot] == key) {
+            values[slot] += delta;
+            return values[slot];
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return delta;
+    }
+
+    /**
+     * Удаляет ключ, сдвигая назад следующие за ним ключи той же цепочки пробирования.
+     *
+     * @return true, если ключ был в отображении
+     */
+    boolean remove(long key) {
+        int slot = slot(keys, key);
+        if (keys[slot] != key || key == 0) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == 0) {
+                break;
+            }
+            int home = home(keys[next], mask);
+            // Ключ можно перенести в освободившуюся ячейку, если она лежит на его пути от home до next
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        keys[slot] = 0;
+        values[slot] = 0;
+        size--;
+        return true;
+    }
+
+    void forEach(Entry consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Ячейка с ключом или первая свободная ячейка на его пути пробирования.
+     */
+    private static int slot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = home(key, mask);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int home(long key, int mask) {
+        // Перемешивание битов: последовательные id не должны попадать в соседние ячейки
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Обработчик пары ключ-значение без упаковки.
+     */
+    @FunctionalInterface
+    interface Entry {
+        void accept(long key, long value);
+    }
+}
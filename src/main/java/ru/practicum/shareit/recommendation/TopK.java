@@ -0,0 +1,92 @@
+package ru.practicum.shareit.recommendation;
+
+/**
+ * Отбор k пар (id, score) с наибольшим score за один проход.
+ * Куча на примитивных массивах: в корне худший из отобранных (меньший score, при равенстве — больший id).
+ */
+final class TopK {
+    private final long[] ids;
+    private final long[] scores;
+    private int size;
+
+    TopK(int k) {
+        ids = new long[k];
+        scores = new long[k];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void offer(long id, long score) {
+        if (size < ids.length) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (size > 0 && worse(0, id, score)) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Перекладывает отобранные пары в массивы по убыванию score; куча при этом опустошается.
+     */
+    void drainDescending(long[] idsOut, long[] scoresOut) {
+        for (int i = size - 1; i >= 0; i--) {
+            idsOut[i] = ids[0];
+            scoresOut[i] = scores[0];
+            size--;
+            ids[0] = ids[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Хуже ли элемент кучи в ячейке i, чем пара (id, score).
+     */
+    private boolean worse(int i, long id, long score) {
+        return scores[i] < score || scores[i] == score && ids[i] > id;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(i, ids[parent], scores[parent])) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && worse(left, ids[worst], scores[worst])) {
+                worst = left;
+            }
+            if (right < size && worse(right, ids[worst], scores[worst])) {
+                worst = right;
+            }
+            if (worst == i) {
+                return;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        long score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
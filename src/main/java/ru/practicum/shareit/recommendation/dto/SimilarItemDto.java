@@ -0,0 +1,16 @@
+package ru.practicum.shareit.recommendation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Похожая вещь: score — число пользователей, бронировавших обе вещи подряд.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarItemDto {
+    private Long itemId;
+    private long score;
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.db.SqlBudget;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.List;
@@ -40,6 +41,7 @@ public class ItemRequestController {
      * @param userId идентификатор пользователя из заголовка.
      * @return список запросов пользователя.
      */
+    @SqlBudget(4)
     @GetMapping
     public List<ItemRequestDto> getByRequestorId(@RequestHeader(USER_ID_HEADER) Long userId) {
         return itemRequestService.getByUserId(userId);
@@ -52,6 +54,7 @@ public class ItemRequestController {
      * @param userId идентификатор пользователя из заголовка.
      * @return список запросов других пользователей.
      */
+    @SqlBudget(4)
     @GetMapping("/all")
     public List<ItemRequestDto> getAllExceptUser(
             @RequestHeader(USER_ID_HEADER) Long userId,
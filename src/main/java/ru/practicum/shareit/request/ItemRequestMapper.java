@@ -1,20 +1,28 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
 
 @Component
 public class ItemRequestMapper {
 
     public ItemRequestDto toItemRequestDto(ItemRequest itemRequest) {
+        return toItemRequestDto(itemRequest, Collections.emptyList());
+    }
+
+    public ItemRequestDto toItemRequestDto(ItemRequest itemRequest, List<ItemShortDto> items) {
         return new ItemRequestDto(
                 itemRequest.getId(),
                 itemRequest.getDescription(),
                 itemRequest.getRequester().getId(),
-                itemRequest.getCreated()
+                itemRequest.getCreated(),
+                items
         );
     }
 
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -19,5 +20,5 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
      * Находит все запросы, созданные другими пользователями, отсортированные по дате создания (новые сначала).
      */
     @Query("SELECT ir FROM ItemRequest ir WHERE ir.requester.id != :userId ORDER BY ir.created DESC")
-    List<ItemRequest> findByRequesterIdNotOrderByCreatedDesc(Long userId);
+    List<ItemRequest> findByRequesterIdNotOrderByCreatedDesc(Long userId, Pageable pageable);
 }
\ No newline at end of file
@@ -3,13 +3,22 @@ package ru.practicum.shareit.request;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.db.OffsetPageRequest;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.web.ResourceVersions;
 
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -22,6 +31,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRequestMapper itemRequestMapper;
     private final UserRepository userRepository;
+    private final ResourceVersions resourceVersions;
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
 
     /**
      * Создает запрос, предварительно проверив существование пользователя
@@ -34,6 +46,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
         ItemRequest itemRequest = itemRequestMapper.toItemRequest(itemRequestDto, requester);
         ItemRequest savedRequest = itemRequestRepository.save(itemRequest);
+        resourceVersions.touchRequests();
 
         return itemRequestMapper.toItemRequestDto(savedRequest);
     }
@@ -47,7 +60,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     public ItemRequestDto getById(Long id) {
         ItemRequest itemRequest = itemRequestRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Item request not found with id: " + id));
-        return itemRequestMapper.toItemRequestDto(itemRequest);
+        return toItemRequestDtos(List.of(itemRequest)).get(0);
     }
 
     /**
@@ -59,9 +72,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         if (!userRepository.existsById(userId)) {
             throw new NotFoundException("User not found with id: " + userId);
         }
-        return itemRequestRepository.findByRequesterIdOrderByCreatedDesc(userId).stream()
-                .map(itemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
+        return toItemRequestDtos(itemRequestRepository.findByRequesterIdOrderByCreatedDesc(userId));
     }
 
     /**
@@ -73,11 +84,11 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         if (!userRepository.existsById(userId)) {
             throw new NotFoundException("User not found with id: " + userId);
         }
-        return itemRequestRepository.findByRequesterIdNotOrderByCreatedDesc(userId).stream()
-                .skip(from)
-                .limit(size)
-                .map(itemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("Invalid pagination parameters");
+        }
+        return toItemRequestDtos(itemRequestRepository.findByRequesterIdNotOrderByCreatedDesc(
+                userId, OffsetPageRequest.of(from, size)));
     }
 
     /**
@@ -92,7 +103,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             existingRequest.setDescription(itemRequestDto.getDescription());
         }
 
-        return itemRequestMapper.toItemRequestDto(itemRequestRepository.save(existingRequest));
+        ItemRequest savedRequest = itemRequestRepository.save(existingRequest);
+        resourceVersions.touchRequests();
+        return toItemRequestDtos(List.of(savedRequest)).get(0);
     }
 
     /**
@@ -101,7 +114,33 @@ public class ItemRequestServiceImpl implements ItemRequestService {
      * @param id идентификатор запроса для удаления.
      */
     @Override
+    @Transactional
     public void delete(Long id) {
+        itemRepository.clearRequestId(id);
         itemRequestRepository.deleteById(id);
+        resourceVersions.touchRequests();
+    }
+
+    /**
+     * Вспомогательный метод: добавляет к запросам вещи, созданные в ответ на них.
+     * Вещи для всех запросов загружаются одним запросом и группируются в памяти.
+     */
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> requestIds = requests.stream().map(ItemRequest::getId).collect(Collectors.toList());
+        Map<Long, List<ItemShortDto>> itemsByRequestId = itemRepository.findByRequestIdIn(requestIds)
+                .stream()
+                .collect(Collectors.groupingBy(
+                        Item::getRequestId,
+                        Collectors.mapping(itemMapper::toItemShortDto, Collectors.toList())
+                ));
+
+        return requests.stream()
+                .map(request -> itemRequestMapper.toItemRequestDto(request,
+                        itemsByRequestId.getOrDefault(request.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
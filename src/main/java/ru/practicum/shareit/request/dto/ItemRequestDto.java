@@ -6,8 +6,10 @@ import jakarta.validation.constraints.PastOrPresent;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -40,4 +42,8 @@ public class ItemRequestDto {
     @PastOrPresent(message = "Дата начала ItemRequest должна быть в прошлом или настоящем")
     private LocalDateTime created;
 
+    /**
+     * Вещи, добавленные пользователями в ответ на запрос.
+     */
+    private List<ItemShortDto> items;
 }
\ No newline at end of file
@@ -34,9 +34,18 @@ public class UserController {
     }
 
     @GetMapping
-    public List<UserDto> getAllUsers() {
-        log.info("GET /users - Getting all users");
-        List<UserDto> result = userService.getAllUsers();
+    public List<UserDto> getAllUsers(@RequestParam(required = false) List<Long> ids,
+                                     @RequestParam(required = false) Long after,
+                                     @RequestParam(required = false) Integer size) {
+        log.info("GET /users - Getting users, ids: {}, after: {}, size: {}", ids, after, size);
+        List<UserDto> result;
+        if (ids != null) {
+            result = userService.getUsers(ids);
+        } else if (after != null || size != null) {
+            result = userService.getUsers(after, size);
+        } else {
+            result = userService.getAllUsers();
+        }
         log.info("GET /users - Found {} users", result.size());
         return result;
     }
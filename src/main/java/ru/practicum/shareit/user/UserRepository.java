@@ -1,13 +1,21 @@
 package ru.practicum.shareit.user;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     boolean existsByEmail(String email);
 
@@ -16,4 +24,26 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsById(Long id);
 
     List<User> findByName(String name);
+
+    /**
+     * Возвращает пользователей с идентификатором больше заданного (постраничный вывод по ключу).
+     * Результат кешируется в кеше запросов до изменения таблицы пользователей.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Проверяет email среди всех строк, включая мягко удаленных пользователей: уникальность email
+     * в таблице сохраняется до физического удаления.
+     */
+    @Query(value = "SELECT COUNT(*) > 0 FROM users WHERE email = :email", nativeQuery = true)
+    boolean existsByEmailIncludingDeleted(@Param("email") String email);
+
+    /**
+     * Помечает пользователя удаленным. Массовое обновление сбрасывает кеш второго уровня пользователей,
+     * поэтому удаленный пользователь не читается из кеша.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.deletedAt = :now WHERE u.id = :id")
+    int softDelete(@Param("id") Long id, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
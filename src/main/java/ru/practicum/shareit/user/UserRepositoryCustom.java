@@ -0,0 +1,16 @@
+package ru.practicum.shareit.user;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Дополнительные методы репозитория пользователей, не выражаемые производными запросами.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Находит пользователей по идентификаторам. Пользователи, найденные в кеше второго уровня,
+     * не запрашиваются из БД; остальные загружаются одним запросом. Несуществующие пропускаются.
+     */
+    List<User> findAllByIdCached(Collection<Long> ids);
+}
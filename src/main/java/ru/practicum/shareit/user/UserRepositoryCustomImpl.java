@@ -0,0 +1,41 @@
+package ru.practicum.shareit.user;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllByIdCached(Collection<Long> ids) {
+        Session session = entityManager.unwrap(Session.class);
+        Cache cache = session.getSessionFactory().getCache();
+        List<User> users = new ArrayList<>(ids.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            // Пользователь из кеша второго уровня загружается без запроса к БД
+            User cached = cache.containsEntity(User.class, id) ? session.find(User.class, id) : null;
+            if (cached != null) {
+                users.add(cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            // Загруженные запросом пользователи попадают в кеш второго уровня
+            users.addAll(session.createQuery("SELECT u FROM User u WHERE u.id IN :ids", User.class)
+                    .setParameter("ids", missing)
+                    .getResultList());
+        }
+        return users;
+    }
+}
@@ -1,32 +1,45 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.web.ResourceVersions;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
+    private static final int MAX_IDS_PER_LOOKUP = 1000;
+
     private final UserRepository userRepository;
+    private final ResourceVersions resourceVersions;
 
     public UserDto createUser(UserDto userDto) {
-        if (userRepository.existsByEmail(userDto.getEmail())) {
+        if (emailTaken(userDto.getEmail())) {
             throw new ValidationException("Email already exists: " + userDto.getEmail());
         }
 
         User user = UserMapper.toUser(userDto);
         User savedUser = userRepository.save(user);
+        resourceVersions.touchUsers();
         return UserMapper.toUserDto(savedUser);
     }
 
     public UserDto getUserById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
-        return UserMapper.toUserDto(user);
+        UserDto user = getUsersByIds(List.of(id)).get(id);
+        if (user == null) {
+            throw new RuntimeException("User not found with id: " + id);
+        }
+        return user;
     }
 
     public List<UserDto> getAllUsers() {
@@ -35,6 +48,50 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Возвращает страницу пользователей, упорядоченных по идентификатору, начиная после after.
+     */
+    public List<UserDto> getUsers(Long after, Integer size) {
+        if (size != null && size <= 0) {
+            throw new ValidationException("Invalid pagination parameters");
+        }
+        return userRepository.findByIdGreaterThanOrderByIdAsc(after != null ? after : 0L,
+                        size != null ? Limit.of(size) : Limit.unlimited()).stream()
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Возвращает пользователей по списку идентификаторов в порядке запроса; несуществующие пропускаются.
+     */
+    public List<UserDto> getUsers(List<Long> ids) {
+        if (ids.size() > MAX_IDS_PER_LOOKUP) {
+            throw new ValidationException("Too many ids, at most " + MAX_IDS_PER_LOOKUP + " allowed");
+        }
+        Map<Long, UserDto> users = getUsersByIds(ids);
+        return ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Возвращает пользователей по идентификаторам. Пользователи читаются через кеш второго уровня
+     * (регион users), а отсутствующие в нем загружаются одним запросом, поэтому сборщики ответов
+     * могут получить всех нужных пользователей за одно обращение.
+     */
+    public Map<Long, UserDto> getUsersByIds(Collection<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (distinct.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findAllByIdCached(distinct).stream()
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toMap(UserDto::getId, user -> user));
+    }
+
     public UserDto updateUser(Long id, UserDto userDto) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
@@ -43,20 +100,31 @@ public class UserService {
             existingUser.setName(userDto.getName());
         }
         if (userDto.getEmail() != null && !userDto.getEmail().equals(existingUser.getEmail())) {
-            if (userRepository.existsByEmail(userDto.getEmail())) {
+            if (emailTaken(userDto.getEmail())) {
                 throw new ValidationException("Email already exists: " + userDto.getEmail());
             }
             existingUser.setEmail(userDto.getEmail());
         }
 
         User updatedUser = userRepository.save(existingUser);
+        resourceVersions.touchUsers();
         return UserMapper.toUserDto(updatedUser);
     }
 
+    /**
+     * Email занят живым пользователем или удаленным, которого еще не убрала фоновая очистка.
+     */
+    private boolean emailTaken(String email) {
+        return userRepository.existsByEmailIncludingDeleted(email);
+    }
+
+    @Transactional
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
             throw new RuntimeException("User not found with id: " + id);
         }
-        userRepository.deleteById(id);
+        // Зависимые вещи, бронирования и комментарии удаляет фоновая очистка
+        userRepository.softDelete(id, LocalDateTime.now());
+        resourceVersions.touchUsers();
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Глобальное ограничение числа одновременно обрабатываемых запросов к эндпоинтам, работающим с БД.
+ * Лимит задается меньше размера пула соединений. Запрос сверх лимита недолго ждет разрешения
+ * (shareit.concurrency-limit.queue-timeout-ms), что сглаживает короткие всплески, а если
+ * разрешение не освободилось, получает 503, а не ждет соединения из пула, увеличивая задержку
+ * для всех остальных.
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+    // Разрешение сохраняется в атрибуте запроса, чтобы при асинхронной обработке
+    // повторный вызов preHandle не занимал второе разрешение
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".PERMIT";
+
+    private final Semaphore permits;
+    private final long queueTimeoutMs;
+
+    public ConcurrencyLimitInterceptor(@Value("${shareit.concurrency-limit.max-concurrent:8}") int maxConcurrent,
+                                       @Value("${shareit.concurrency-limit.queue-timeout-ms:200}") long queueTimeoutMs) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.queueTimeoutMs = queueTimeoutMs;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        if (!acquire()) {
+            throw new ServiceOverloadedException("Service is overloaded, retry later");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    private boolean acquire() {
+        try {
+            return permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permits.release();
+        }
+    }
+}
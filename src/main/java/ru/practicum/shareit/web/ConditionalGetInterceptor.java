@@ -0,0 +1,99 @@
+package ru.practicum.shareit.web;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Поддержка условных GET-запросов (If-None-Match) для списочных эндпоинтов.
+ * ETag строится из версий {@link ResourceVersions}, а не из тела ответа, поэтому при совпадении
+ * версии ответ 304 возвращается до вызова контроллера после одного чтения версий по первичному ключу.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+    // Состояния бронирований, состав которых зависит от текущего времени
+    private static final Set<String> TIME_DEPENDENT_STATES = Set.of("CURRENT", "PAST", "FUTURE");
+    private static final long TIME_BUCKET_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final int QUERY_DIGEST_BYTES = 16;
+
+    private final ResourceVersions versions;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Повторная диспетчеризация потокового ответа проверять версии заново не должна
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        String etag = buildEtag(request);
+        if (etag == null) {
+            return true;
+        }
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    private String buildEtag(HttpServletRequest request) {
+        Long userId = UserIdHeader.parse(request);
+        String query = request.getQueryString() != null ? digest(request.getQueryString()) : "";
+        switch (request.getRequestURI()) {
+            case "/users":
+                return etag("u", query, versions.users());
+            case "/requests/all":
+                return userId == null ? null : etag("r" + userId, query, versions.requests());
+            case "/items":
+                if (userId == null) {
+                    return null;
+                }
+                // lastBooking/nextBooking зависят от текущего времени
+                long[] itemVersions = versions.ownerAndUsers(userId);
+                return etag("i" + userId, query, itemVersions[0], itemVersions[1], timeBucket());
+            case "/bookings/owner":
+                if (userId == null) {
+                    return null;
+                }
+                String state = request.getParameter("state");
+                long bucket = state != null && TIME_DEPENDENT_STATES.contains(state.toUpperCase()) ? timeBucket() : 0;
+                long[] bookingVersions = versions.ownerAndUsers(userId);
+                return etag("b" + userId, query, bookingVersions[0], bookingVersions[1], bucket);
+            default:
+                return null;
+        }
+    }
+
+    private String etag(String scope, String query, long... parts) {
+        StringBuilder sb = new StringBuilder("W/\"").append(scope).append('-').append(query);
+        for (long part : parts) {
+            sb.append('-').append(Long.toHexString(part));
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Первые 128 бит SHA-256 строки запроса: разные страницы одного ресурса не должны получать один ETag,
+     * а сама строка может содержать символы, недопустимые в заголовке.
+     */
+    private static String digest(String queryString) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(queryString.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, QUERY_DIGEST_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long timeBucket() {
+        return System.currentTimeMillis() / TIME_BUCKET_MILLIS;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.web;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Настройка сериализации JSON.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Генерирует обращения к геттерам и сеттерам DTO через LambdaMetafactory вместо рефлексии.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограничение частоты запросов для каждой пары (пользователь, эндпоинт).
+ * Каждой паре соответствует корзина токенов, реализованная по алгоритму GCRA: состояние корзины -
+ * одно число (теоретическое время следующего запроса), которое обновляется через CAS без блокировок.
+ * Запрос сверх лимита отклоняется с кодом 429 до вызова контроллера.
+ * <p>
+ * Запросы без заголовка пользователя (поиск) считаются по IP-адресу с отдельным, более высоким
+ * лимитом: за одним адресом может быть много пользователей. Число корзин ограничено
+ * (shareit.rate-limit.max-keys); давно не использованные корзины вытесняются, и при следующем
+ * запросе корзина создается заново полной.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private final Cache<String, AtomicLong> buckets;
+    private final Limit userLimit;
+    private final Limit anonymousLimit;
+
+    public RateLimitInterceptor(@Value("${shareit.rate-limit.requests-per-second:20}") double requestsPerSecond,
+                                @Value("${shareit.rate-limit.burst:40}") int burst,
+                                @Value("${shareit.rate-limit.anonymous-requests-per-second:200}")
+                                double anonymousRequestsPerSecond,
+                                @Value("${shareit.rate-limit.anonymous-burst:400}") int anonymousBurst,
+                                @Value("${shareit.rate-limit.idle-timeout-ms:600000}") long idleTimeoutMs,
+                                @Value("${shareit.rate-limit.max-keys:100000}") long maxKeys) {
+        this.userLimit = new Limit(requestsPerSecond, burst);
+        this.anonymousLimit = new Limit(anonymousRequestsPerSecond, anonymousBurst);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMillis(idleTimeoutMs))
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        Long userId = UserIdHeader.parse(request);
+        String caller = userId != null ? "u" + userId : "ip:" + request.getRemoteAddr();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String key = caller + ' ' + request.getMethod() + ' ' + (pattern != null ? pattern : request.getRequestURI());
+
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(System.nanoTime()));
+        long waitNanos = acquire(bucket, System.nanoTime(), userId != null ? userLimit : anonymousLimit);
+        if (waitNanos > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos))));
+            throw new TooManyRequestsException("Too many requests, retry later");
+        }
+        return true;
+    }
+
+    /**
+     * Число корзин после вытеснения лишних.
+     */
+    long trackedKeys() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * Пытается взять токен из корзины.
+     *
+     * @return 0, если запрос разрешен, иначе время в наносекундах до появления токена.
+     */
+    private static long acquire(AtomicLong bucket, long now, Limit limit) {
+        while (true) {
+            long tat = bucket.get();
+            long allowedAt = tat - limit.burstToleranceNanos;
+            if (now - allowedAt < 0) {
+                return allowedAt - now;
+            }
+            long next = Math.max(tat - now, 0) + now + limit.emissionIntervalNanos;
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private static final class Limit {
+        // Интервал между запросами при равномерной нагрузке
+        private final long emissionIntervalNanos;
+        // Насколько клиент может опередить равномерный темп (размер всплеска)
+        private final long burstToleranceNanos;
+
+        private Limit(double requestsPerSecond, int burst) {
+            this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+            this.burstToleranceNanos = emissionIntervalNanos * Math.max(0, burst - 1);
+        }
+    }
+}
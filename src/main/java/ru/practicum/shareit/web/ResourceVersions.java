@@ -0,0 +1,94 @@
+package ru.practicum.shareit.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+
+import java.util.List;
+
+/**
+ * Версии данных, из которых строятся ETag для списочных эндпоинтов.
+ * Каждое изменение увеличивает соответствующую версию, поэтому проверить актуальность
+ * списка можно одним чтением по первичному ключу вместо выполнения запросов списка.
+ * <p>
+ * Версии хранятся в БД (users.owner_version и resource_versions), а не в памяти, поэтому
+ * изменение на одном экземпляре приложения сразу видно остальным. Внутри транзакции версия
+ * увеличивается в той же транзакции, что и сами данные, и фиксируется вместе с ними.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResourceVersions {
+    private static final String USERS = "users";
+    private static final String REQUESTS = "requests";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Версия данных пользователей (имена и email встраиваются в бронирования и комментарии).
+     */
+    public long users() {
+        return version(USERS);
+    }
+
+    public void touchUsers() {
+        touch(USERS);
+    }
+
+    /**
+     * Версия запросов вещей.
+     */
+    public long requests() {
+        return version(REQUESTS);
+    }
+
+    public void touchRequests() {
+        touch(REQUESTS);
+    }
+
+    /**
+     * Версия данных владельца: его вещей, бронирований и комментариев к ним.
+     */
+    public long owner(Long ownerId) {
+        List<Long> versions = jdbcTemplate.queryForList("SELECT owner_version FROM users WHERE id = ?",
+                Long.class, ownerId);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    /**
+     * Версия данных владельца и версия пользователей одним запросом.
+     *
+     * @return массив из двух элементов: версия владельца и версия пользователей
+     */
+    public long[] ownerAndUsers(Long ownerId) {
+        return jdbcTemplate.query("SELECT (SELECT owner_version FROM users WHERE id = ?), version " +
+                        "FROM resource_versions WHERE scope = ?",
+                rs -> rs.next() ? new long[]{rs.getLong(1), rs.getLong(2)} : new long[]{0, 0},
+                ownerId, USERS);
+    }
+
+    public void touchOwner(Long ownerId) {
+        jdbcTemplate.update("UPDATE users SET owner_version = owner_version + 1 WHERE id = ?", ownerId);
+    }
+
+    /**
+     * Версия владельца увеличивается до фиксации транзакции бронирования, чтобы новая версия
+     * не стала видна раньше самих изменений и не потерялась после фиксации.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        touchOwner(event.getOwnerId());
+    }
+
+    private long version(String scope) {
+        List<Long> versions = jdbcTemplate.queryForList("SELECT version FROM resource_versions WHERE scope = ?",
+                Long.class, scope);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    private void touch(String scope) {
+        jdbcTemplate.update("UPDATE resource_versions SET version = version + 1 WHERE scope = ?", scope);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ValidationException;
+
+/**
+ * Разбор заголовка X-Sharer-User-Id в перехватчиках, которые выполняются до контроллера.
+ */
+final class UserIdHeader {
+    static final String NAME = "X-Sharer-User-Id";
+
+    private UserIdHeader() {
+    }
+
+    /**
+     * Возвращает идентификатор пользователя из заголовка или null, если заголовка нет.
+     *
+     * @throws ValidationException если значение заголовка не является числом (ответ 400)
+     */
+    static Long parse(HttpServletRequest request) {
+        String header = request.getHeader(NAME);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException(NAME + " must be a number");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.db.QueryStatsInterceptor;
+
+/**
+ * Регистрация перехватчиков HTTP-запросов.
+ * Порядок важен: учет SQL открывается первым, затем ограничение частоты, затем условные GET
+ * (ответ 304 не требует БД), и только потом ограничение числа одновременных запросов к БД.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final QueryStatsInterceptor queryStatsInterceptor;
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final ConditionalGetInterceptor conditionalGetInterceptor;
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryStatsInterceptor)
+                .addPathPatterns("/**");
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/**");
+        registry.addInterceptor(conditionalGetInterceptor)
+                .addPathPatterns("/users", "/items", "/bookings/owner", "/requests/all");
+        registry.addInterceptor(concurrencyLimitInterceptor)
+                .addPathPatterns("/items/**", "/bookings/**", "/requests/**", "/owners/**")
+                // Подписка SSE держит соединение долго и не занимает соединение с БД,
+                // похожие вещи и подсказки поиска отдаются из памяти
+                .excludePathPatterns("/bookings/stream", "/items/*/similar", "/items/suggest");
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Учет SQL продолжается в потоке, выполняющем StreamingResponseBody
+        configurer.registerCallableInterceptors(queryStatsInterceptor);
+    }
+}
@@ -0,0 +1,35 @@
+-- Таблицы, созданные с IDENTITY-колонками: id переходит на те же последовательности, что и у приложения,
+-- иначе ручные вставки и сид-скрипты выдают id из собственного счетчика колонки и пересекаются с блоками pooled-lo
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT nextval('requests_seq');
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT nextval('comments_seq');
+
+-- Подтягиваем последовательности за уже существующими строками (таблицы, заполненные через IDENTITY или с явными id).
+-- Сдвиг только вперёд: при pooled-lo выданный блок заканчивается на last_value + 49.
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM users), false)
+WHERE (SELECT CASE WHEN is_called THEN last_value + 49 ELSE last_value - 1 END FROM users_seq)
+    < (SELECT COALESCE(MAX(id), 0) FROM users);
+SELECT setval('requests_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM requests), false)
+WHERE (SELECT CASE WHEN is_called THEN last_value + 49 ELSE last_value - 1 END FROM requests_seq)
+    < (SELECT COALESCE(MAX(id), 0) FROM requests);
+SELECT setval('items_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM items), false)
+WHERE (SELECT CASE WHEN is_called THEN last_value + 49 ELSE last_value - 1 END FROM items_seq)
+    < (SELECT COALESCE(MAX(id), 0) FROM items);
+SELECT setval('bookings_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM bookings),
+        (SELECT COALESCE(MAX(id), 0) FROM bookings_archive)) + 1, false)
+WHERE (SELECT CASE WHEN is_called THEN last_value + 49 ELSE last_value - 1 END FROM bookings_seq)
+    < GREATEST((SELECT COALESCE(MAX(id), 0) FROM bookings), (SELECT COALESCE(MAX(id), 0) FROM bookings_archive));
+SELECT setval('comments_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM comments), false)
+WHERE (SELECT CASE WHEN is_called THEN last_value + 49 ELSE last_value - 1 END FROM comments_seq)
+    < (SELECT COALESCE(MAX(id), 0) FROM comments);
+
+-- Мягкое удаление: частичные индексы по помеченным строкам для фоновой очистки
+CREATE INDEX IF NOT EXISTS idx_users_deleted ON users (deleted_at) WHERE deleted_at IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_items_deleted ON items (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -1,39 +1,110 @@
+-- Идентификаторы выдаются пачками по 50 (pooled-lo), чтобы вставки можно было батчить.
+-- Те же последовательности служат значением по умолчанию для id: строка, вставленная мимо приложения,
+-- берет nextval и не пересекается с блоками, уже выданными приложению
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users (
-                                     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+                                     id BIGINT DEFAULT nextval('users_seq') NOT NULL,
                                      name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
+    deleted_at TIMESTAMP WITHOUT TIME ZONE,
     CONSTRAINT pk_user PRIMARY KEY (id),
     CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
     );
 
 
+CREATE TABLE IF NOT EXISTS requests (
+                                        id BIGINT DEFAULT nextval('requests_seq') NOT NULL,
+                                        description VARCHAR(1000) NOT NULL,
+    requester_id BIGINT NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_request PRIMARY KEY (id),
+    CONSTRAINT FK_REQUEST_ON_REQUESTER FOREIGN KEY (requester_id) REFERENCES users(id)
+    );
+
+
 CREATE TABLE IF NOT EXISTS items (
-                                     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+                                     id BIGINT DEFAULT nextval('items_seq') NOT NULL,
                                      name VARCHAR(255) NOT NULL,
     description VARCHAR(1000),
     is_available BOOLEAN NOT NULL,
     owner_id BIGINT NOT NULL,
     request_id BIGINT,
+    category VARCHAR(50),
+    area VARCHAR(100),
+    deleted_at TIMESTAMP WITHOUT TIME ZONE,
     CONSTRAINT pk_item PRIMARY KEY (id),
-    CONSTRAINT FK_ITEM_ON_OWNER FOREIGN KEY (owner_id) REFERENCES users(id)
+    CONSTRAINT FK_ITEM_ON_OWNER FOREIGN KEY (owner_id) REFERENCES users(id),
+    CONSTRAINT FK_ITEM_ON_REQUEST FOREIGN KEY (request_id) REFERENCES requests(id)
     );
 
 
 CREATE TABLE IF NOT EXISTS bookings (
-                                        id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+                                        id BIGINT DEFAULT nextval('bookings_seq') NOT NULL,
                                         start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
                                         end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
                                         item_id BIGINT NOT NULL,
                                         booker_id BIGINT NOT NULL,
                                         status VARCHAR(20) NOT NULL,
+                                        phase VARCHAR(10),
+                                        created TIMESTAMP WITHOUT TIME ZONE,
+                                        decided TIMESTAMP WITHOUT TIME ZONE,
     CONSTRAINT pk_booking PRIMARY KEY (id),
     CONSTRAINT FK_BOOKING_ON_ITEM FOREIGN KEY (item_id) REFERENCES items(id),
     CONSTRAINT FK_BOOKING_ON_BOOKER FOREIGN KEY (booker_id) REFERENCES users(id)
     );
 
+CREATE TABLE IF NOT EXISTS bookings_archive (
+                                        id BIGINT NOT NULL,
+                                        start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+                                        end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+                                        item_id BIGINT NOT NULL,
+                                        booker_id BIGINT NOT NULL,
+                                        status VARCHAR(20) NOT NULL,
+                                        created TIMESTAMP WITHOUT TIME ZONE,
+                                        decided TIMESTAMP WITHOUT TIME ZONE,
+                                        archived TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_booking_archive PRIMARY KEY (id),
+    CONSTRAINT FK_BOOKING_ARCHIVE_ON_ITEM FOREIGN KEY (item_id) REFERENCES items(id),
+    CONSTRAINT FK_BOOKING_ARCHIVE_ON_BOOKER FOREIGN KEY (booker_id) REFERENCES users(id)
+    );
+
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+-- Для таблиц items, созданных до появления внешнего ключа на запрос: CREATE TABLE IF NOT EXISTS
+-- его не добавит, поэтому ограничение пересоздается идемпотентно
+ALTER TABLE items DROP CONSTRAINT IF EXISTS FK_ITEM_ON_REQUEST;
+ALTER TABLE items ADD CONSTRAINT FK_ITEM_ON_REQUEST FOREIGN KEY (request_id) REFERENCES requests(id);
+
+-- Для таблиц, созданных до появления категорий и районов вещей
+ALTER TABLE items ADD COLUMN IF NOT EXISTS category VARCHAR(50);
+ALTER TABLE items ADD COLUMN IF NOT EXISTS area VARCHAR(100);
+
+-- Для таблиц, созданных до мягкого удаления пользователей и вещей
+ALTER TABLE users ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP WITHOUT TIME ZONE;
+
+-- Для таблиц, созданных до учета времени создания и решения по бронированию
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS created TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS decided TIMESTAMP WITHOUT TIME ZONE;
+
+-- Для таблиц, созданных до появления фазы бронирования
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(10);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_dates ON bookings (item_id, status, start_date, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_start ON bookings (phase, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_end ON bookings (phase, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_start ON bookings (status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_end ON bookings_archive (item_id, end_date);
+
 CREATE TABLE IF NOT EXISTS comments (
-                                        id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+                                        id BIGINT DEFAULT nextval('comments_seq') NOT NULL,
                                         text VARCHAR(1000) NOT NULL,
     item_id BIGINT NOT NULL,
     author_id BIGINT NOT NULL,
@@ -43,13 +114,30 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT FK_COMMENT_ON_AUTHOR FOREIGN KEY (author_id) REFERENCES users(id)
     );
 
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created);
 
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+                                        id VARCHAR(400) NOT NULL,
+                                        fingerprint VARCHAR(64) NOT NULL,
+                                        response TEXT NOT NULL,
+                                        created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_idempotency_key PRIMARY KEY (id)
+    );
 
-CREATE TABLE IF NOT EXISTS requests (
-                                        id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-                                        description VARCHAR(1000) NOT NULL,
-    requester_id BIGINT NOT NULL,
-    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    CONSTRAINT pk_request PRIMARY KEY (id),
-    CONSTRAINT FK_REQUEST_ON_REQUESTER FOREIGN KEY (requester_id) REFERENCES users(id)
-    );
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created ON idempotency_keys (created);
+
+-- Версии данных для ETag списочных эндпоинтов. Версия владельца (его вещи, бронирования и комментарии)
+-- хранится в строке пользователя, общие версии пользователей и запросов — в resource_versions.
+-- Версии в БД видны всем экземплярам приложения.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS owner_version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS resource_versions (
+                                        scope VARCHAR(20) NOT NULL,
+                                        version BIGINT NOT NULL,
+    CONSTRAINT pk_resource_version PRIMARY KEY (scope)
+    );
+
+INSERT INTO resource_versions (scope, version)
+SELECT 'users', 0 WHERE NOT EXISTS (SELECT 1 FROM resource_versions WHERE scope = 'users');
+INSERT INTO resource_versions (scope, version)
+SELECT 'requests', 0 WHERE NOT EXISTS (SELECT 1 FROM resource_versions WHERE scope = 'requests');
@@ -0,0 +1,58 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class IdSequenceDefaultsTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rowsInsertedWithoutIdDoNotCollideWithApplicationIds() {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(userService.createUser(newUser()).getId());
+            String email = UUID.randomUUID() + "@example.com";
+            jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('manual', ?)", email);
+            ids.add(jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email));
+        }
+
+        assertThat(ids).hasSize(6);
+    }
+
+    @Test
+    void itemInsertedWithoutIdTakesValueFromSequence() {
+        Long ownerId = userService.createUser(newUser()).getId();
+        Long created = itemService.create(ItemDto.builder().name("drill").description("d").available(true).build(),
+                ownerId).getId();
+
+        String name = "manual " + UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO items (name, is_available, owner_id) VALUES (?, TRUE, ?)", name, ownerId);
+        Long manual = jdbcTemplate.queryForObject("SELECT id FROM items WHERE name = ?", Long.class, name);
+
+        assertThat(manual).isNotEqualTo(created);
+        assertThat(itemService.create(ItemDto.builder().name("saw").description("s").available(true).build(),
+                ownerId).getId()).isNotEqualTo(manual);
+    }
+
+    private static UserDto newUser() {
+        return new UserDto(null, "user", UUID.randomUUID() + "@example.com");
+    }
+}
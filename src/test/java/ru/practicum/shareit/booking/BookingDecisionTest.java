@@ -0,0 +1,211 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionOutcome;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.exception.AccessDeniedException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class BookingDecisionTest {
+    @Autowired
+    private BookingService bookingService;
+    @SpyBean
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void createItem() {
+        reset(bookingRepository);
+        ownerId = newUser();
+        bookerId = newUser();
+        itemId = newItem(ownerId);
+        base = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @Test
+    void overlappingApprovalsOnOneItemApproveEarliestOnly() {
+        Long later = insertBooking(itemId, base.plusHours(1), base.plusHours(3), "WAITING");
+        Long earlier = insertBooking(itemId, base, base.plusHours(2), "WAITING");
+        Long separate = insertBooking(itemId, base.plusHours(5), base.plusHours(6), "WAITING");
+
+        List<BookingDecisionResultDto> results = bookingService.decideAll(List.of(
+                approve(later), approve(earlier), approve(separate)), ownerId);
+
+        assertThat(results).extracting(BookingDecisionResultDto::getBookingId).containsExactly(later, earlier, separate);
+        assertThat(results).extracting(BookingDecisionResultDto::getOutcome).containsExactly(
+                BookingDecisionOutcome.CONFLICT, BookingDecisionOutcome.APPROVED, BookingDecisionOutcome.APPROVED);
+        assertThat(status(later)).isEqualTo("WAITING");
+        assertThat(status(earlier)).isEqualTo("APPROVED");
+        assertThat(status(separate)).isEqualTo("APPROVED");
+    }
+
+    @Test
+    void approvalsResolveAgainstApprovedBookingsWithInclusiveBounds() {
+        insertBooking(itemId, base, base.plusHours(2), "APPROVED");
+        // Начинается ровно в момент окончания подтвержденного: границы включаются, это пересечение
+        Long touching = insertBooking(itemId, base.plusHours(2), base.plusHours(3), "WAITING");
+        Long free = insertBooking(itemId, base.plusHours(4), base.plusHours(5), "WAITING");
+        Long otherItem = insertBooking(newItem(ownerId), base, base.plusHours(2), "WAITING");
+
+        List<BookingDecisionResultDto> results = bookingService.decideAll(List.of(
+                approve(touching), approve(free), approve(otherItem)), ownerId);
+
+        assertThat(results).extracting(BookingDecisionResultDto::getOutcome).containsExactly(
+                BookingDecisionOutcome.CONFLICT, BookingDecisionOutcome.APPROVED, BookingDecisionOutcome.APPROVED);
+    }
+
+    @Test
+    void sameStartIsResolvedBySmallerId() {
+        Long first = insertBooking(itemId, base, base.plusHours(1), "WAITING");
+        Long second = insertBooking(itemId, base, base.plusHours(2), "WAITING");
+
+        List<BookingDecisionResultDto> results = bookingService.decideAll(List.of(approve(second), approve(first)),
+                ownerId);
+
+        assertThat(results).extracting(BookingDecisionResultDto::getOutcome).containsExactly(
+                BookingDecisionOutcome.CONFLICT, BookingDecisionOutcome.APPROVED);
+    }
+
+    @Test
+    void allRejectBatchRejectsEveryBooking() {
+        Long first = insertBooking(itemId, base, base.plusHours(1), "WAITING");
+        Long second = insertBooking(itemId, base, base.plusHours(2), "WAITING");
+
+        List<BookingDecisionResultDto> results = bookingService.decideAll(List.of(reject(first), reject(second)),
+                ownerId);
+
+        assertThat(results).extracting(BookingDecisionResultDto::getOutcome).containsOnly(
+                BookingDecisionOutcome.REJECTED);
+        assertThat(status(first)).isEqualTo("REJECTED");
+        assertThat(status(second)).isEqualTo("REJECTED");
+        verify(bookingRepository, never()).decide(anyCollection(), anyCollection(), any());
+    }
+
+    @Test
+    void onlyConflictingApprovalsLeaveNothingToUpdate() {
+        insertBooking(itemId, base, base.plusHours(2), "APPROVED");
+        Long conflicting = insertBooking(itemId, base.plusHours(1), base.plusHours(3), "WAITING");
+
+        List<BookingDecisionResultDto> results = bookingService.decideAll(List.of(approve(conflicting)), ownerId);
+
+        assertThat(results).extracting(BookingDecisionResultDto::getOutcome).containsExactly(
+                BookingDecisionOutcome.CONFLICT);
+        assertThat(status(conflicting)).isEqualTo("WAITING");
+    }
+
+    @Test
+    void alreadyDecidedBookingFailsWholeBatch() {
+        Long waiting = insertBooking(itemId, base, base.plusHours(1), "WAITING");
+        Long decided = insertBooking(itemId, base.plusHours(2), base.plusHours(3), "REJECTED");
+
+        assertThatThrownBy(() -> bookingService.decideAll(List.of(approve(waiting), approve(decided)), ownerId))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining(decided.toString());
+        assertThat(status(waiting)).isEqualTo("WAITING");
+    }
+
+    @Test
+    void foreignOwnerIsDenied() {
+        Long own = insertBooking(itemId, base, base.plusHours(1), "WAITING");
+        Long foreign = insertBooking(newItem(newUser()), base, base.plusHours(1), "WAITING");
+
+        assertThatThrownBy(() -> bookingService.decideAll(List.of(reject(own), reject(foreign)), ownerId))
+                .isInstanceOf(AccessDeniedException.class)
+                .hasMessageContaining(foreign.toString());
+        assertThat(status(own)).isEqualTo("WAITING");
+        assertThat(status(foreign)).isEqualTo("WAITING");
+    }
+
+    @Test
+    void concurrentDecisionFailsBatch() {
+        Long first = insertBooking(itemId, base, base.plusHours(1), "WAITING");
+        Long second = insertBooking(itemId, base.plusHours(2), base.plusHours(3), "WAITING");
+        TransactionTemplate separate = new TransactionTemplate(transactionManager);
+        separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Шпион репозитория Spring Data делегирует вызовы исходному прокси через ответ по умолчанию
+        Answer<?> real = mockingDetails(bookingRepository).getMockCreationSettings().getDefaultAnswer();
+        // Другой запрос успевает отклонить бронирование после того, как пакет его загрузил
+        doAnswer(invocation -> {
+            Object loaded = real.answer(invocation);
+            separate.executeWithoutResult(tx -> jdbcTemplate.update(
+                    "UPDATE bookings SET status = 'REJECTED' WHERE id = ?", second));
+            return loaded;
+        }).when(bookingRepository).findAllWithItemAndBookerByIdIn(anyCollection());
+
+        assertThatThrownBy(() -> bookingService.decideAll(List.of(approve(first), approve(second)), ownerId))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("decided concurrently");
+        assertThat(status(first)).isEqualTo("WAITING");
+        assertThat(status(second)).isEqualTo("REJECTED");
+    }
+
+    private Long insertBooking(Long bookedItemId, LocalDateTime start, LocalDateTime end, String status) {
+        Long id = jdbcTemplate.queryForObject("SELECT nextval('bookings_seq')", Long.class);
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, phase) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 'FUTURE')", id, start, end, bookedItemId, bookerId, status);
+        return id;
+    }
+
+    private String status(Long bookingId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM bookings WHERE id = ?", String.class, bookingId);
+    }
+
+    private static BookingDecisionDto approve(Long bookingId) {
+        return new BookingDecisionDto(bookingId, true);
+    }
+
+    private static BookingDecisionDto reject(Long bookingId) {
+        return new BookingDecisionDto(bookingId, false);
+    }
+
+    private Long newItem(Long owner) {
+        return itemService.create(ItemDto.builder().name("tent").description("tent").available(true).build(), owner)
+                .getId();
+    }
+
+    private Long newUser() {
+        return userService.createUser(new UserDto(null, "user", UUID.randomUUID() + "@example.com")).getId();
+    }
+}
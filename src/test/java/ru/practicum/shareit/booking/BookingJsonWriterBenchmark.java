@@ -0,0 +1,111 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.dto.BookingWithUserDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Потоковая запись списка бронирований владельца ({@link BookingJsonWriter}) против прежнего пути
+ * GET /bookings/owner без size: выборка сущностей через JPA, преобразование в {@code BookingWithUserDto}
+ * и сериализация списка целиком. Приложение поднимается с профилем test (H2 в памяти), поэтому
+ * разница в основном в выделениях памяти: смотреть gc.alloc.rate.norm при запуске с -prof gc.
+ * <p>
+ * Запуск: {@code mvn -Pbench test-compile exec:exec -Djmh.args="BookingJsonWriterBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingJsonWriterBenchmark {
+    private static final long OWNER_ID = 1_000_001;
+    private static final long BOOKER_ID = 1_000_002;
+
+    @Param({"1000", "10000"})
+    private int bookings;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private BookingRepository bookingRepository;
+    private TransactionTemplate transactionTemplate;
+    private BookingJsonWriter writer;
+
+    @Setup(Level.Trial)
+    public void createData() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("test")
+                .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                        "shareit.booking-lifecycle.tick-ms=3600000")
+                .run();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'owner', 'owner@example.com')", OWNER_ID);
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'booker', 'booker@example.com')",
+                BOOKER_ID);
+        for (long item = 1; item <= 10; item++) {
+            jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id) " +
+                    "VALUES (?, ?, 'Описание вещи для бенчмарка', TRUE, ?)", OWNER_ID + item, "item " + item, OWNER_ID);
+        }
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        List<Object[]> rows = new ArrayList<>(bookings);
+        for (int i = 0; i < bookings; i++) {
+            rows.add(new Object[]{OWNER_ID + i, start.plusHours(i), start.plusHours(i + 1), OWNER_ID + i % 10 + 1,
+                    BOOKER_ID});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, phase) " +
+                "VALUES (?, ?, ?, ?, ?, 'APPROVED', 'PAST')", rows);
+
+        objectMapper = context.getBean(ObjectMapper.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        writer = context.getBean(BookingJsonWriter.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+    }
+
+    @Benchmark
+    public void streamed() throws IOException {
+        writer.ownerBookings(OWNER_ID, "ALL").writeTo(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void jpaEntities() throws IOException {
+        List<BookingWithUserDto> dtos = transactionTemplate.execute(status ->
+                bookingRepository.findByItemOwnerIdOrderByStartDesc(OWNER_ID, Pageable.unpaged()).stream()
+                        .map(BookingMapper::toBookingWithUserDto)
+                        .toList());
+        objectMapper.writeValue(OutputStream.nullOutputStream(), dtos);
+    }
+}
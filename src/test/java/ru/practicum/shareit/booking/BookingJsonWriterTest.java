@@ -0,0 +1,97 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingWithUserDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BookingJsonWriterTest {
+    private static final LocalDateTime BASE = LocalDateTime.now().withNano(0);
+
+    @Autowired
+    private BookingJsonWriter bookingJsonWriter;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long ownerId;
+
+    @BeforeEach
+    void createBookings() {
+        ownerId = newUser();
+        Long bookerId = newUser();
+        Long kayak = create("kayak", "Двухместный \"каяк\"");
+        Long tent = create("tent", "tent");
+        // Одинаковые даты начала: порядок задает id
+        insert("bookings", kayak, bookerId, "APPROVED", "PAST", -10, -9);
+        insert("bookings", tent, bookerId, "APPROVED", "PAST", -10, -9);
+        insert("bookings", kayak, bookerId, "APPROVED", "CURRENT", -1, 1);
+        insert("bookings", tent, bookerId, "WAITING", "FUTURE", 3, 4);
+        insert("bookings", kayak, bookerId, "REJECTED", "FUTURE", 3, 4);
+        insert("bookings_archive", kayak, bookerId, "APPROVED", null, -400, -399);
+        insert("bookings_archive", tent, bookerId, "APPROVED", null, -400, -399);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED", "EXPIRED"})
+    void streamedJsonMatchesSerializedDtos(String state) throws Exception {
+        List<BookingWithUserDto> dtos = transactionTemplate.execute(status ->
+                bookingService.getByOwnerId(ownerId, state, 0, null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookingJsonWriter.ownerBookings(ownerId, state).writeTo(out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(dtos));
+    }
+
+    private void insert(String table, Long itemId, Long bookerId, String status, String phase,
+                        int startDays, int endDays) {
+        Long id = jdbcTemplate.queryForObject("SELECT nextval('bookings_seq')", Long.class);
+        if (table.equals("bookings")) {
+            jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, phase) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    id, BASE.plusDays(startDays), BASE.plusDays(endDays), itemId, bookerId, status, phase);
+        } else {
+            jdbcTemplate.update("INSERT INTO bookings_archive " +
+                            "(id, start_date, end_date, item_id, booker_id, status, archived) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    id, BASE.plusDays(startDays), BASE.plusDays(endDays), itemId, bookerId, status, BASE);
+        }
+    }
+
+    private Long create(String name, String description) {
+        return itemService.create(ItemDto.builder().name(name).description(description).available(true).build(),
+                ownerId).getId();
+    }
+
+    private Long newUser() {
+        return userService.createUser(new UserDto(null, "user", UUID.randomUUID() + "@example.com")).getId();
+    }
+}
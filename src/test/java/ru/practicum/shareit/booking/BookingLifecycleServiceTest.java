@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.dto.BookingPhase;
+import ru.practicum.shareit.web.ResourceVersions;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingLifecycleServiceTest {
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final BookingLifecycleService service = new BookingLifecycleService(
+            bookingRepository, mock(ResourceVersions.class), mock(ApplicationEventPublisher.class));
+
+    @Test
+    void startupTickDoesNotOverlapScheduledTick() throws Exception {
+        ReflectionTestUtils.setField(service, "batchSize", 10);
+        ReflectionTestUtils.setField(service, "waitingGrace", Duration.ofHours(24));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookingRepository.findEndedInPhase(eq(BookingPhase.FUTURE), any(), any())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+        when(bookingRepository.fillMissingPhases()).thenReturn(1);
+
+        CompletableFuture<Void> scheduled = CompletableFuture.runAsync(service::tick);
+        assertThat(entered.await(10, TimeUnit.SECONDS)).isTrue();
+        service.fillMissingPhases();
+        release.countDown();
+        scheduled.get(10, TimeUnit.SECONDS);
+
+        verify(bookingRepository, times(1)).findEndedInPhase(eq(BookingPhase.FUTURE), any(), any());
+    }
+
+    @Test
+    void tickRunsAgainAfterPreviousFinished() {
+        ReflectionTestUtils.setField(service, "batchSize", 10);
+        ReflectionTestUtils.setField(service, "waitingGrace", Duration.ofHours(24));
+
+        service.tick();
+        service.tick();
+
+        verify(bookingRepository, times(2)).findEndedInPhase(eq(BookingPhase.FUTURE), any(), any());
+    }
+}
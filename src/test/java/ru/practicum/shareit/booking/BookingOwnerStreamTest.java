@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.db.QueryStatsRegistry;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingOwnerStreamTest {
+    private static final String ENDPOINT = "GET /bookings/owner";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private QueryStatsRegistry queryStatsRegistry;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    @BeforeEach
+    void createBooking() {
+        ownerId = newUser();
+        bookerId = newUser();
+        itemId = itemService.create(ItemDto.builder().name("kayak").description("kayak").available(true).build(),
+                ownerId).getId();
+        insertBooking(itemId, bookerId);
+    }
+
+    @Test
+    void streamedQueryIsCountedInRequestStats() throws Exception {
+        queryStatsRegistry.reset();
+
+        MvcResult started = mockMvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", ownerId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        QueryStatsRegistry.EndpointSummary summary = queryStatsRegistry.topEndpoints(100).stream()
+                .filter(endpoint -> endpoint.getEndpoint().equals(ENDPOINT))
+                .findFirst()
+                .orElseThrow();
+        // Один запрос, а не два (до асинхронной обработки и после повторной диспетчеризации)
+        assertThat(summary.getRequests()).isEqualTo(1);
+        // Версии для ETag и проверка владельца в потоке запроса, выборка бронирований и архива - в асинхронном
+        assertThat(summary.getStatements()).isEqualTo(4);
+        assertThat(summary.getOverBudget()).isZero();
+    }
+
+    @Test
+    void deletedItemsAndBookersAreExcludedFromStreamedAndPagedLists() throws Exception {
+        Long deletedItemId = itemService.create(ItemDto.builder().name("canoe").description("canoe").available(true)
+                .build(), ownerId).getId();
+        insertBooking(deletedItemId, bookerId);
+        Long deletedBookerId = newUser();
+        insertBooking(itemId, deletedBookerId);
+        insertArchived(itemId, bookerId);
+        insertArchived(deletedItemId, bookerId);
+        insertArchived(itemId, deletedBookerId);
+        itemService.delete(deletedItemId);
+        userService.deleteUser(deletedBookerId);
+
+        MvcResult started = mockMvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", ownerId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[*].item.id").value(everyItem(is(itemId.intValue()))))
+                .andExpect(jsonPath("$[*].booker.id").value(everyItem(is(bookerId.intValue()))));
+
+        mockMvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", ownerId).param("size", "10"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[*].item.id").value(everyItem(is(itemId.intValue()))))
+                .andExpect(jsonPath("$[*].booker.id").value(everyItem(is(bookerId.intValue()))));
+    }
+
+    private void insertBooking(Long bookedItemId, Long booker) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, phase) " +
+                        "VALUES (nextval('bookings_seq'), ?, ?, ?, ?, 'APPROVED', 'FUTURE')",
+                start, start.plusDays(1), bookedItemId, booker);
+    }
+
+    private void insertArchived(Long bookedItemId, Long booker) {
+        LocalDateTime start = LocalDateTime.now().minusDays(400);
+        jdbcTemplate.update("INSERT INTO bookings_archive " +
+                        "(id, start_date, end_date, item_id, booker_id, status, archived) " +
+                        "VALUES (nextval('bookings_seq'), ?, ?, ?, ?, 'APPROVED', ?)",
+                start, start.plusDays(1), bookedItemId, booker, LocalDateTime.now());
+    }
+
+    private Long newUser() {
+        return userService.createUser(new UserDto(null, "user", UUID.randomUUID() + "@example.com")).getId();
+    }
+}
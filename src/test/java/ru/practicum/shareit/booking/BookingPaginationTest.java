@@ -0,0 +1,182 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingWithUserDto;
+import ru.practicum.shareit.db.QueryStatsRegistry;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingPaginationTest {
+    private static final LocalDateTime BASE = LocalDateTime.now().withNano(0);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private QueryStatsRegistry queryStatsRegistry;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+    private final List<Row> rows = new ArrayList<>();
+
+    @BeforeEach
+    void createUsersAndItem() {
+        ownerId = newUser();
+        bookerId = newUser();
+        itemId = itemService.create(ItemDto.builder().name("tent").description("tent").available(true).build(),
+                ownerId).getId();
+    }
+
+    @Test
+    void archivedBookingsFollowLiveOnes() {
+        // Длинное текущее бронирование началось раньше архивных, но выводится перед ними
+        live(-30, 30, "CURRENT");
+        archived(-25, -24);
+        live(-20, -19, "PAST");
+        archived(-15, -14);
+        live(5, 6, "FUTURE");
+        archived(-40, -39);
+        live(-10, -9, "PAST");
+        archived(-5, -4);
+        List<Long> expected = rows.stream()
+                .sorted(Comparator.comparing(Row::archived)
+                        .thenComparing(Comparator.comparing(Row::start).thenComparing(Row::id).reversed()))
+                .map(Row::id)
+                .toList();
+
+        for (int from = 0; from <= expected.size(); from++) {
+            for (int size = 1; size <= 5; size++) {
+                List<Long> page = expected.subList(from, Math.min(expected.size(), from + size));
+                assertThat(ids(bookingService.getByBookerId(bookerId, "ALL", from, size)))
+                        .as("booker from=%d size=%d", from, size).isEqualTo(page);
+                assertThat(ids(bookingService.getByOwnerId(ownerId, "ALL", from, size)))
+                        .as("owner from=%d size=%d", from, size).isEqualTo(page);
+            }
+        }
+        assertThat(ids(bookingService.getByBookerId(bookerId, "ALL", 0, null))).isEqualTo(expected);
+    }
+
+    @Test
+    void pastStateAppendsArchiveToLivePast() {
+        live(-30, 30, "CURRENT");
+        Long archivedOld = archived(-25, -24);
+        Long livePast = live(-20, -19, "PAST");
+        Long archivedNew = archived(-5, -4);
+
+        assertThat(ids(bookingService.getByBookerId(bookerId, "PAST", 0, 10)))
+                .containsExactly(livePast, archivedNew, archivedOld);
+        assertThat(ids(bookingService.getByBookerId(bookerId, "PAST", 1, 1))).containsExactly(archivedNew);
+        assertThat(ids(bookingService.getByOwnerId(ownerId, "PAST", 2, 5))).containsExactly(archivedOld);
+    }
+
+    @Test
+    void archiveIsReadOnlyWhenLiveRowsDoNotFillThePage() throws Exception {
+        live(1, 2, "FUTURE");
+        live(3, 4, "FUTURE");
+        archived(-5, -4);
+
+        // Первая страница заполнена актуальными строками: столько же запросов, сколько у состояния без архива
+        assertThat(statements("FUTURE", 0, 2)).isEqualTo(statements("ALL", 0, 2));
+        // Страница на стыке таблиц: плюс запрос к архиву
+        assertThat(statements("ALL", 1, 2)).isEqualTo(statements("ALL", 0, 2) + 1);
+        // Страница целиком в архиве: плюс подсчет актуальных строк для сдвига
+        assertThat(statements("ALL", 2, 2)).isEqualTo(statements("ALL", 0, 2) + 2);
+    }
+
+    @Test
+    void stateWithoutArchiveIsPagedInQuery() {
+        Long first = live(1, 2, "FUTURE");
+        Long second = live(3, 4, "FUTURE");
+        Long third = live(5, 6, "FUTURE");
+
+        assertThat(ids(bookingService.getByOwnerId(ownerId, "FUTURE", 1, 1))).containsExactly(second);
+        assertThat(ids(bookingService.getByOwnerId(ownerId, "FUTURE", 0, null)))
+                .containsExactly(third, second, first);
+    }
+
+    @Test
+    void ownerItemListFallsBackToArchiveForLastBooking() {
+        Long archivedId = archived(-5, -4);
+
+        ItemDto fromList = itemService.getByOwnerId(ownerId, null, null).get(0);
+        ItemDto single = itemService.getById(itemId, ownerId);
+
+        assertThat(fromList.getLastBooking()).isNotNull();
+        assertThat(fromList.getLastBooking().getId()).isEqualTo(archivedId);
+        assertThat(single.getLastBooking().getId()).isEqualTo(archivedId);
+    }
+
+    private Long live(int startDays, int endDays, String phase) {
+        Long id = nextBookingId();
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, phase) " +
+                        "VALUES (?, ?, ?, ?, ?, 'APPROVED', ?)",
+                id, BASE.plusDays(startDays), BASE.plusDays(endDays), itemId, bookerId, phase);
+        rows.add(new Row(id, BASE.plusDays(startDays), false));
+        return id;
+    }
+
+    private Long archived(int startDays, int endDays) {
+        Long id = nextBookingId();
+        jdbcTemplate.update("INSERT INTO bookings_archive " +
+                        "(id, start_date, end_date, item_id, booker_id, status, archived) " +
+                        "VALUES (?, ?, ?, ?, ?, 'APPROVED', ?)",
+                id, BASE.plusDays(startDays), BASE.plusDays(endDays), itemId, bookerId, BASE);
+        rows.add(new Row(id, BASE.plusDays(startDays), true));
+        return id;
+    }
+
+    private long statements(String state, int from, int size) throws Exception {
+        queryStatsRegistry.reset();
+        mockMvc.perform(get("/bookings").header("X-Sharer-User-Id", bookerId)
+                        .param("state", state).param("from", String.valueOf(from)).param("size", String.valueOf(size)))
+                .andExpect(status().isOk());
+        return queryStatsRegistry.topEndpoints(100).stream()
+                .filter(endpoint -> endpoint.getEndpoint().equals("GET /bookings"))
+                .findFirst()
+                .orElseThrow()
+                .getStatements();
+    }
+
+    private Long nextBookingId() {
+        return jdbcTemplate.queryForObject("SELECT nextval('bookings_seq')", Long.class);
+    }
+
+    private Long newUser() {
+        return userService.createUser(new UserDto(null, "user", UUID.randomUUID() + "@example.com")).getId();
+    }
+
+    private static List<Long> ids(List<BookingWithUserDto> bookings) {
+        return bookings.stream().map(BookingWithUserDto::getId).toList();
+    }
+
+    private record Row(Long id, LocalDateTime start, boolean archived) {
+    }
+}
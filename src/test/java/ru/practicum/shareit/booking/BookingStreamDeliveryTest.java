@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingWithUserDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingStreamDeliveryTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void changeIsSentOnlyAfterCommit() throws Exception {
+        UserDto owner = newUser();
+        UserDto booker = newUser();
+        MockHttpServletResponse ownerStream = subscribe(owner.getId());
+        MockHttpServletResponse bookerStream = subscribe(booker.getId());
+        BookingWithUserDto booking = BookingWithUserDto.builder().id(-1L).booker(booker).status("APPROVED").build();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new BookingChangedEvent(-1L, -1L, owner.getId(), booking));
+            sleep(200);
+            assertThat(content(ownerStream)).doesNotContain("event:booking");
+        });
+
+        assertThat(awaitContent(ownerStream, "\"status\":\"APPROVED\"")).contains("event:booking", "\"id\":-1");
+        assertThat(awaitContent(bookerStream, "\"status\":\"APPROVED\"")).contains("event:booking", "\"id\":-1");
+    }
+
+    @Test
+    void rolledBackChangeIsNotSent() throws Exception {
+        UserDto owner = newUser();
+        MockHttpServletResponse ownerStream = subscribe(owner.getId());
+        BookingWithUserDto booking = BookingWithUserDto.builder().id(-2L).booker(newUser()).status("REJECTED").build();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new BookingChangedEvent(-2L, -1L, owner.getId(), booking));
+            status.setRollbackOnly();
+        });
+
+        sleep(200);
+        assertThat(content(ownerStream)).startsWith(":subscribed").doesNotContain("event:booking");
+    }
+
+    private MockHttpServletResponse subscribe(Long userId) throws Exception {
+        return mockMvc.perform(get("/bookings/stream").header("X-Sharer-User-Id", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!content(response).contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return content(response);
+    }
+
+    private static String content(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private UserDto newUser() {
+        return userService.createUser(new UserDto(null, "user", UUID.randomUUID() + "@example.com"));
+    }
+}
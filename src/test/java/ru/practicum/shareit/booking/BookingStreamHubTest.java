@@ -0,0 +1,241 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingWithUserDto;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingStreamHubTest {
+    private static final long OWNER = 1L;
+    private static final long BOOKER = 2L;
+    private static final long STRANGER = 3L;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    // Буфер на одно событие: второе непереданное событие переполняет его
+    private final StubHub hub = new StubHub(userRepository);
+
+    @AfterEach
+    void shutdown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void changeIsSentToOwnerAndBookerOnly() throws Exception {
+        when(userRepository.existsById(any())).thenReturn(true);
+        StubEmitter owner = hub.subscribeStub(OWNER);
+        StubEmitter booker = hub.subscribeStub(BOOKER);
+        StubEmitter stranger = hub.subscribeStub(STRANGER);
+
+        hub.onBookingChanged(event(10L, BOOKER));
+
+        assertThat(owner.awaitBookings(1)).extracting(BookingWithUserDto::getId).containsExactly(10L);
+        assertThat(booker.awaitBookings(1)).extracting(BookingWithUserDto::getId).containsExactly(10L);
+        assertThat(stranger.bookings).isEmpty();
+    }
+
+    @Test
+    void ownerBookingOwnItemGetsOneEvent() throws Exception {
+        when(userRepository.existsById(any())).thenReturn(true);
+        StubEmitter owner = hub.subscribeStub(OWNER);
+
+        hub.onBookingChanged(event(10L, OWNER));
+        owner.awaitBookings(1);
+        hub.onBookingChanged(event(11L, OWNER));
+
+        // Повторная отправка того же события переполнила бы буфер и отключила бы подписчика
+        assertThat(owner.awaitBookings(2)).extracting(BookingWithUserDto::getId).containsExactly(10L, 11L);
+    }
+
+    @Test
+    void slowSubscriberIsDisconnectedWhenBufferOverflows() throws Exception {
+        when(userRepository.existsById(any())).thenReturn(true);
+        StubEmitter slow = hub.subscribeStub(OWNER);
+        slow.blockSends();
+
+        hub.onBookingChanged(event(10L, BOOKER));
+        // Первое событие уже отправляется и висит в send(), второе занимает единственное место в буфере
+        assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        hub.onBookingChanged(event(11L, BOOKER));
+        assertThat(slow.completed).isFalse();
+
+        hub.onBookingChanged(event(12L, BOOKER));
+
+        assertThat(slow.completed).isTrue();
+        assertThat(hub.subscriberCount(OWNER)).isZero();
+        slow.release.countDown();
+        hub.onBookingChanged(event(13L, BOOKER));
+        assertThat(slow.awaitBookings(2)).extracting(BookingWithUserDto::getId).containsExactly(10L, 11L);
+    }
+
+    @Test
+    void subscriberIsRemovedOnCompletionTimeoutAndError() {
+        when(userRepository.existsById(any())).thenReturn(true);
+        StubEmitter first = hub.subscribeStub(OWNER);
+        StubEmitter second = hub.subscribeStub(OWNER);
+        StubEmitter third = hub.subscribeStub(OWNER);
+        assertThat(hub.subscriberCount(OWNER)).isEqualTo(3);
+
+        first.completionCallback.run();
+        assertThat(hub.subscriberCount(OWNER)).isEqualTo(2);
+        second.timeoutCallback.run();
+        assertThat(hub.subscriberCount(OWNER)).isEqualTo(1);
+        third.errorCallback.accept(new IllegalStateException("broken pipe"));
+        assertThat(hub.subscriberCount(OWNER)).isZero();
+
+        hub.onBookingChanged(event(10L, BOOKER));
+        assertThat(first.bookings).isEmpty();
+    }
+
+    @Test
+    void subscriptionRacingWithRemovalOfLastSubscriberIsKept() throws Exception {
+        when(userRepository.existsById(any())).thenReturn(true);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        for (int i = 0; i < 1000; i++) {
+            StubEmitter previous = hub.subscribeStub(OWNER);
+            Thread remover = new Thread(() -> {
+                await(barrier);
+                previous.completionCallback.run();
+            });
+            remover.start();
+            await(barrier);
+            hub.subscribeStub(OWNER);
+            remover.join();
+
+            assertThat(hub.subscriberCount(OWNER)).as("iteration %d", i).isEqualTo(1);
+            hub.removeAll(OWNER);
+        }
+    }
+
+    @Test
+    void unknownUserCannotSubscribe() {
+        when(userRepository.existsById(any())).thenReturn(false);
+
+        assertThatThrownBy(() -> hub.subscribe(OWNER)).isInstanceOf(NotFoundException.class);
+    }
+
+    private static BookingChangedEvent event(Long bookingId, Long bookerId) {
+        BookingWithUserDto booking = BookingWithUserDto.builder()
+                .id(bookingId)
+                .booker(new UserDto(bookerId, "booker", "booker@example.com"))
+                .status("WAITING")
+                .build();
+        return new BookingChangedEvent(bookingId, 100L, OWNER, booking);
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class StubHub extends BookingStreamHub {
+        private final List<StubEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        private StubHub(UserRepository userRepository) {
+            super(userRepository, 1, 60_000);
+        }
+
+        @Override
+        SseEmitter createEmitter(long timeout) {
+            StubEmitter emitter = new StubEmitter();
+            emitters.add(emitter);
+            return emitter;
+        }
+
+        StubEmitter subscribeStub(Long userId) {
+            return (StubEmitter) subscribe(userId);
+        }
+
+        void removeAll(Long userId) {
+            emitters.forEach(emitter -> emitter.completionCallback.run());
+            emitters.clear();
+            assertThat(subscriberCount(userId)).isZero();
+        }
+    }
+
+    /**
+     * Эмиттер без HTTP-ответа: запоминает отправленные бронирования и колбэки завершения,
+     * по требованию задерживает отправку, имитируя медленного клиента.
+     */
+    private static final class StubEmitter extends SseEmitter {
+        private final List<BookingWithUserDto> bookings = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private volatile CountDownLatch release;
+        private volatile boolean completed;
+        private volatile Runnable completionCallback;
+        private volatile Runnable timeoutCallback;
+        private volatile Consumer<Throwable> errorCallback;
+
+        void blockSends() {
+            release = new CountDownLatch(1);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            List<BookingWithUserDto> data = builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(BookingWithUserDto.class::isInstance)
+                    .map(BookingWithUserDto.class::cast)
+                    .toList();
+            if (data.isEmpty()) {
+                return;
+            }
+            sending.countDown();
+            CountDownLatch latch = release;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            bookings.addAll(data);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            completionCallback = callback;
+        }
+
+        @Override
+        public void onTimeout(Runnable callback) {
+            timeoutCallback = callback;
+        }
+
+        @Override
+        public void onError(Consumer<Throwable> callback) {
+            errorCallback = callback;
+        }
+
+        List<BookingWithUserDto> awaitBookings(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (bookings.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return bookings;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingWithUserDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность создания вещей и бронирований (POST /items, POST /bookings) при
+ * конкурентной нагрузке: сервисный слой вызывается из 8 потоков, каждая операция — своя транзакция.
+ * По умолчанию база — H2 из профиля test; для PostgreSQL передать datasource через -jvmArgs, например
+ * {@code -jvmArgs "-Dspring.datasource.url=jdbc:postgresql://localhost:5432/shareit
+ * -Dspring.datasource.username=... -Dspring.datasource.driverClassName=org.postgresql.Driver
+ * -Dspring.sql.init.platform=postgresql"}.
+ * <p>
+ * Запуск: {@code mvn -Pbench test-compile exec:exec -Djmh.args="CreateThroughputBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class CreateThroughputBenchmark {
+    private static final int OWNERS = 50;
+    private static final int ITEMS = 500;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private long[] ownerIds;
+    private long[] itemIds;
+    private long bookerId;
+    private LocalDateTime base;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                // Журналирование SQL и транзакций иначе занимает большую часть времени операции
+                .properties("logging.level.root=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                        "spring.jpa.show-sql=false", "spring.jpa.properties.hibernate.generate_statistics=false")
+                .run();
+        UserService userService = context.getBean(UserService.class);
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+
+        String run = Long.toString(System.nanoTime());
+        ownerIds = new long[OWNERS];
+        for (int i = 0; i < OWNERS; i++) {
+            ownerIds[i] = userService.createUser(new UserDto(null, "owner " + i, run + "-owner" + i + "@example.com"))
+                    .getId();
+        }
+        bookerId = userService.createUser(new UserDto(null, "booker", run + "-booker@example.com")).getId();
+        itemIds = new long[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            itemIds[i] = itemService.create(item("item " + i), ownerIds[i % OWNERS]).getId();
+        }
+        base = LocalDateTime.now().plusYears(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public ItemDto createItem() {
+        long ownerId = ownerIds[ThreadLocalRandom.current().nextInt(OWNERS)];
+        return itemService.create(item("bench item"), ownerId);
+    }
+
+    @Benchmark
+    public BookingWithUserDto createBooking() {
+        // Каждое бронирование получает свой часовой интервал, поэтому проверка пересечений всегда проходит
+        long n = sequence.incrementAndGet();
+        LocalDateTime start = base.plusHours(n);
+        long itemId = itemIds[(int) (n % ITEMS)];
+        return bookingService.create(new BookingCreateDto(start, start.plusMinutes(30), itemId), bookerId);
+    }
+
+    private static ItemDto item(String name) {
+        return ItemDto.builder()
+                .name(name)
+                .description("Описание вещи для бенчмарка")
+                .available(true)
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.db;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConnectionHoldTimeDataSourceTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource target = mock(DataSource.class);
+    private final ConnectionHoldTimeDataSource dataSource = new ConnectionHoldTimeDataSource(target, meterRegistry);
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void holdTimeIsRecordedOncePerConnectionUnderEndpointTag() throws SQLException {
+        Connection first = mock(Connection.class);
+        Connection second = mock(Connection.class);
+        when(target.getConnection()).thenReturn(first, second);
+        bindRequest("GET", "/bookings/owner");
+
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        // Повторное закрытие (например, пулом и фреймворком) второй раз не пишется
+        connection.close();
+        dataSource.getConnection().close();
+
+        Timer timer = meterRegistry.get(ConnectionHoldTimeDataSource.METRIC).tag("endpoint", "GET /bookings/owner")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+        verify(first, times(2)).close();
+        verify(second).close();
+    }
+
+    @Test
+    void connectionOutsideRequestIsTaggedBackground() throws SQLException {
+        when(target.getConnection("user", "secret")).thenReturn(mock(Connection.class));
+
+        dataSource.getConnection("user", "secret").close();
+
+        assertThat(meterRegistry.get(ConnectionHoldTimeDataSource.METRIC)
+                .tag("endpoint", ConnectionHoldTimeDataSource.BACKGROUND).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void requestWithoutHandlerPatternIsTaggedUnmapped() throws SQLException {
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(
+                new MockHttpServletRequest("POST", "/items/42/unknown")));
+
+        dataSource.getConnection().close();
+
+        assertThat(meterRegistry.get(ConnectionHoldTimeDataSource.METRIC).tag("endpoint", "POST unmapped")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void openConnectionIsNotRecordedAndCallsReachTarget() throws SQLException {
+        Connection target = mock(Connection.class);
+        when(target.getAutoCommit()).thenReturn(true);
+        when(this.target.getConnection()).thenReturn(target);
+        bindRequest("GET", "/items/{id}");
+
+        Connection connection = dataSource.getConnection();
+
+        assertThat(connection.getAutoCommit()).isTrue();
+        assertThat(connection).isEqualTo(connection).isNotEqualTo(target);
+        assertThat(meterRegistry.get(ConnectionHoldTimeDataSource.METRIC).tag("endpoint", "GET /items/{id}")
+                .timer().count()).isZero();
+    }
+
+    private static void bindRequest(String method, String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
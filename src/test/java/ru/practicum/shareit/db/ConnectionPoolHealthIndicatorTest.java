@@ -0,0 +1,104 @@
+package ru.practicum.shareit.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ConnectionPoolHealthIndicatorTest {
+    private final HikariDataSource pool = new HikariDataSource();
+    private final List<Connection> held = new ArrayList<>();
+
+    ConnectionPoolHealthIndicatorTest() {
+        pool.setJdbcUrl("jdbc:h2:mem:pool" + UUID.randomUUID());
+        pool.setMaximumPoolSize(2);
+        pool.setMinimumIdle(0);
+        pool.setConnectionTimeout(5000);
+    }
+
+    @AfterEach
+    void closePool() throws Exception {
+        for (Connection connection : held) {
+            connection.close();
+        }
+        pool.close();
+    }
+
+    @Test
+    void idlePoolIsUp() throws Exception {
+        hold(1);
+
+        Health health = new ConnectionPoolHealthIndicator(pool, 0.9).health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("active", 1).containsEntry("max", 2)
+                .containsEntry("threadsAwaiting", 0);
+    }
+
+    @Test
+    void busyPoolBehindApplicationWrappersIsDegraded() throws Exception {
+        // Как в приложении: пул за прокси datasource-proxy и замером времени удержания
+        DataSource wrapped = new ConnectionHoldTimeDataSource(
+                ProxyDataSourceBuilder.create(pool).build(), new SimpleMeterRegistry());
+        hold(2);
+
+        Health health = new ConnectionPoolHealthIndicator(wrapped, 0.9).health();
+
+        assertThat(health.getStatus()).isEqualTo(ConnectionPoolHealthIndicator.DEGRADED);
+        assertThat(health.getDetails()).containsEntry("active", 2);
+    }
+
+    @Test
+    void threadWaitingForConnectionMakesPoolDegraded() throws Exception {
+        // Порог выше 100%: перегрузку показывает только ожидающий поток
+        ConnectionPoolHealthIndicator indicator = new ConnectionPoolHealthIndicator(pool, 2.0);
+        hold(2);
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Health health = indicator.health();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!health.getStatus().equals(ConnectionPoolHealthIndicator.DEGRADED) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            health = indicator.health();
+        }
+
+        assertThat(health.getStatus()).isEqualTo(ConnectionPoolHealthIndicator.DEGRADED);
+        assertThat(health.getDetails()).containsEntry("threadsAwaiting", 1);
+        held.remove(0).close();
+        held.add(waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void dataSourceWithoutHikariIsUnknown() {
+        Health health = new ConnectionPoolHealthIndicator(mock(DataSource.class), 0.9).health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UNKNOWN);
+    }
+
+    private void hold(int connections) throws Exception {
+        for (int i = 0; i < connections; i++) {
+            held.add(pool.getConnection());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DataSourceConfigTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+    private final BeanPostProcessor postProcessor;
+
+    DataSourceConfigTest() {
+        beans.registerSingleton("meterRegistry", meterRegistry);
+        beans.registerSingleton("queryStatsListener", new QueryStatsListener(new QueryStatsRegistry(100), 200, false));
+        postProcessor = DataSourceConfig.connectionHoldTimePostProcessor(beans.getBeanProvider(MeterRegistry.class),
+                beans.getBeanProvider(QueryStatsListener.class));
+    }
+
+    @Test
+    void dataSourceIsWrappedWithQueryStatsAndHoldTimer() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(mock(Connection.class));
+
+        Object wrapped = postProcessor.postProcessAfterInitialization(pool, "dataSource");
+
+        assertThat(wrapped).isInstanceOf(ConnectionHoldTimeDataSource.class);
+        ConnectionHoldTimeDataSource holdTime = (ConnectionHoldTimeDataSource) wrapped;
+        assertThat(holdTime.getTargetDataSource()).isInstanceOf(ProxyDataSource.class);
+        assertThat(((ProxyDataSource) holdTime.getTargetDataSource()).getDataSource()).isSameAs(pool);
+        holdTime.getConnection().close();
+        assertThat(meterRegistry.get(ConnectionHoldTimeDataSource.METRIC).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void alreadyWrappedDataSourceIsNotWrappedAgain() {
+        Object wrapped = postProcessor.postProcessAfterInitialization(mock(DataSource.class), "dataSource");
+
+        assertThat(postProcessor.postProcessAfterInitialization(wrapped, "dataSource")).isSameAs(wrapped);
+    }
+
+    @Test
+    void dataSourceBeanInContextIsWrappedExactlyOnce() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(DataSourceConfig.class)
+                .withBean(MeterRegistry.class, () -> meterRegistry)
+                .withBean(QueryStatsListener.class, () -> new QueryStatsListener(new QueryStatsRegistry(100), 200, false))
+                .withBean("dataSource", DataSource.class, () -> mock(DataSource.class))
+                .run(context -> {
+                    DataSource dataSource = context.getBean(DataSource.class);
+                    assertThat(dataSource).isInstanceOf(ConnectionHoldTimeDataSource.class);
+                    DataSource proxy = ((ConnectionHoldTimeDataSource) dataSource).getTargetDataSource();
+                    assertThat(proxy).isInstanceOf(ProxyDataSource.class);
+                    assertThat(((ProxyDataSource) proxy).getDataSource())
+                            .isNotInstanceOf(ConnectionHoldTimeDataSource.class)
+                            .isNotInstanceOf(ProxyDataSource.class);
+                });
+    }
+
+    @Test
+    void otherBeansAreLeftAsIs() {
+        Object bean = new Object();
+
+        assertThat(postProcessor.postProcessAfterInitialization(bean, "other")).isSameAs(bean);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.db;
+
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryStatsInterceptorTest {
+    private final QueryStatsRegistry registry = new QueryStatsRegistry(100);
+    private final QueryStatsInterceptor interceptor = new QueryStatsInterceptor(registry);
+
+    @Test
+    void asyncTaskStartedBeforeHandlerReturnsCountsIntoSameRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings/owner");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        Callable<Void> task = () -> null;
+
+        interceptor.preHandle(request, response, new Object());
+        QueryStatsRegistry.current().countStatement();
+        interceptor.beforeConcurrentHandling(webRequest, task);
+        // Пул успевает выполнить задачу до afterConcurrentHandlingStarted в потоке запроса
+        CompletableFuture.runAsync(() -> {
+            interceptor.preProcess(webRequest, task);
+            QueryStatsRegistry.RequestStats stats = QueryStatsRegistry.current();
+            assertThat(stats).isNotNull();
+            stats.countStatement();
+            interceptor.postProcess(webRequest, task, null);
+        }).get();
+        interceptor.afterConcurrentHandlingStarted(request, response, new Object());
+        assertThat(QueryStatsRegistry.current()).isNull();
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, new Object());
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        assertThat(registry.topEndpoints(10)).singleElement().satisfies(endpoint -> {
+            assertThat(endpoint.getRequests()).isEqualTo(1);
+            assertThat(endpoint.getStatements()).isEqualTo(2);
+        });
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class IdempotencyServiceTest {
+    private static final String ENDPOINT = "POST /users";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void repeatedKeyReturnsStoredResponseWithoutRunningAction() {
+        String key = UUID.randomUUID().toString();
+        UserDto request = newRequest("alice");
+        AtomicInteger runs = new AtomicInteger();
+
+        UserDto first = idempotencyService.execute(1L, ENDPOINT, key, request, UserDto.class, () -> {
+            runs.incrementAndGet();
+            return userService.createUser(request);
+        });
+        UserDto second = idempotencyService.execute(1L, ENDPOINT, key, request, UserDto.class, () -> {
+            runs.incrementAndGet();
+            return userService.createUser(request);
+        });
+
+        assertThat(runs).hasValue(1);
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(idempotencyRepository.findById("1 " + ENDPOINT + " " + key)).isPresent();
+    }
+
+    @Test
+    void failedActionDoesNotReserveKey() {
+        String key = UUID.randomUUID().toString();
+        UserDto request = newRequest("bob");
+
+        assertThatThrownBy(() -> idempotencyService.execute(1L, ENDPOINT, key, request, UserDto.class, () -> {
+            throw new IllegalStateException("boom");
+        })).hasMessage("boom");
+
+        UserDto created = idempotencyService.execute(1L, ENDPOINT, key, request, UserDto.class,
+                () -> userService.createUser(request));
+        assertThat(created.getId()).isNotNull();
+    }
+
+    @Test
+    void keyTakenByAnotherInstanceRollsBackActionAndReturnsItsResponse() {
+        String key = UUID.randomUUID().toString();
+        UserDto request = newRequest("carol");
+        TransactionTemplate separate = new TransactionTemplate(transactionManager);
+        separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        IdempotencyService otherInstance = new IdempotencyService(idempotencyRepository, objectMapper, separate,
+                Duration.ofHours(1), 100, 1000);
+        UserDto[] lost = new UserDto[1];
+
+        UserDto result = idempotencyService.execute(1L, ENDPOINT, key, request, UserDto.class, () -> {
+            lost[0] = userService.createUser(request);
+            // Другой экземпляр успевает выполнить тот же запрос и записать ключ раньше
+            return otherInstance.execute(1L, ENDPOINT, key, request, UserDto.class,
+                    () -> new UserDto(Long.MAX_VALUE, "other", request.getEmail()));
+        });
+
+        assertThat(result.getId()).isEqualTo(Long.MAX_VALUE);
+        assertThat(result.getName()).isEqualTo("other");
+        assertThatThrownBy(() -> userService.getUserById(lost[0].getId())).hasMessageContaining("User not found");
+    }
+
+    @Test
+    void concurrentRepeatGivesUpAfterTimeout() throws Exception {
+        IdempotencyService service = new IdempotencyService(idempotencyRepository, objectMapper,
+                transactionTemplate, Duration.ofHours(1), 100, 50);
+        String key = UUID.randomUUID().toString();
+        UserDto request = newRequest("dave");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<UserDto> first = CompletableFuture.supplyAsync(() ->
+                service.execute(1L, ENDPOINT, key, request, UserDto.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return userService.createUser(request);
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.execute(1L, ENDPOINT, key, request, UserDto.class,
+                () -> userService.createUser(request)))
+                .isInstanceOf(ServiceOverloadedException.class);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getId()).isNotNull();
+        assertThat(service.execute(1L, ENDPOINT, key, request, UserDto.class, () -> {
+            throw new IllegalStateException("must not run again");
+        }).getId()).isEqualTo(first.get().getId());
+    }
+
+    private static UserDto newRequest(String name) {
+        return new UserDto(null, name, UUID.randomUUID() + "@example.com");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
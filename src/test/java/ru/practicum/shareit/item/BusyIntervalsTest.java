@@ -0,0 +1,134 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.IntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BusyIntervalsTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private static LocalDateTime at(int hour) {
+        return DAY.plusHours(hour);
+    }
+
+    private static IntervalDto interval(int startHour, int endHour) {
+        return new IntervalDto(at(startHour), at(endHour));
+    }
+
+    private static BusyIntervals merge(int... hours) {
+        List<LocalDateTime> starts = new ArrayList<>();
+        List<LocalDateTime> ends = new ArrayList<>();
+        for (int i = 0; i < hours.length; i += 2) {
+            starts.add(at(hours[i]));
+            ends.add(at(hours[i + 1]));
+        }
+        return BusyIntervals.merge(starts, ends);
+    }
+
+    @Test
+    void mergeJoinsAdjacentIntervals() {
+        BusyIntervals intervals = merge(10, 12, 12, 14);
+
+        assertThat(intervals.busy(at(0), at(24))).containsExactly(interval(10, 14));
+    }
+
+    @Test
+    void mergeJoinsOverlappingIntervals() {
+        BusyIntervals intervals = merge(10, 13, 12, 15, 14, 16);
+
+        assertThat(intervals.busy(at(0), at(24))).containsExactly(interval(10, 16));
+    }
+
+    @Test
+    void mergeKeepsOuterIntervalForContainedOnes() {
+        BusyIntervals intervals = merge(10, 20, 11, 12, 15, 19);
+
+        assertThat(intervals.busy(at(0), at(24))).containsExactly(interval(10, 20));
+    }
+
+    @Test
+    void mergeKeepsDisjointIntervalsApart() {
+        BusyIntervals intervals = merge(1, 2, 4, 5, 7, 8);
+
+        assertThat(intervals.busy(at(0), at(24))).containsExactly(interval(1, 2), interval(4, 5), interval(7, 8));
+    }
+
+    @Test
+    void mergeOfNothingIsEmpty() {
+        assertThat(BusyIntervals.merge(List.of(), List.of())).isSameAs(BusyIntervals.EMPTY);
+        assertThat(BusyIntervals.EMPTY.busy(at(0), at(24))).isEmpty();
+    }
+
+    @Test
+    void busyClipsIntervalsToPeriod() {
+        BusyIntervals intervals = merge(1, 4, 6, 10, 12, 20);
+
+        assertThat(intervals.busy(at(3), at(15))).containsExactly(interval(3, 4), interval(6, 10), interval(12, 15));
+    }
+
+    @Test
+    void busySkipsIntervalsThatOnlyTouchPeriodBoundaries() {
+        BusyIntervals intervals = merge(1, 3, 5, 7, 9, 11);
+
+        // [1, 3] заканчивается в начале периода, [9, 11] начинается в его конце
+        assertThat(intervals.busy(at(3), at(9))).containsExactly(interval(5, 7));
+        assertThat(intervals.busy(at(3), at(5))).isEmpty();
+    }
+
+    @Test
+    void busyFindsIntervalContainingWholePeriod() {
+        BusyIntervals intervals = merge(1, 2, 4, 20, 22, 23);
+
+        assertThat(intervals.busy(at(5), at(6))).containsExactly(interval(5, 6));
+    }
+
+    @Test
+    void busyIsEmptyBeforeFirstAndAfterLastInterval() {
+        BusyIntervals intervals = merge(5, 6, 8, 9);
+
+        assertThat(intervals.busy(at(0), at(4))).isEmpty();
+        assertThat(intervals.busy(at(10), at(12))).isEmpty();
+    }
+
+    @Test
+    void freeFillsGapsBetweenBusyIntervalsWithMargin() {
+        BusyIntervals intervals = merge(3, 4, 6, 10);
+
+        assertThat(intervals.free(at(0), at(12))).containsExactly(
+                new IntervalDto(at(0), at(3).minusSeconds(1)),
+                new IntervalDto(at(4).plusSeconds(1), at(6).minusSeconds(1)),
+                new IntervalDto(at(10).plusSeconds(1), at(12)));
+    }
+
+    @Test
+    void freeKeepsMarginFromIntervalsTouchingPeriod() {
+        BusyIntervals intervals = merge(1, 3, 9, 11);
+
+        // [1, 3] заканчивается в начале периода, [9, 11] начинается в его конце: границы включаются
+        assertThat(intervals.free(at(3), at(9)))
+                .containsExactly(new IntervalDto(at(3).plusSeconds(1), at(9).minusSeconds(1)));
+    }
+
+    @Test
+    void freeSkipsGapsTooShortToBook() {
+        BusyIntervals intervals = merge(1, 2);
+        List<LocalDateTime> starts = List.of(at(1), at(2).plusSeconds(2));
+        List<LocalDateTime> ends = List.of(at(2), at(5));
+
+        assertThat(BusyIntervals.merge(starts, ends).free(at(0), at(6))).containsExactly(
+                new IntervalDto(at(0), at(1).minusSeconds(1)),
+                new IntervalDto(at(5).plusSeconds(1), at(6)));
+        assertThat(intervals.free(at(1), at(2))).isEmpty();
+    }
+
+    @Test
+    void freeIsEmptyWhenPeriodIsFullyBusy() {
+        assertThat(merge(0, 12).free(at(0), at(12))).isEmpty();
+        assertThat(BusyIntervals.EMPTY.free(at(0), at(12))).containsExactly(interval(0, 12));
+    }
+}
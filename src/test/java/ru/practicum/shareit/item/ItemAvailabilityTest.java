@@ -0,0 +1,99 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.IntervalDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemAvailabilityTest {
+    private static final LocalDateTime BASE = LocalDateTime.now().plusDays(1).withNano(0);
+
+    @Autowired
+    private ItemAvailabilityService itemAvailabilityService;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    @BeforeEach
+    void createApprovedBooking() throws Exception {
+        ownerId = newUser();
+        bookerId = newUser();
+        itemId = itemService.create(ItemDto.builder().name("kayak").description("kayak").available(true).build(),
+                ownerId).getId();
+        approve(book(BASE.plusDays(1), BASE.plusDays(2)).andExpect(status().isOk()));
+    }
+
+    @Test
+    void everyAdvertisedFreeSlotCanBeBooked() throws Exception {
+        ItemAvailabilityDto availability = itemAvailabilityService.getAvailability(itemId, BASE, BASE.plusDays(4),
+                false);
+
+        assertThat(availability.getFree()).containsExactly(
+                new IntervalDto(BASE, BASE.plusDays(1).minusSeconds(1)),
+                new IntervalDto(BASE.plusDays(2).plusSeconds(1), BASE.plusDays(4)));
+        for (IntervalDto slot : availability.getFree()) {
+            approve(book(slot.getStart(), slot.getEnd()).andExpect(status().isOk()));
+        }
+        assertThat(itemAvailabilityService.getAvailability(itemId, BASE, BASE.plusDays(4), false).getFree())
+                .isEmpty();
+    }
+
+    @Test
+    void slotStartingAtEndOfBookingOverlapsIt() throws Exception {
+        book(BASE.plusDays(2), BASE.plusDays(3))
+                .andExpect(result -> assertThat(result.getResolvedException())
+                        .isInstanceOf(ValidationException.class)
+                        .hasMessage("Item is already booked for this period"));
+    }
+
+    private ResultActions book(LocalDateTime start, LocalDateTime end) throws Exception {
+        return mockMvc.perform(post("/bookings")
+                .header("X-Sharer-User-Id", bookerId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BookingCreateDto(start, end, itemId))));
+    }
+
+    private void approve(ResultActions created) throws Exception {
+        Long bookingId = objectMapper.readTree(created.andReturn().getResponse().getContentAsString())
+                .get("id").asLong();
+        mockMvc.perform(patch("/bookings/{id}", bookingId)
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("approved", "true"))
+                .andExpect(status().isOk());
+    }
+
+    private Long newUser() {
+        return userService.createUser(new UserDto(null, "user", UUID.randomUUID() + "@example.com")).getId();
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ItemFacetIndexTest {
+    @Autowired
+    private ItemFacetIndex itemFacetIndex;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private long drill;
+    private long saw;
+    private long tent;
+
+    @BeforeEach
+    void createItems() {
+        ownerId = userService.createUser(new UserDto(null, "owner", UUID.randomUUID() + "@example.com")).getId();
+        drill = create("drill", "tools", "north");
+        saw = create("saw", "tools", "south");
+        tent = create("tent", "outdoor", "north");
+    }
+
+    @Test
+    void facetCountsIntersectMatchedItems() {
+        ItemFacetIndex.FacetedMatch match = itemFacetIndex.facet(matched(drill, saw, tent), null, null);
+
+        assertThat(match.items().toArray()).containsExactly(drill, saw, tent);
+        assertThat(match.categories()).containsExactly(Map.entry("tools", 2L), Map.entry("outdoor", 1L));
+        assertThat(match.areas()).containsExactly(Map.entry("north", 2L), Map.entry("south", 1L));
+
+        ItemFacetIndex.FacetedMatch partial = itemFacetIndex.facet(matched(saw, tent), null, null);
+        assertThat(partial.categories()).containsOnly(Map.entry("tools", 1L), Map.entry("outdoor", 1L));
+    }
+
+    @Test
+    void filtersDoNotHideOtherValuesOfTheSameFacet() {
+        ItemFacetIndex.FacetedMatch match = itemFacetIndex.facet(matched(drill, saw, tent), "tools", "north");
+
+        assertThat(match.items().toArray()).containsExactly(drill);
+        // Категории считаются с фильтром по району, районы — с фильтром по категории
+        assertThat(match.categories()).containsOnly(Map.entry("tools", 1L), Map.entry("outdoor", 1L));
+        assertThat(match.areas()).containsOnly(Map.entry("north", 1L), Map.entry("south", 1L));
+    }
+
+    @Test
+    void unknownFilterValueMatchesNothing() {
+        ItemFacetIndex.FacetedMatch match = itemFacetIndex.facet(matched(drill, saw, tent), "music", null);
+
+        assertThat(match.items().isEmpty()).isTrue();
+        assertThat(match.areas()).isEmpty();
+    }
+
+    @Test
+    void updatedItemMovesBetweenFacetValues() {
+        itemService.update(saw, ItemDto.builder().category("outdoor").build(), ownerId);
+
+        ItemFacetIndex.FacetedMatch match = itemFacetIndex.facet(matched(drill, saw, tent), "outdoor", null);
+
+        assertThat(match.items().toArray()).containsExactly(saw, tent);
+        assertThat(match.categories()).containsExactly(Map.entry("outdoor", 2L), Map.entry("tools", 1L));
+        // Район при обновлении только категории сохраняется
+        assertThat(match.areas()).containsOnly(Map.entry("north", 1L), Map.entry("south", 1L));
+    }
+
+    @Test
+    void softDeletedItemLeavesIndex() {
+        itemService.delete(drill);
+
+        ItemFacetIndex.FacetedMatch match = itemFacetIndex.facet(matched(drill, saw, tent), "tools", null);
+
+        assertThat(match.items().toArray()).containsExactly(saw);
+        assertThat(match.areas()).containsOnly(Map.entry("south", 1L));
+    }
+
+    @Test
+    void reloadSkipsSoftDeletedItems() {
+        itemService.delete(tent);
+
+        itemFacetIndex.load();
+
+        ItemFacetIndex.FacetedMatch match = itemFacetIndex.facet(matched(drill, saw, tent), null, null);
+        assertThat(match.categories()).containsOnly(Map.entry("tools", 2L));
+        assertThat(match.areas()).containsOnly(Map.entry("north", 1L), Map.entry("south", 1L));
+    }
+
+    @Test
+    void itemIdsBeyondIntRangeAreIndexedAndSearched() {
+        String word = "w" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        // Идентификаторы вне диапазона int; последовательность items до них не дойдет
+        long loaded = ThreadLocalRandom.current().nextLong(Integer.MAX_VALUE + 1L, 1L << 50);
+        long updated = loaded + 1;
+        insertItem(loaded, word, "tools", "north");
+        insertItem(updated, word, "tools", "south");
+        itemFacetIndex.load();
+        // Событие об изменении вещи с большим id обрабатывается слушателем
+        itemService.update(updated, ItemDto.builder().category("outdoor").build(), ownerId);
+
+        ItemSearchResultDto result = itemService.searchFaceted(word, null, null, null, null, 0, 10);
+
+        assertThat(result.getItems()).extracting(ItemDto::getId).containsExactly(loaded, updated);
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getCategories()).containsOnly(Map.entry("tools", 1L), Map.entry("outdoor", 1L));
+        assertThat(result.getAreas()).containsOnly(Map.entry("north", 1L), Map.entry("south", 1L));
+        assertThat(itemService.searchFaceted(word, "outdoor", null, null, null, 0, 10).getItems())
+                .extracting(ItemDto::getId).containsExactly(updated);
+
+        itemService.delete(loaded);
+        assertThat(itemFacetIndex.facet(matched(loaded, updated), "tools", null).items().isEmpty()).isTrue();
+    }
+
+    private long create(String name, String category, String area) {
+        ItemDto item = ItemDto.builder().name(name).description(name).available(true)
+                .category(category).area(area).build();
+        return itemService.create(item, ownerId).getId();
+    }
+
+    private void insertItem(long id, String name, String category, String area) {
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id, category, area) " +
+                "VALUES (?, ?, ?, TRUE, ?, ?, ?)", id, name, name, ownerId, category, area);
+    }
+
+    private static Roaring64NavigableMap matched(long... itemIds) {
+        return Roaring64NavigableMap.bitmapOf(itemIds);
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ItemOwnerPageTest {
+    private static final LocalDateTime BASE = LocalDateTime.now().withNano(0);
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long drill;
+    private Long saw;
+    private Long tent;
+
+    @BeforeEach
+    void createItems() {
+        ownerId = newUser();
+        bookerId = newUser();
+        drill = create("drill");
+        saw = create("saw");
+        tent = create("tent");
+    }
+
+    @Test
+    void bookingsAndCommentsAreAttachedToTheirItems() {
+        insertBooking(drill, bookerId, -10, -9, "APPROVED");
+        Long drillLast = insertBooking(drill, bookerId, -3, -2, "APPROVED");
+        Long drillNext = insertBooking(drill, bookerId, 2, 3, "APPROVED");
+        insertBooking(drill, bookerId, 5, 6, "APPROVED");
+        insertBooking(drill, bookerId, 1, 2, "WAITING");
+        Long sawNext = insertBooking(saw, bookerId, 4, 5, "APPROVED");
+        List<Long> drillComments = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            drillComments.add(insertComment(drill, "drill " + i, -12 + i));
+        }
+        Long tentComment = insertComment(tent, "tent", -1);
+
+        List<ItemDto> page = itemService.getByOwnerId(ownerId, null, null);
+
+        assertThat(page).extracting(ItemDto::getId).containsExactly(drill, saw, tent);
+        assertThat(page.get(0).getLastBooking().getId()).isEqualTo(drillLast);
+        assertThat(page.get(0).getNextBooking().getId()).isEqualTo(drillNext);
+        // Не больше десяти последних комментариев на вещь, от новых к старым
+        assertThat(page.get(0).getComments()).extracting(CommentDto::getId)
+                .containsExactlyElementsOf(drillComments.subList(2, 12).reversed());
+        assertThat(page.get(1).getLastBooking()).isNull();
+        assertThat(page.get(1).getNextBooking().getId()).isEqualTo(sawNext);
+        assertThat(page.get(1).getComments()).isEmpty();
+        assertThat(page.get(2).getLastBooking()).isNull();
+        assertThat(page.get(2).getNextBooking()).isNull();
+        assertThat(page.get(2).getComments()).extracting(CommentDto::getId).containsExactly(tentComment);
+    }
+
+    @Test
+    void pageLoadsBookingsOnlyForItsItems() {
+        insertBooking(drill, bookerId, 1, 2, "APPROVED");
+        Long tentNext = insertBooking(tent, bookerId, 3, 4, "APPROVED");
+
+        List<ItemDto> page = itemService.getByOwnerId(ownerId, drill, 5);
+
+        assertThat(page).extracting(ItemDto::getId).containsExactly(saw, tent);
+        assertThat(page.get(0).getNextBooking()).isNull();
+        assertThat(page.get(1).getNextBooking().getId()).isEqualTo(tentNext);
+    }
+
+    @Test
+    void bookingsAndCommentsOfDeletedUsersAreSkipped() {
+        Long deletedUser = newUser();
+        insertBooking(saw, deletedUser, 1, 2, "APPROVED");
+        insertComment(saw, "gone", -1);
+        jdbcTemplate.update("UPDATE comments SET author_id = ? WHERE item_id = ?", deletedUser, saw);
+        userService.deleteUser(deletedUser);
+
+        ItemDto sawDto = itemService.getByOwnerId(ownerId, drill, 1).get(0);
+
+        assertThat(sawDto.getId()).isEqualTo(saw);
+        assertThat(sawDto.getNextBooking()).isNull();
+        assertThat(sawDto.getComments()).isEmpty();
+    }
+
+    private Long insertBooking(Long itemId, Long booker, int startDays, int endDays, String status) {
+        Long id = jdbcTemplate.queryForObject("SELECT nextval('bookings_seq')", Long.class);
+        String phase = endDays < 0 ? "PAST" : startDays > 0 ? "FUTURE" : "CURRENT";
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, phase) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, BASE.plusDays(startDays), BASE.plusDays(endDays), itemId, booker, status, phase);
+        return id;
+    }
+
+    private Long insertComment(Long itemId, String text, int createdDays) {
+        Long id = jdbcTemplate.queryForObject("SELECT nextval('comments_seq')", Long.class);
+        jdbcTemplate.update("INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)",
+                id, text, itemId, bookerId, BASE.plusDays(createdDays));
+        return id;
+    }
+
+    private Long create(String name) {
+        return itemService.create(ItemDto.builder().name(name).description(name).available(true).build(), ownerId)
+                .getId();
+    }
+
+    private Long newUser() {
+        return userService.createUser(new UserDto(null, "user", UUID.randomUUID() + "@example.com")).getId();
+    }
+}
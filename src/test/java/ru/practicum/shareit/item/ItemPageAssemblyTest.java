@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ru.practicum.shareit.booking.ItemBookingView;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemPageAssemblyTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+    private final List<Item> items = List.of(item(3), item(5), item(8), item(13));
+    private final long[] ids = {3, 5, 8, 13};
+
+    @Test
+    void rowsInAnyOrderAreAttachedToTheirItems() {
+        List<ItemBookingView> last = List.of(booking(30, 13), booking(31, 3), booking(32, 8));
+        List<ItemBookingView> next = List.of(booking(40, 5), booking(41, 13));
+
+        List<ItemDto> page = ItemServiceImpl.assemblePage(items, ids, last, next, List.of(), new ItemMapper());
+
+        assertThat(page).extracting(ItemDto::getId).containsExactly(3L, 5L, 8L, 13L);
+        assertThat(page).extracting(dto -> dto.getLastBooking() == null ? null : dto.getLastBooking().getId())
+                .containsExactly(31L, null, 32L, 30L);
+        assertThat(page).extracting(dto -> dto.getNextBooking() == null ? null : dto.getNextBooking().getId())
+                .containsExactly(null, 40L, null, 41L);
+    }
+
+    @Test
+    void commentsAreSlicedPerItemAndRowsOfOtherItemsAreSkipped() {
+        List<ItemCommentView> comments = List.of(comment(1, 3), comment(2, 3), comment(3, 4),
+                comment(4, 8), comment(5, 13), comment(6, 13), comment(7, 20));
+
+        List<ItemDto> page = ItemServiceImpl.assemblePage(items, ids, List.of(),
+                List.of(booking(50, 7), booking(51, 8)), comments, new ItemMapper());
+
+        assertThat(page.get(0).getComments()).extracting(CommentDto::getId).containsExactly(1L, 2L);
+        assertThat(page.get(1).getComments()).isEmpty();
+        assertThat(page.get(2).getComments()).extracting(CommentDto::getId).containsExactly(4L);
+        assertThat(page.get(3).getComments()).extracting(CommentDto::getId).containsExactly(5L, 6L);
+        assertThat(page.get(2).getNextBooking().getId()).isEqualTo(51L);
+    }
+
+    private ItemBookingView booking(long id, long itemId) {
+        return projections.createProjection(ItemBookingView.class, Map.of("id", id, "itemId", itemId,
+                "bookerId", 1L, "startDate", NOW, "endDate", NOW.plusDays(1)));
+    }
+
+    private ItemCommentView comment(long id, long itemId) {
+        return projections.createProjection(ItemCommentView.class, Map.of("id", id, "itemId", itemId,
+                "text", "text", "authorName", "author", "created", NOW));
+    }
+
+    private static Item item(long id) {
+        return Item.builder().id(id).name("item " + id).description("item").available(true).build();
+    }
+}
@@ -0,0 +1,205 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.exception.ErrorHandler;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ItemReadCoalescerTest {
+    private static final int FOLLOWERS = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentReadsShareOneLoad() throws Exception {
+        ItemReadCoalescer coalescer = new ItemReadCoalescer(meterRegistry, 5000);
+        Object item = new Object();
+
+        List<CompletableFuture<Object>> reads = startReads(coalescer, blockingLoader(() -> item));
+        release.countDown();
+
+        for (CompletableFuture<Object> read : reads) {
+            assertThat(read.get(5, TimeUnit.SECONDS)).isSameAs(item);
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(reads("loaded")).isEqualTo(1);
+        assertThat(reads("coalesced")).isEqualTo(FOLLOWERS);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void loadFailureIsPassedToEveryWaiter() throws Exception {
+        ItemReadCoalescer coalescer = new ItemReadCoalescer(meterRegistry, 5000);
+        NotFoundException failure = new NotFoundException("Item not found");
+
+        List<CompletableFuture<Object>> reads = startReads(coalescer, blockingLoader(() -> {
+            throw failure;
+        }));
+        release.countDown();
+
+        for (CompletableFuture<Object> read : reads) {
+            assertThatThrownBy(() -> read.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void errorFromLoaderIsPassedToWaitersWithoutTimeout() throws Exception {
+        // Таймаут больше времени ожидания результата: без передачи Error ожидающие получили бы 503
+        ItemReadCoalescer coalescer = new ItemReadCoalescer(meterRegistry, 30_000);
+        StackOverflowError error = new StackOverflowError();
+
+        List<CompletableFuture<Object>> reads = startReads(coalescer, blockingLoader(() -> {
+            throw error;
+        }));
+        release.countDown();
+
+        for (CompletableFuture<Object> read : reads) {
+            assertThatThrownBy(() -> read.get(5, TimeUnit.SECONDS)).hasCause(error);
+        }
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void waiterGivesUpWith503AfterTimeout() throws Exception {
+        ItemReadCoalescer coalescer = new ItemReadCoalescer(meterRegistry, 50);
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(
+                () -> coalescer.execute(1L, false, blockingLoader(Object::new)), executor);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> coalescer.execute(1L, false, Object::new))
+                .isInstanceOf(ServiceOverloadedException.class);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ItemReadController(coalescer))
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+        mockMvc.perform(get("/coalesced-item")).andExpect(status().isServiceUnavailable());
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    void nextReadLoadsAgainAfterSuccessAndAfterFailure() {
+        ItemReadCoalescer coalescer = new ItemReadCoalescer(meterRegistry, 5000);
+
+        assertThat(coalescer.execute(1L, false, () -> "first")).isEqualTo("first");
+        assertThatThrownBy(() -> coalescer.execute(1L, false, () -> {
+            throw new NotFoundException("Item not found");
+        })).isInstanceOf(NotFoundException.class);
+        assertThat(coalescer.execute(1L, false, () -> "third")).isEqualTo("third");
+
+        assertThat(reads("loaded")).isEqualTo(3);
+        assertThat(reads("coalesced")).isZero();
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void ownerAndPublicViewsAreLoadedSeparately() throws Exception {
+        ItemReadCoalescer coalescer = new ItemReadCoalescer(meterRegistry, 5000);
+        CompletableFuture<Object> publicView = CompletableFuture.supplyAsync(
+                () -> coalescer.execute(1L, false, blockingLoader(() -> "public")), executor);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(coalescer.execute(1L, true, () -> "owner")).isEqualTo("owner");
+        release.countDown();
+
+        assertThat(publicView.get(5, TimeUnit.SECONDS)).isEqualTo("public");
+        assertThat(reads("loaded")).isEqualTo(2);
+    }
+
+    // Внутренний (не static) класс не подхватывается сканированием компонентов в тестах с контекстом
+    @RestController
+    @RequiredArgsConstructor
+    class ItemReadController {
+        private final ItemReadCoalescer coalescer;
+
+        @GetMapping("/coalesced-item")
+        String get() {
+            return coalescer.execute(1L, false, () -> "item");
+        }
+    }
+
+    /**
+     * Запускает ведущее чтение, дожидается начала его загрузки и запускает следом ожидающие.
+     * Возвращается, когда все ожидающие присоединились к загрузке.
+     */
+    private List<CompletableFuture<Object>> startReads(ItemReadCoalescer coalescer, Supplier<Object> loader)
+            throws InterruptedException {
+        List<CompletableFuture<Object>> reads = new ArrayList<>();
+        reads.add(read(coalescer, loader));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            reads.add(read(coalescer, loader));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (reads("coalesced") < FOLLOWERS && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return reads;
+    }
+
+    private CompletableFuture<Object> read(ItemReadCoalescer coalescer, Supplier<Object> loader) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(coalescer.execute(1L, false, loader));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private <T> Supplier<T> blockingLoader(Supplier<T> value) {
+        return () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value.get();
+        };
+    }
+
+    private double reads(String result) {
+        return meterRegistry.get("shareit.items.reads").tag("result", result).counter().count();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("shareit.items.reads.in-flight").gauge().value();
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ItemSearchPaginationTest {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+
+    private String word;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void createItems() {
+        word = "w" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        UserDto owner = userService.createUser(new UserDto(null, "owner", word + "@example.com"));
+        for (int i = 0; i < 12; i++) {
+            ItemDto item = ItemDto.builder()
+                    .name(word + " " + i)
+                    .description("item " + i)
+                    .available(true)
+                    .category(i % 2 == 0 ? "even" : "odd")
+                    .build();
+            ids.add(itemService.create(item, owner.getId()).getId());
+        }
+    }
+
+    @Test
+    void searchHonoursOffsetThatIsNotPageAligned() {
+        List<ItemDto> page = itemService.search(word, null, null, null, null, 5, 3);
+
+        assertThat(page).extracting(ItemDto::getId).containsExactly(ids.get(5), ids.get(6), ids.get(7));
+    }
+
+    @Test
+    void filteredSearchHonoursOffsetThatIsNotPageAligned() {
+        List<ItemDto> page = itemService.search(word, "even", null, null, null, 1, 4);
+
+        assertThat(page).extracting(ItemDto::getId)
+                .containsExactly(ids.get(2), ids.get(4), ids.get(6), ids.get(8));
+    }
+
+    @Test
+    void facetedSearchHonoursOffsetThatIsNotPageAligned() {
+        List<ItemDto> page = itemService.searchFaceted(word, null, null, null, null, 10, 5).getItems();
+
+        assertThat(page).extracting(ItemDto::getId).containsExactly(ids.get(10), ids.get(11));
+    }
+
+    @Test
+    void searchWithoutSizeReturnsEverything() {
+        assertThat(itemService.search(word, null, null, null, null, 0, null)).hasSize(12);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class ItemSuggestIndexTest {
+    @Autowired
+    private ItemSuggestIndex itemSuggestIndex;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+
+    private Long ownerId;
+    // Уникальное слово, чтобы подсказки не пересекались с вещами из других тестов
+    private String word;
+
+    @BeforeEach
+    void createOwner() {
+        ownerId = userService.createUser(new UserDto(null, "owner", UUID.randomUUID() + "@example.com")).getId();
+        word = "w" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Test
+    void suggestsWordsAndNameOfNewItem() {
+        create(word + " drill", true);
+
+        assertThat(texts(itemSuggestIndex.suggest(word, 10))).containsExactly(word, word + " drill");
+        assertThat(texts(itemSuggestIndex.suggest(word.toUpperCase() + " dr", 10))).containsExactly(word + " drill");
+    }
+
+    @Test
+    void renamedItemIsSuggestedOnlyByNewName() {
+        long itemId = create(word + "old", true);
+
+        itemService.update(itemId, ItemDto.builder().name(word + "new").build(), ownerId);
+
+        assertThat(itemSuggestIndex.suggest(word + "o", 10)).isEmpty();
+        assertThat(itemSuggestIndex.suggest(word, 10))
+                .extracting(ItemSuggestionDto::getText, ItemSuggestionDto::getScore)
+                .containsExactly(tuple(word + "new", 1L));
+    }
+
+    @Test
+    void unavailableItemIsNotSuggested() {
+        long itemId = create(word, true);
+
+        itemService.update(itemId, ItemDto.builder().available(false).build(), ownerId);
+
+        assertThat(itemSuggestIndex.suggest(word, 10)).isEmpty();
+    }
+
+    @Test
+    void deletedItemIsNotSuggested() {
+        long deleted = create(word + "a", true);
+        create(word + "b", true);
+
+        itemService.delete(deleted);
+
+        assertThat(texts(itemSuggestIndex.suggest(word, 10))).containsExactly(word + "b");
+    }
+
+    @Test
+    void rebuildSkipsDeletedAndUnavailableItems() {
+        long deleted = create(word + "a", true);
+        create(word + "b", true);
+        create(word + "c", false);
+        itemService.delete(deleted);
+
+        itemSuggestIndex.rebuild();
+
+        assertThat(texts(itemSuggestIndex.suggest(word, 10))).containsExactly(word + "b");
+    }
+
+    private long create(String name, boolean available) {
+        ItemDto item = ItemDto.builder().name(name).description(name).available(available).build();
+        return itemService.create(item, ownerId).getId();
+    }
+
+    private static List<String> texts(List<ItemSuggestionDto> suggestions) {
+        return suggestions.stream().map(ItemSuggestionDto::getText).toList();
+    }
+}
@@ -0,0 +1,185 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.ItemBookingView;
+import ru.practicum.shareit.item.dto.BookingInfoDto;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Сборка страницы вещей владельца ({@link ItemServiceImpl#assemblePage}) по массивам с индексом
+ * вещи на странице против прежней сборки через {@code Map<Long, ...>} и {@code groupingBy}.
+ * Строки на входе такие, какие возвращают запросы страницы: у каждой вещи {@code bookingsPerItem}
+ * подтвержденных бронирований, из которых оконная функция в БД оставляет последнее и следующее,
+ * и до десяти последних комментариев, отсортированных по вещи. Запросы к БД не измеряются.
+ * <p>
+ * Запуск: {@code mvn -Pbench test-compile exec:exec -Djmh.args="OwnerItemPageBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OwnerItemPageBenchmark {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+    private static final int COMMENTS_PER_ITEM = 10;
+
+    @Param("10000")
+    private int items;
+    @Param("100")
+    private int bookingsPerItem;
+
+    private final ItemMapper itemMapper = new ItemMapper();
+    private List<Item> page;
+    private List<ItemBookingView> lastBookingRows;
+    private List<ItemBookingView> nextBookingRows;
+    private List<ItemCommentView> commentRows;
+
+    @Setup(Level.Trial)
+    public void createRows() {
+        page = new ArrayList<>(items);
+        lastBookingRows = new ArrayList<>(items);
+        nextBookingRows = new ArrayList<>(items);
+        commentRows = new ArrayList<>(items * COMMENTS_PER_ITEM);
+        long bookingId = 0;
+        long commentId = 0;
+        for (long itemId = 1; itemId <= items; itemId++) {
+            page.add(Item.builder().id(itemId).name("item " + itemId).description("Описание вещи для бенчмарка")
+                    .available(true).build());
+            // Бронирования вещи идут подряд по дням, половина из них в прошлом
+            BookingRow last = null;
+            BookingRow next = null;
+            for (int i = 0; i < bookingsPerItem; i++) {
+                LocalDateTime start = NOW.plusDays(i - bookingsPerItem / 2).plusHours(1);
+                BookingRow booking = new BookingRow(++bookingId, itemId, 2L, start, start.plusHours(12));
+                if (booking.getEndDate().isBefore(NOW)) {
+                    last = booking;
+                } else if (next == null && booking.getStartDate().isAfter(NOW)) {
+                    next = booking;
+                }
+            }
+            if (last != null) {
+                lastBookingRows.add(last);
+            }
+            if (next != null) {
+                nextBookingRows.add(next);
+            }
+            int comments = (int) (itemId % (COMMENTS_PER_ITEM + 1));
+            for (int i = 0; i < comments; i++) {
+                commentRows.add(new CommentRow(++commentId, itemId, "comment " + commentId, "booker",
+                        NOW.minusDays(i)));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<ItemDto> indexArrays() {
+        long[] ids = new long[page.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = page.get(i).getId();
+        }
+        return ItemServiceImpl.assemblePage(page, ids, lastBookingRows, nextBookingRows, commentRows, itemMapper);
+    }
+
+    @Benchmark
+    public List<ItemDto> boxedMaps() {
+        List<Long> itemIds = page.stream().map(Item::getId).collect(Collectors.toList());
+        Map<Long, BookingInfoDto> lastBookings = byItemId(lastBookingRows);
+        Map<Long, BookingInfoDto> nextBookings = byItemId(nextBookingRows);
+        Map<Long, List<CommentDto>> commentsByItemId = commentRows.stream()
+                .collect(Collectors.groupingBy(ItemCommentView::getItemId, Collectors.mapping(
+                        comment -> new CommentDto(comment.getId(), comment.getText(), comment.getAuthorName(),
+                                comment.getCreated()),
+                        Collectors.toList())));
+        List<ItemDto> result = new ArrayList<>(itemIds.size());
+        for (Item item : page) {
+            ItemDto itemDto = itemMapper.toItemDto(item);
+            itemDto.setLastBooking(lastBookings.get(item.getId()));
+            itemDto.setNextBooking(nextBookings.get(item.getId()));
+            itemDto.setComments(commentsByItemId.getOrDefault(item.getId(), Collections.emptyList()));
+            result.add(itemDto);
+        }
+        return result;
+    }
+
+    private static Map<Long, BookingInfoDto> byItemId(List<ItemBookingView> rows) {
+        return rows.stream().collect(Collectors.toMap(ItemBookingView::getItemId, booking -> new BookingInfoDto(
+                booking.getId(), booking.getBookerId(), booking.getStartDate(), booking.getEndDate())));
+    }
+
+    private record BookingRow(Long id, Long itemId, Long bookerId, LocalDateTime startDate, LocalDateTime endDate)
+            implements ItemBookingView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getItemId() {
+            return itemId;
+        }
+
+        @Override
+        public Long getBookerId() {
+            return bookerId;
+        }
+
+        @Override
+        public LocalDateTime getStartDate() {
+            return startDate;
+        }
+
+        @Override
+        public LocalDateTime getEndDate() {
+            return endDate;
+        }
+    }
+
+    private record CommentRow(Long id, Long itemId, String text, String authorName, LocalDateTime created)
+            implements ItemCommentView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getItemId() {
+            return itemId;
+        }
+
+        @Override
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public String getAuthorName() {
+            return authorName;
+        }
+
+        @Override
+        public LocalDateTime getCreated() {
+            return created;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestTrieTest {
+
+    @Test
+    void suggestsTermsWithPrefixByWeight() {
+        SuggestTrie trie = new SuggestTrie(10, 100);
+        trie.add("drill", 1, true);
+        trie.add("drone", 3, true);
+        trie.add("dress", 2, true);
+        trie.add("saw", 5, true);
+
+        assertThat(texts(trie.suggest("dr", 10))).containsExactly("drone", "dress", "drill");
+        assertThat(texts(trie.suggest("dr", 2))).containsExactly("drone", "dress");
+        assertThat(texts(trie.suggest("dri", 10))).containsExactly("drill");
+        assertThat(trie.suggest("x", 10)).isEmpty();
+    }
+
+    @Test
+    void equalWeightsAreOrderedByText() {
+        SuggestTrie trie = new SuggestTrie(10, 100);
+        trie.add("tent", 1, true);
+        trie.add("table", 1, true);
+
+        assertThat(texts(trie.suggest("t", 10))).containsExactly("table", "tent");
+    }
+
+    @Test
+    void keepsOnlyTopKPerNode() {
+        SuggestTrie trie = new SuggestTrie(2, 100);
+        trie.add("aa", 1, true);
+        trie.add("ab", 2, true);
+        trie.add("ac", 3, true);
+
+        assertThat(texts(trie.suggest("a", 10))).containsExactly("ac", "ab");
+    }
+
+    @Test
+    void renameMovesWeightToNewTerm() {
+        SuggestTrie trie = new SuggestTrie(10, 100);
+        trie.add("drill", 2, true);
+        trie.add("drone", 1, true);
+
+        // Переименование вещи: вес снимается со старого термина и добавляется новому
+        trie.add("drill", -2, true);
+        trie.add("hammer", 2, true);
+
+        assertThat(texts(trie.suggest("dr", 10))).containsExactly("drone");
+        assertThat(trie.suggest("dri", 10)).isEmpty();
+        assertThat(trie.suggest("ham", 10)).extracting(ItemSuggestionDto::getScore).containsExactly(2L);
+        assertThat(trie.size()).isEqualTo(2);
+    }
+
+    @Test
+    void removedTermDisappearsButSharedTermKeepsRemainingWeight() {
+        SuggestTrie trie = new SuggestTrie(10, 100);
+        trie.add("saw", 1, true);
+        trie.add("saw", 1, true);
+        trie.add("sander", 1, true);
+
+        trie.add("saw", -1, true);
+        assertThat(trie.suggest("saw", 10)).extracting(ItemSuggestionDto::getScore).containsExactly(1L);
+
+        trie.add("saw", -1, true);
+        assertThat(texts(trie.suggest("sa", 10))).containsExactly("sander");
+        assertThat(trie.size()).isEqualTo(1);
+    }
+
+    @Test
+    void termsOverLimitAreNotAdded() {
+        SuggestTrie trie = new SuggestTrie(10, 1);
+        trie.add("one", 1, false);
+        trie.add("two", 1, false);
+        trie.recomputeAll();
+
+        assertThat(texts(trie.suggest("", 10))).containsExactly("one");
+        assertThat(trie.size()).isEqualTo(1);
+    }
+
+    private static List<String> texts(List<ItemSuggestionDto> suggestions) {
+        return suggestions.stream().map(ItemSuggestionDto::getText).toList();
+    }
+}
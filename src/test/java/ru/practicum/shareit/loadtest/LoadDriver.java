@@ -0,0 +1,311 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный прогон из JVM: тот же набор сценариев, доли трафика и пороги, что loadtest/k6/shareit.js,
+ * для окружений, где k6 недоступен. Каждый сценарий получает запросы с постоянной частотой
+ * (открытая модель, как constant-arrival-rate в k6); запрос, для которого не нашлось свободного
+ * слота, считается пропущенным. Код возврата 1 — порог по задержке или доле ошибок нарушен.
+ * <p>
+ * Запуск: {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="rate=200 duration=60"};
+ * параметры: base-url, rate (запросов в секунду), duration (секунды), users, items, seed.
+ */
+public final class LoadDriver {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final LocalDateTime BOOKING_SLOTS_START = LocalDateTime.of(2040, 1, 1, 0, 0);
+
+    private final String baseUrl;
+    private final int rate;
+    private final int durationSeconds;
+    private final int users;
+    private final int items;
+    private final long seed;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong bookingSlot = new AtomicLong();
+
+    private LoadDriver(Map<String, String> options) {
+        this.baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        this.rate = Integer.parseInt(options.getOrDefault("rate", "500"));
+        this.durationSeconds = Integer.parseInt(options.getOrDefault("duration", "180"));
+        // Должны совпадать с shareit.loadtest.users / shareit.loadtest.items
+        this.users = Integer.parseInt(options.getOrDefault("users", "10000"));
+        this.items = Integer.parseInt(options.getOrDefault("items", "50000"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected name=value, got " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        boolean passed = new LoadDriver(options).run();
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run() throws InterruptedException {
+        List<Scenario> scenarios = List.of(
+                new Scenario("item_details", 0.30, 100, 250, this::itemDetails),
+                new Scenario("owner_bookings", 0.20, 300, 800, this::ownerBookings),
+                new Scenario("owner_items", 0.15, 200, 500, this::ownerItems),
+                new Scenario("search", 0.15, 200, 500, this::search),
+                new Scenario("requests_all", 0.10, 150, 400, this::requestsAll),
+                new Scenario("bookings_create", 0.07, 200, 500, this::createBooking),
+                new Scenario("items_create", 0.03, 150, 400, this::createItem));
+
+        System.out.printf(Locale.ROOT, "Running %d req/s for %d s against %s%n", rate, durationSeconds, baseUrl);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        SplittableRandom root = new SplittableRandom(seed);
+        for (Scenario scenario : scenarios) {
+            scenario.start(scheduler, workers, root.split());
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        scheduler.shutdownNow();
+        workers.shutdown();
+        workers.awaitTermination(REQUEST_TIMEOUT.toSeconds() + 1, TimeUnit.SECONDS);
+
+        return report(scenarios);
+    }
+
+    private boolean report(List<Scenario> scenarios) {
+        System.out.printf(Locale.ROOT, "%-16s %8s %7s %8s %8s %8s %8s %8s  %s%n",
+                "scenario", "requests", "failed", "dropped", "p50 ms", "p95 ms", "p99 ms", "max ms", "thresholds");
+        boolean passed = true;
+        long requests = 0;
+        long failed = 0;
+        for (Scenario scenario : scenarios) {
+            long[] sorted = scenario.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            double p95 = percentile(sorted, 0.95);
+            double p99 = percentile(sorted, 0.99);
+            boolean ok = sorted.length > 0 && p95 < scenario.p95Ms && p99 < scenario.p99Ms;
+            passed &= ok;
+            requests += sorted.length;
+            failed += scenario.failed.get();
+            System.out.printf(Locale.ROOT, "%-16s %8d %7d %8d %8.1f %8.1f %8.1f %8.1f  %s%n",
+                    scenario.name, sorted.length, scenario.failed.get(), scenario.dropped.get(),
+                    percentile(sorted, 0.50), p95, p99, sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0,
+                    ok ? "ok" : "FAILED (p95<" + scenario.p95Ms + ", p99<" + scenario.p99Ms + ")");
+        }
+        double failedRate = requests == 0 ? 1 : (double) failed / requests;
+        boolean errorsOk = failedRate < 0.01;
+        System.out.printf(Locale.ROOT, "http_req_failed %.4f (%s)%n", failedRate, errorsOk ? "ok" : "FAILED, < 0.01");
+        return passed && errorsOk;
+    }
+
+    private static double percentile(long[] sortedMicros, double quantile) {
+        if (sortedMicros.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sortedMicros.length) - 1;
+        return sortedMicros[Math.max(0, index)] / 1000.0;
+    }
+
+    private boolean itemDetails(SplittableRandom random, Scenario scenario) {
+        return get(scenario, "/items/" + popularItem(random), anyUser(random)).statusCode() == 200;
+    }
+
+    private boolean ownerBookings(SplittableRandom random, Scenario scenario) {
+        // Большинство открывает список постранично, остальные получают полный потоковый список
+        String path = random.nextDouble() < 0.8
+                ? "/bookings/owner?state=ALL&from=0&size=20"
+                : "/bookings/owner?state=FUTURE";
+        return get(scenario, path, activeOwner(random)).statusCode() == 200;
+    }
+
+    private boolean ownerItems(SplittableRandom random, Scenario scenario) {
+        long owner = activeOwner(random);
+        HttpResponse<String> first = get(scenario, "/items?size=20", owner);
+        if (first.statusCode() != 200) {
+            return false;
+        }
+        if (random.nextDouble() < 0.3) {
+            Long lastId = lastId(first.body());
+            if (lastId != null) {
+                return get(scenario, "/items?after=" + lastId + "&size=20", owner).statusCode() == 200;
+            }
+        }
+        return true;
+    }
+
+    private boolean search(SplittableRandom random, Scenario scenario) {
+        String word = LoadTestDataSeeder.WORDS[random.nextInt(LoadTestDataSeeder.WORDS.length)];
+        if (random.nextDouble() < 0.3) {
+            String area = LoadTestDataSeeder.AREAS[random.nextInt(LoadTestDataSeeder.AREAS.length)];
+            return get(scenario, "/items/search/faceted?text=" + word + "&area=" + area + "&from=0&size=20", null)
+                    .statusCode() == 200;
+        }
+        return get(scenario, "/items/search?text=" + word + "&from=0&size=20", null).statusCode() == 200;
+    }
+
+    private boolean requestsAll(SplittableRandom random, Scenario scenario) {
+        int from = random.nextInt(5) * 10;
+        return get(scenario, "/requests/all?from=" + from + "&size=10", anyUser(random)).statusCode() == 200;
+    }
+
+    private boolean createBooking(SplittableRandom random, Scenario scenario) {
+        long itemId = popularItem(random);
+        while (!LoadTestDataSeeder.isAvailable(itemId)) {
+            itemId = popularItem(random);
+        }
+        long booker = anyUser(random);
+        if (booker == LoadTestDataSeeder.ownerOf(itemId, users)) {
+            booker = booker % users + 1;
+        }
+        // Каждое бронирование получает свой час далеко за пределами засеянных дат, поэтому пересечений нет
+        LocalDateTime start = BOOKING_SLOTS_START.plusHours(bookingSlot.getAndIncrement());
+        String body = "{\"itemId\":" + itemId + ",\"start\":\"" + DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(start)
+                + "\",\"end\":\"" + DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(start.plusMinutes(30)) + "\"}";
+        int status = post(scenario, "/bookings", booker, body).statusCode();
+        return status == 200 || status == 201;
+    }
+
+    private boolean createItem(SplittableRandom random, Scenario scenario) {
+        String word = LoadTestDataSeeder.WORDS[random.nextInt(LoadTestDataSeeder.WORDS.length)];
+        String body = "{\"name\":\"" + word + " jvm\",\"description\":\"Spare " + word + "\",\"available\":true}";
+        int status = post(scenario, "/items", anyUser(random), body).statusCode();
+        return status == 200 || status == 201;
+    }
+
+    // Популярные вещи запрашиваются гораздо чаще, как и в засеянных бронированиях
+    private long popularItem(SplittableRandom random) {
+        double u = random.nextDouble();
+        return 1 + (long) (items * u * u * u);
+    }
+
+    // Владельцы многих вещей получают пропорционально больше запросов к своим спискам
+    private long activeOwner(SplittableRandom random) {
+        return LoadTestDataSeeder.ownerOf(popularItem(random), users);
+    }
+
+    private long anyUser(SplittableRandom random) {
+        return 1 + random.nextInt(users);
+    }
+
+    // Следующая страница запрашивается только после полной
+    private Long lastId(String page) {
+        try {
+            JsonNode items = objectMapper.readTree(page);
+            return items.size() == 20 ? items.get(19).get("id").asLong() : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unexpected GET /items response", e);
+        }
+    }
+
+    private HttpResponse<String> get(Scenario scenario, String path, Long userId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT).GET();
+        if (userId != null) {
+            request.header(USER_HEADER, userId.toString());
+        }
+        return send(scenario, request.build());
+    }
+
+    private HttpResponse<String> post(Scenario scenario, String path, long userId, String body) {
+        return send(scenario, HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header(USER_HEADER, Long.toString(userId))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    private HttpResponse<String> send(Scenario scenario, HttpRequest request) {
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            scenario.latencies.add((System.nanoTime() - started) / 1000);
+            return response;
+        } catch (IOException e) {
+            scenario.latencies.add((System.nanoTime() - started) / 1000);
+            throw new IllegalStateException(request.uri() + ": " + e, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        boolean run(SplittableRandom random, Scenario scenario);
+    }
+
+    private final class Scenario {
+        private final String name;
+        private final double share;
+        private final long p95Ms;
+        private final long p99Ms;
+        private final Action action;
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+
+        private Scenario(String name, double share, long p95Ms, long p99Ms, Action action) {
+            this.name = name;
+            this.share = share;
+            this.p95Ms = p95Ms;
+            this.p99Ms = p99Ms;
+            this.action = action;
+        }
+
+        private void start(ScheduledExecutorService scheduler, ExecutorService workers, SplittableRandom random) {
+            long scenarioRate = Math.max(1, Math.round(rate * share));
+            // Как maxVUs в k6: одновременных запросов сценария не больше, чем запросов за секунду
+            long maxInFlight = Math.max(20, scenarioRate);
+            scheduler.scheduleAtFixedRate(() -> {
+                // Генератор делится в потоке планировщика, поэтому последовательность запросов воспроизводима
+                SplittableRandom own = random.split();
+                if (inFlight.incrementAndGet() > maxInFlight) {
+                    inFlight.decrementAndGet();
+                    dropped.incrementAndGet();
+                    return;
+                }
+                workers.execute(() -> {
+                    try {
+                        if (!action.run(own, this)) {
+                            failed.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }, 0, TimeUnit.SECONDS.toNanos(1) / scenarioRate, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingPhase;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор данных для нагрузочного тестирования (профиль loadtest).
+ * Заполняет пустую базу детерминированным набором: пользователи, запросы, вещи с неравномерной
+ * популярностью, бронирования в прошлом, настоящем и будущем, отзывы. Одинаковые seed и объемы
+ * дают одинаковые данные, а владельцы и доступность вещей вычисляются по формулам,
+ * которые повторяют сценарии k6 из каталога loadtest.
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements ApplicationRunner {
+    static final String[] WORDS = {"drill", "saw", "ladder", "tent", "bike", "kayak", "camera", "projector",
+        "tripod", "grill", "mixer", "vacuum", "hammer", "sander", "scooter", "speaker", "router", "stroller",
+        "snowboard", "telescope"};
+    // Категория определяется словом: WORDS[i] относится к CATEGORIES[i / 4]
+    static final String[] CATEGORIES = {"tools", "outdoor", "electronics", "home", "sport"};
+    static final String[] AREAS = {"center", "north", "south", "east", "west", "suburbs"};
+
+    private static final double GOLDEN_RATIO_FRACTION = 0.6180339887498949;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long seed;
+    private final int users;
+    private final int requests;
+    private final int items;
+    private final int bookings;
+    private final int batchSize;
+
+    public LoadTestDataSeeder(JdbcTemplate jdbcTemplate,
+                              @Value("${shareit.loadtest.seed:42}") long seed,
+                              @Value("${shareit.loadtest.users:10000}") int users,
+                              @Value("${shareit.loadtest.requests:20000}") int requests,
+                              @Value("${shareit.loadtest.items:50000}") int items,
+                              @Value("${shareit.loadtest.bookings:1000000}") int bookings,
+                              @Value("${shareit.loadtest.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.seed = seed;
+        this.users = users;
+        this.requests = requests;
+        this.items = items;
+        this.bookings = bookings;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Владелец вещи: чем меньше идентификатор пользователя, тем больше у него вещей.
+     */
+    static long ownerOf(long itemId, int users) {
+        double fraction = (itemId * GOLDEN_RATIO_FRACTION) % 1;
+        return 1 + (long) (users * fraction * fraction);
+    }
+
+    /**
+     * Каждая двадцатая вещь недоступна для бронирования.
+     */
+    static boolean isAvailable(long itemId) {
+        return itemId % 20 != 0;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Load test seeding skipped: database already contains {} users", existing);
+            return;
+        }
+        long started = System.currentTimeMillis();
+        // Отсчет от полуночи, чтобы повторный прогон в тот же день давал те же даты
+        LocalDateTime now = LocalDate.now().atStartOfDay();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        seedUsers();
+        seedRequests(random, now);
+        seedItems(random);
+        int comments = seedBookingsAndComments(random, now);
+        restartSequences();
+
+        log.info("Seeded {} users, {} requests, {} items, {} bookings, {} comments in {} ms",
+                users, requests, items, bookings, comments, System.currentTimeMillis() - started);
+    }
+
+    private void seedUsers() {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long id = 1; id <= users; id++) {
+            batch.add(new Object[]{id, "user" + id, "user" + id + "@loadtest.shareit"});
+            flushIfFull("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", batch);
+        }
+        flush("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", batch);
+    }
+
+    private void seedRequests(SplittableRandom random, LocalDateTime now) {
+        String sql = "INSERT INTO requests (id, description, requester_id, created) VALUES (?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long id = 1; id <= requests; id++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            batch.add(new Object[]{id, "Looking for a " + word, 1 + random.nextInt(users),
+                    Timestamp.valueOf(now.minusMinutes(random.nextInt(60 * 24 * 365)))});
+            flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+    }
+
+    private void seedItems(SplittableRandom random) {
+        String sql = "INSERT INTO items (id, name, description, is_available, owner_id, request_id, category, area) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long id = 1; id <= items; id++) {
+            int wordIndex = random.nextInt(WORDS.length);
+            String word = WORDS[wordIndex];
+            Long requestId = requests > 0 && random.nextInt(10) == 0 ? (long) (1 + random.nextInt(requests)) : null;
+            batch.add(new Object[]{id, word + " " + id, "Well kept " + word + ", pick up any time",
+                    isAvailable(id), ownerOf(id, users), requestId, CATEGORIES[wordIndex / 4],
+                    AREAS[(int) (id % AREAS.length)]});
+            flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+    }
+
+    private int seedBookingsAndComments(SplittableRandom random, LocalDateTime now) {
+        String bookingSql = "INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, phase, "
+                + "created, decided) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String commentSql = "INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)";
+        List<Object[]> bookingBatch = new ArrayList<>(batchSize);
+        List<Object[]> commentBatch = new ArrayList<>(batchSize);
+        long commentId = 0;
+        for (long id = 1; id <= bookings; id++) {
+            // Популярность вещей убывает по степенному закону: первые вещи бронируют гораздо чаще
+            double u = random.nextDouble();
+            long itemId = 1 + (long) (items * u * u * u);
+            long ownerId = ownerOf(itemId, users);
+            long bookerId = 1 + random.nextInt(users);
+            if (bookerId == ownerId) {
+                bookerId = bookerId % users + 1;
+            }
+
+            int kind = random.nextInt(100);
+            LocalDateTime start;
+            if (kind < 60) {
+                start = now.minusHours(48 + random.nextInt(24 * 300));
+            } else if (kind < 70) {
+                start = now.minusHours(1 + random.nextInt(24));
+            } else {
+                start = now.plusHours(1 + random.nextInt(24 * 180));
+            }
+            LocalDateTime end = start.plusHours(2 + random.nextInt(46));
+            BookingPhase phase = BookingPhase.of(start, end, now);
+            BookingStatus status = statusFor(phase, random);
+            LocalDateTime created = start.minusHours(1 + random.nextInt(24 * 14));
+            LocalDateTime decided = status == BookingStatus.WAITING || status == BookingStatus.EXPIRED
+                    ? null : created.plusMinutes(1 + random.nextInt(600));
+
+            bookingBatch.add(new Object[]{id, Timestamp.valueOf(start), Timestamp.valueOf(end), itemId, bookerId,
+                    status.name(), phase.name(), Timestamp.valueOf(created),
+                    decided != null ? Timestamp.valueOf(decided) : null});
+            flushIfFull(bookingSql, bookingBatch);
+
+            if (phase == BookingPhase.PAST && status == BookingStatus.APPROVED && random.nextInt(10) == 0) {
+                commentBatch.add(new Object[]{++commentId, "Worked fine, thanks", itemId, bookerId,
+                        Timestamp.valueOf(end.plusHours(1 + random.nextInt(72)))});
+                if (commentBatch.size() >= batchSize) {
+                    // Отзывы ссылаются только на вещи и пользователей, поэтому их можно сбрасывать независимо
+                    flush(commentSql, commentBatch);
+                }
+            }
+            if (id % 100_000 == 0) {
+                log.info("Seeded {} of {} bookings", id, bookings);
+            }
+        }
+        flush(bookingSql, bookingBatch);
+        flush(commentSql, commentBatch);
+        return (int) commentId;
+    }
+
+    private BookingStatus statusFor(BookingPhase phase, SplittableRandom random) {
+        int roll = random.nextInt(100);
+        return switch (phase) {
+            case CURRENT -> BookingStatus.APPROVED;
+            case FUTURE -> roll < 40 ? BookingStatus.WAITING : roll < 90 ? BookingStatus.APPROVED
+                    : BookingStatus.REJECTED;
+            case PAST -> roll < 80 ? BookingStatus.APPROVED : roll < 90 ? BookingStatus.REJECTED
+                    : roll < 95 ? BookingStatus.CANCELED : BookingStatus.EXPIRED;
+        };
+    }
+
+    /**
+     * Переводит последовательности за вставленные явно идентификаторы.
+     */
+    private void restartSequences() {
+        restartSequence("users_seq", "users");
+        restartSequence("requests_seq", "requests");
+        restartSequence("items_seq", "items");
+        restartSequence("bookings_seq", "bookings");
+        restartSequence("comments_seq", "comments");
+    }
+
+    private void restartSequence(String sequence, String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (max + 1));
+    }
+
+    private void flushIfFull(String sql, List<Object[]> batch) {
+        if (batch.size() >= batchSize) {
+            flush(sql, batch);
+        }
+    }
+
+    private void flush(String sql, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "shareit.loadtest.users=50", "shareit.loadtest.requests=20", "shareit.loadtest.items=200",
+        "shareit.loadtest.bookings=2000", "shareit.loadtest.batch-size=300"})
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "loadtest"})
+class LoadTestDataSeederTest {
+    @Autowired
+    private LoadTestDataSeeder seeder;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void seedsDataSetWithOwnersAndAvailabilityFromFormulas() {
+        assertThat(count("users")).isGreaterThanOrEqualTo(50);
+        assertThat(count("items")).isGreaterThanOrEqualTo(200);
+        assertThat(count("bookings")).isGreaterThanOrEqualTo(2000);
+        assertThat(count("requests")).isGreaterThanOrEqualTo(20);
+
+        List<Map<String, Object>> items = jdbcTemplate.queryForList(
+                "SELECT id, owner_id, is_available FROM items WHERE id <= 200 ORDER BY id");
+        assertThat(items).hasSize(200).allSatisfy(item -> {
+            long id = ((Number) item.get("id")).longValue();
+            assertThat(((Number) item.get("owner_id")).longValue()).isEqualTo(LoadTestDataSeeder.ownerOf(id, 50));
+            assertThat(item.get("is_available")).isEqualTo(LoadTestDataSeeder.isAvailable(id));
+        });
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings b JOIN items i ON i.id = b.item_id " +
+                "WHERE b.booker_id = i.owner_id", Long.class)).isZero();
+    }
+
+    @Test
+    void applicationIdsContinueAfterSeededRows() {
+        Long id = userService.createUser(new UserDto(null, "after seed", "after-seed@example.com")).getId();
+
+        assertThat(id).isGreaterThan(50);
+    }
+
+    @Test
+    void nonEmptyDatabaseIsLeftUntouched() throws Exception {
+        long bookings = count("bookings");
+
+        seeder.run(new DefaultApplicationArguments());
+
+        assertThat(count("bookings")).isEqualTo(bookings);
+    }
+
+    @Test
+    void rateLimitsDoNotThrottleGeneratedLoad() throws Exception {
+        // По умолчанию пользователю разрешено 40 запросов подряд
+        for (int i = 0; i < 100; i++) {
+            mockMvc.perform(get("/requests/all?from=0&size=10").header("X-Sharer-User-Id", 1))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
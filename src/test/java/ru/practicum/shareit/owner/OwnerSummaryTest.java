@@ -0,0 +1,175 @@
+package ru.practicum.shareit.owner;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingLifecycleService;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.owner.dto.ItemSummaryDto;
+import ru.practicum.shareit.owner.dto.OwnerSummaryDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OwnerSummaryTest {
+    private static final LocalDateTime BASE = LocalDateTime.now().withNano(0);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private OwnerSummaryService ownerSummaryService;
+    @Autowired
+    private BookingLifecycleService bookingLifecycleService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long kayak;
+    private Long tent;
+    private Long lamp;
+
+    @BeforeEach
+    void createItems() {
+        ownerId = newUser();
+        bookerId = newUser();
+        kayak = create("kayak");
+        tent = create("tent");
+        lamp = create("lamp");
+    }
+
+    @Test
+    void summaryCountsLiveAndArchivedBookings() {
+        insert("bookings", kayak, "WAITING", 5, 6, null);
+        insert("bookings", kayak, "WAITING", 3, 4, null);
+        insert("bookings", kayak, "WAITING", -2, -1, null);
+        insert("bookings", kayak, "APPROVED", 2, 3, 3600);
+        insert("bookings", kayak, "APPROVED", -1, 1, 7200);
+        insert("bookings", kayak, "APPROVED", -5, -4, null);
+        insert("bookings_archive", kayak, "APPROVED", -500, -499, 600);
+        insert("bookings_archive", kayak, "REJECTED", -450, -449, null);
+        insert("bookings", tent, "WAITING", 1, 2, null);
+
+        OwnerSummaryDto summary = ownerSummaryService.getSummary(ownerId);
+
+        assertThat(summary.getItems()).extracting(ItemSummaryDto::getItemId).containsExactly(kayak, tent, lamp);
+        ItemSummaryDto kayakSummary = summary.getItems().get(0);
+        assertThat(kayakSummary.getItemName()).isEqualTo("kayak");
+        assertThat(kayakSummary.getWaiting()).isEqualTo(3);
+        assertThat(kayakSummary.getApprovedUpcoming()).isEqualTo(1);
+        assertThat(kayakSummary.getCurrent()).isEqualTo(1);
+        // Одно завершенное бронирование в основной таблице и одно в архиве
+        assertThat(kayakSummary.getPast()).isEqualTo(2);
+        // Ожидающее решения бронирование, которое уже началось, ближайшим не считается
+        assertThat(kayakSummary.getNextPendingStart()).isEqualTo(BASE.plusDays(3));
+        assertThat(kayakSummary.getAverageTurnaroundSeconds()).isEqualTo((3600 + 7200 + 600) / 3.0);
+
+        ItemSummaryDto tentSummary = summary.getItems().get(1);
+        assertThat(tentSummary.getWaiting()).isEqualTo(1);
+        assertThat(tentSummary.getAverageTurnaroundSeconds()).isNull();
+
+        ItemSummaryDto lampSummary = summary.getItems().get(2);
+        assertThat(lampSummary).isEqualTo(ItemSummaryDto.builder().itemId(lamp).itemName("lamp").build());
+
+        assertThat(summary.getNextPendingApproval()).isEqualTo(tentSummary);
+        assertThat(summary.getAverageTurnaroundSeconds()).isEqualTo((3600 + 7200 + 600) / 3.0);
+    }
+
+    @Test
+    void expiredBookingsAreNotCountedAsOwnerDecisions() throws Exception {
+        insert("bookings", kayak, "APPROVED", 2, 3, 3600);
+        Long waiting = insert("bookings", kayak, "WAITING", -2, 1, null);
+        // Бронирования, истекшие до исправления, с проставленным временем решения
+        insert("bookings", kayak, "EXPIRED", -3, -2, 100);
+        insert("bookings_archive", kayak, "EXPIRED", -400, -399, 100);
+        assertThat(ownerSummaryService.getSummary(ownerId).getAverageTurnaroundSeconds()).isEqualTo(3600.0);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!"EXPIRED".equals(bookingStatus(waiting)) && System.nanoTime() < deadline) {
+            bookingLifecycleService.tick();
+            Thread.sleep(10);
+        }
+
+        assertThat(bookingStatus(waiting)).isEqualTo("EXPIRED");
+        assertThat(jdbcTemplate.queryForObject("SELECT decided FROM bookings WHERE id = ?", LocalDateTime.class,
+                waiting)).isNull();
+        OwnerSummaryDto summary = ownerSummaryService.getSummary(ownerId);
+        assertThat(summary.getItems().get(0).getWaiting()).isZero();
+        assertThat(summary.getItems().get(0).getAverageTurnaroundSeconds()).isEqualTo(3600.0);
+        assertThat(summary.getAverageTurnaroundSeconds()).isEqualTo(3600.0);
+    }
+
+    @Test
+    void ownerWithoutBookingsGetsZeroRows() throws Exception {
+        mockMvc.perform(get("/owners/me/summary").header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].waiting").value(0))
+                .andExpect(jsonPath("$.items[0].past").value(0))
+                .andExpect(jsonPath("$.items[0].averageTurnaroundSeconds").doesNotExist())
+                .andExpect(jsonPath("$.nextPendingApproval").doesNotExist())
+                .andExpect(jsonPath("$.averageTurnaroundSeconds").doesNotExist());
+    }
+
+    @Test
+    void unknownOwnerIsNotFound() throws Exception {
+        mockMvc.perform(get("/owners/me/summary").header("X-Sharer-User-Id", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Добавляет бронирование; created на сутки раньше начала, decided через turnaroundSeconds после created.
+     */
+    private Long insert(String table, Long itemId, String status, int startDays, int endDays,
+                        Integer turnaroundSeconds) {
+        Long id = jdbcTemplate.queryForObject("SELECT nextval('bookings_seq')", Long.class);
+        LocalDateTime start = BASE.plusDays(startDays);
+        LocalDateTime created = start.minusDays(1);
+        LocalDateTime decided = turnaroundSeconds != null ? created.plusSeconds(turnaroundSeconds) : null;
+        if (table.equals("bookings")) {
+            String phase = endDays < 0 ? "PAST" : startDays > 0 ? "FUTURE" : "CURRENT";
+            jdbcTemplate.update("INSERT INTO bookings " +
+                            "(id, start_date, end_date, item_id, booker_id, status, phase, created, decided) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    id, start, BASE.plusDays(endDays), itemId, bookerId, status, phase, created, decided);
+        } else {
+            jdbcTemplate.update("INSERT INTO bookings_archive " +
+                            "(id, start_date, end_date, item_id, booker_id, status, created, decided, archived) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    id, start, BASE.plusDays(endDays), itemId, bookerId, status, created, decided, BASE);
+        }
+        return id;
+    }
+
+    private String bookingStatus(Long bookingId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM bookings WHERE id = ?", String.class, bookingId);
+    }
+
+    private Long create(String name) {
+        return itemService.create(ItemDto.builder().name(name).description(name).available(true).build(), ownerId)
+                .getId();
+    }
+
+    private Long newUser() {
+        return userService.createUser(new UserDto(null, "user", UUID.randomUUID() + "@example.com")).getId();
+    }
+}
@@ -0,0 +1,243 @@
+package ru.practicum.shareit.recommendation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.dto.BookingWithUserDto;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.recommendation.dto.SimilarItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemRecommendationServiceTest {
+    // Пользователи из событий в таблицу users не попадают: модель их не проверяет
+    private static final AtomicLong EVENT_USERS = new AtomicLong(1_000_000_000L);
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @TempDir
+    private Path tempDir;
+
+    private Long ownerId;
+    private Long kayak;
+    private Long tent;
+    private Long stove;
+
+    @BeforeEach
+    void createItems() {
+        ownerId = newUser();
+        kayak = newItem("kayak");
+        tent = newItem("tent");
+        stove = newItem("stove");
+    }
+
+    @Test
+    void bookingEventsAreAppliedOnRefresh() {
+        ItemRecommendationService service = loaded(null);
+        long first = EVENT_USERS.incrementAndGet();
+        long second = EVENT_USERS.incrementAndGet();
+        book(service, first, kayak, tent);
+        book(service, second, kayak, stove);
+        book(service, EVENT_USERS.incrementAndGet(), tent, kayak);
+
+        assertThat(service.getSimilar(kayak, 10)).isEmpty();
+        service.refresh();
+
+        assertThat(service.getSimilar(kayak, 10)).containsExactly(
+                new SimilarItemDto(tent, 2), new SimilarItemDto(stove, 1));
+        assertThat(service.getSimilar(kayak, 1)).containsExactly(new SimilarItemDto(tent, 2));
+        assertThat(service.getSimilar(stove, 10)).containsExactly(new SimilarItemDto(kayak, 1));
+    }
+
+    @Test
+    void repeatedBookingOfSameItemIsCountedOnce() {
+        ItemRecommendationService service = loaded(null);
+        long user = EVENT_USERS.incrementAndGet();
+        book(service, user, kayak, tent, kayak, tent, kayak);
+        service.refresh();
+
+        assertThat(service.getSimilar(kayak, 10)).containsExactly(new SimilarItemDto(tent, 1));
+        assertThat(service.getSimilar(tent, 10)).containsExactly(new SimilarItemDto(kayak, 1));
+    }
+
+    @Test
+    void snapshotRestoresModelWithoutBookingsInDatabase() {
+        Path snapshot = tempDir.resolve("recommendations.snapshot");
+        ItemRecommendationService saved = loaded(snapshot);
+        long user = EVENT_USERS.incrementAndGet();
+        book(saved, user, kayak, tent);
+        book(saved, EVENT_USERS.incrementAndGet(), kayak, tent);
+        book(saved, EVENT_USERS.incrementAndGet(), kayak, stove);
+        saved.refresh();
+        saved.snapshot();
+        assertThat(snapshot).exists();
+
+        // Событий этих бронирований в БД нет: модель может прийти только из снимка
+        ItemRecommendationService restored = loaded(snapshot);
+
+        assertThat(restored.getSimilar(kayak, 10)).containsExactly(
+                new SimilarItemDto(tent, 2), new SimilarItemDto(stove, 1));
+        assertThat(restored.getSimilar(tent, 10)).isEqualTo(saved.getSimilar(tent, 10));
+        // История пользователя тоже восстановлена: повтор не учитывается заново
+        book(restored, user, tent, kayak);
+        restored.refresh();
+        assertThat(restored.getSimilar(kayak, 10)).containsExactly(
+                new SimilarItemDto(tent, 2), new SimilarItemDto(stove, 1));
+    }
+
+    @Test
+    void bookingsCreatedAfterSnapshotAreCaughtUp() {
+        Path snapshot = tempDir.resolve("recommendations.snapshot");
+        ItemRecommendationService saved = loaded(snapshot);
+        book(saved, EVENT_USERS.incrementAndGet(), kayak, tent);
+        saved.refresh();
+        saved.snapshot();
+
+        Long booker = newUser();
+        insertBooking(kayak, booker);
+        insertBooking(stove, booker);
+        ItemRecommendationService restored = loaded(snapshot);
+
+        assertThat(restored.getSimilar(kayak, 10)).containsExactlyInAnyOrder(
+                new SimilarItemDto(tent, 1), new SimilarItemDto(stove, 1));
+        assertThat(restored.getSimilar(stove, 10)).containsExactly(new SimilarItemDto(kayak, 1));
+    }
+
+    @Test
+    void deletedItemStopsAnsweringAndLeavesOtherItems() {
+        ItemRecommendationService service = loaded(null);
+        book(service, EVENT_USERS.incrementAndGet(), kayak, tent, stove);
+        service.refresh();
+        assertThat(service.getSimilar(kayak, 10)).hasSize(2);
+
+        service.onItemChanged(new ItemChangedEvent(tent, null));
+
+        // До пересчета: удаленная вещь не отвечает и отфильтрована из чужих ответов
+        assertThatThrownBy(() -> service.getSimilar(tent, 10)).isInstanceOf(NotFoundException.class);
+        assertThat(service.getSimilar(kayak, 10)).containsExactly(new SimilarItemDto(stove, 1));
+        // Бронирование, пришедшее вместе с удалением, пар с вещью не создает
+        book(service, EVENT_USERS.incrementAndGet(), stove, tent);
+        service.refresh();
+        book(service, EVENT_USERS.incrementAndGet(), tent, kayak);
+        service.refresh();
+
+        assertThatThrownBy(() -> service.getSimilar(tent, 10)).isInstanceOf(NotFoundException.class);
+        assertThat(service.getSimilar(kayak, 10)).containsExactly(new SimilarItemDto(stove, 1));
+        assertThat(service.getSimilar(stove, 10)).containsExactly(new SimilarItemDto(kayak, 1));
+    }
+
+    @Test
+    void loadSkipsBookingsOfDeletedItemsAndUsers() {
+        Long booker = newUser();
+        insertBooking(kayak, booker);
+        insertBooking(tent, booker);
+        insertBooking(stove, booker);
+        Long deletedBooker = newUser();
+        insertBooking(stove, deletedBooker);
+        insertBooking(kayak, deletedBooker);
+        itemService.delete(tent);
+        userService.deleteUser(deletedBooker);
+
+        ItemRecommendationService service = loaded(null);
+
+        assertThat(service.getSimilar(kayak, 10)).containsExactly(new SimilarItemDto(stove, 1));
+        assertThat(service.getSimilar(tent, 10)).isEmpty();
+    }
+
+    @Test
+    void itemDeletedWhileServiceWasDownIsRemovedFromRestoredSnapshot() {
+        Path snapshot = tempDir.resolve("recommendations.snapshot");
+        ItemRecommendationService saved = loaded(snapshot);
+        book(saved, EVENT_USERS.incrementAndGet(), kayak, tent, stove);
+        saved.refresh();
+        saved.snapshot();
+        itemService.delete(tent);
+
+        ItemRecommendationService restored = loaded(snapshot);
+
+        assertThatThrownBy(() -> restored.getSimilar(tent, 10)).isInstanceOf(NotFoundException.class);
+        assertThat(restored.getSimilar(kayak, 10)).containsExactly(new SimilarItemDto(stove, 1));
+        book(restored, EVENT_USERS.incrementAndGet(), tent, kayak);
+        restored.refresh();
+        assertThat(restored.getSimilar(kayak, 10)).containsExactly(new SimilarItemDto(stove, 1));
+    }
+
+    @Test
+    void similarOfDeletedItemIsNotFound() throws Exception {
+        mockMvc.perform(get("/items/{id}/similar", tent)).andExpect(status().isOk());
+
+        itemService.delete(tent);
+
+        mockMvc.perform(get("/items/{id}/similar", tent)).andExpect(status().isNotFound());
+    }
+
+    private ItemRecommendationService loaded(Path snapshot) {
+        ItemRecommendationService service = new ItemRecommendationService(dataSource, transactionManager,
+                snapshot != null ? snapshot.toString() : "", 20, 10, 500, 50, 1000);
+        service.load();
+        return service;
+    }
+
+    /**
+     * Бронирования пользователя по порядку; id бронирований не выше уже существующих в БД,
+     * чтобы снимок с ними не считался снятым с другой БД.
+     */
+    private void book(ItemRecommendationService service, long userId, Long... itemIds) {
+        long bookingId = jdbcTemplate.queryForObject("SELECT nextval('bookings_seq')", Long.class);
+        BookingWithUserDto booking = BookingWithUserDto.builder().booker(new UserDto(userId, null, null)).build();
+        for (Long itemId : itemIds) {
+            service.onBookingChanged(new BookingChangedEvent(bookingId, itemId, ownerId, booking));
+        }
+        insertBooking(newItem("unrelated"), ownerId);
+    }
+
+    private void insertBooking(Long itemId, Long bookerId) {
+        Long id = jdbcTemplate.queryForObject("SELECT nextval('bookings_seq')", Long.class);
+        LocalDateTime start = LocalDateTime.now().minusDays(10);
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, phase) " +
+                "VALUES (?, ?, ?, ?, ?, 'APPROVED', 'PAST')", id, start, start.plusDays(1), itemId, bookerId);
+    }
+
+    private Long newItem(String name) {
+        return itemService.create(ItemDto.builder().name(name).description(name).available(true).build(),
+                ownerId).getId();
+    }
+
+    private Long newUser() {
+        return userService.createUser(new UserDto(null, "user", UUID.randomUUID() + "@example.com")).getId();
+    }
+}
@@ -0,0 +1,179 @@
+package ru.practicum.shareit.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongLongHashMapTest {
+
+    @Test
+    void addToAccumulatesAndReturnsNewValue() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        assertThat(map.addTo(7, 3)).isEqualTo(3);
+        assertThat(map.addTo(7, 4)).isEqualTo(7);
+        assertThat(map.addTo(7, -10)).isEqualTo(-3);
+
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.get(7)).isEqualTo(-3);
+        assertThat(map.containsKey(7)).isTrue();
+    }
+
+    @Test
+    void missingKeyReadsAsZero() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.addTo(1, 5);
+
+        assertThat(map.get(2)).isZero();
+        assertThat(map.containsKey(2)).isFalse();
+    }
+
+    @Test
+    void keyZeroIsRejected() {
+        assertThatThrownBy(() -> new LongLongHashMap().addTo(0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void growthKeepsAllEntries() {
+        // Начальная емкость 8: рост происходит несколько раз
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = 1; key <= 10_000; key++) {
+            map.addTo(key, key * 10);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key)).isEqualTo(key * 10);
+        }
+        assertThat(map.containsKey(10_001)).isFalse();
+    }
+
+    @Test
+    void collidingKeysAreProbedPastEachOtherAndWrapAround() {
+        // Емкость 128 до 64 ключей; все ключи начинают пробирование с последней ячейки
+        LongLongHashMap map = new LongLongHashMap(64);
+        long[] keys = keysWithHomeSlot(127, 128, 40);
+        for (int i = 0; i < keys.length; i++) {
+            map.addTo(keys[i], i + 1);
+        }
+        for (long key : keys) {
+            map.addTo(key, 100);
+        }
+
+        assertThat(map.size()).isEqualTo(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            assertThat(map.get(keys[i])).isEqualTo(i + 101);
+        }
+        // Отсутствующий ключ с той же начальной ячейкой проходит всю цепочку и не находится
+        long absent = keysWithHomeSlot(127, 128, 41)[40];
+        assertThat(map.containsKey(absent)).isFalse();
+        assertThat(map.get(absent)).isZero();
+    }
+
+    @Test
+    void growthRehashesCollidingChains() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        long[] keys = keysWithHomeSlot(3, 8, 200);
+        for (long key : keys) {
+            map.addTo(key, key);
+        }
+
+        assertThat(map.size()).isEqualTo(keys.length);
+        for (long key : keys) {
+            assertThat(map.get(key)).isEqualTo(key);
+        }
+    }
+
+    @Test
+    void negativeAndExtremeKeysAreSupported() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.addTo(Long.MIN_VALUE, 1);
+        map.addTo(Long.MAX_VALUE, 2);
+        map.addTo(-1, 3);
+
+        assertThat(map.get(Long.MIN_VALUE)).isEqualTo(1);
+        assertThat(map.get(Long.MAX_VALUE)).isEqualTo(2);
+        assertThat(map.get(-1)).isEqualTo(3);
+    }
+
+    @Test
+    void removeKeepsCollidingKeysReachable() {
+        // Цепочка переходит через конец массива; удаляются ключи из начала, середины и конца цепочки
+        LongLongHashMap map = new LongLongHashMap(64);
+        long[] keys = keysWithHomeSlot(126, 128, 10);
+        for (long key : keys) {
+            map.addTo(key, key);
+        }
+
+        assertThat(map.remove(keys[0])).isTrue();
+        assertThat(map.remove(keys[5])).isTrue();
+        assertThat(map.remove(keys[9])).isTrue();
+        assertThat(map.remove(keys[5])).isFalse();
+
+        assertThat(map.size()).isEqualTo(7);
+        for (int i = 0; i < keys.length; i++) {
+            assertThat(map.containsKey(keys[i])).isEqualTo(i != 0 && i != 5 && i != 9);
+        }
+        assertThat(map.addTo(keys[5], 1)).isEqualTo(1);
+        assertThat(map.size()).isEqualTo(8);
+    }
+
+    @Test
+    void matchesHashMapOnRandomUpdatesAndRemovals() {
+        SplittableRandom random = new SplittableRandom(11);
+        LongLongHashMap map = new LongLongHashMap(16);
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            long key = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+            } else {
+                expected.merge(key, 1L, Long::sum);
+                map.addTo(key, 1);
+            }
+        }
+
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited).isEqualTo(expected);
+        assertThat(map.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    void matchesHashMapOnRandomUpdates() {
+        SplittableRandom random = new SplittableRandom(7);
+        LongLongHashMap map = new LongLongHashMap(16);
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            long delta = random.nextInt(100) - 50;
+            expected.merge(key, delta, Long::sum);
+            assertThat(map.addTo(key, delta)).isEqualTo(expected.get(key));
+        }
+
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach((key, value) -> assertThat(visited.put(key, value)).isNull());
+        assertThat(visited).isEqualTo(expected);
+        assertThat(map.size()).isEqualTo(expected.size());
+    }
+
+    /**
+     * Подбирает ключи с заданной начальной ячейкой; перемешивание повторяет LongLongHashMap.
+     */
+    private static long[] keysWithHomeSlot(int slot, int capacity, int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 1; found < count; key++) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            if (((int) (hash ^ (hash >>> 32)) & (capacity - 1)) == slot) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}
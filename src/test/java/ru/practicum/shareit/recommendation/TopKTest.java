@@ -0,0 +1,99 @@
+package ru.practicum.shareit.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKTest {
+
+    @Test
+    void keepsHighestScoresInDescendingOrder() {
+        TopK top = new TopK(3);
+        long[][] pairs = {{1, 5}, {2, 9}, {3, 1}, {4, 7}, {5, 3}, {6, 8}};
+        for (long[] pair : pairs) {
+            top.offer(pair[0], pair[1]);
+        }
+
+        assertThat(drain(top)).containsExactly(new long[]{2, 9}, new long[]{6, 8}, new long[]{4, 7});
+        assertThat(top.size()).isZero();
+    }
+
+    @Test
+    void tiesPreferSmallerId() {
+        TopK top = new TopK(2);
+        top.offer(30, 5);
+        top.offer(10, 5);
+        top.offer(20, 5);
+        top.offer(40, 5);
+
+        assertThat(drain(top)).containsExactly(new long[]{10, 5}, new long[]{20, 5});
+    }
+
+    @Test
+    void tiesAreOrderedByIdWithinEqualScores() {
+        TopK top = new TopK(5);
+        top.offer(4, 2);
+        top.offer(3, 7);
+        top.offer(9, 2);
+        top.offer(1, 2);
+        top.offer(2, 7);
+
+        assertThat(drain(top)).containsExactly(new long[]{2, 7}, new long[]{3, 7}, new long[]{1, 2},
+                new long[]{4, 2}, new long[]{9, 2});
+    }
+
+    @Test
+    void fewerCandidatesThanK() {
+        TopK top = new TopK(10);
+        top.offer(1, 1);
+        top.offer(2, 2);
+
+        assertThat(top.size()).isEqualTo(2);
+        assertThat(drain(top)).containsExactly(new long[]{2, 2}, new long[]{1, 1});
+    }
+
+    @Test
+    void zeroCapacityKeepsNothing() {
+        TopK top = new TopK(0);
+        top.offer(1, 100);
+
+        assertThat(top.size()).isZero();
+    }
+
+    @Test
+    void matchesFullSortOnRandomInput() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int round = 0; round < 50; round++) {
+            int k = 1 + random.nextInt(20);
+            TopK top = new TopK(k);
+            List<long[]> all = new ArrayList<>();
+            int count = random.nextInt(200);
+            for (long id = 1; id <= count; id++) {
+                // Узкий диапазон score дает много равенств
+                long score = random.nextInt(10);
+                all.add(new long[]{id, score});
+                top.offer(id, score);
+            }
+            all.sort(Comparator.<long[]>comparingLong(pair -> -pair[1]).thenComparingLong(pair -> pair[0]));
+
+            assertThat(drain(top)).containsExactlyElementsOf(all.subList(0, Math.min(k, all.size())));
+        }
+    }
+
+    private static List<long[]> drain(TopK top) {
+        int size = top.size();
+        long[] ids = new long[size];
+        long[] scores = new long[size];
+        top.drainDescending(ids, scores);
+        List<long[]> pairs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            pairs.add(new long[]{ids[i], scores[i]});
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ItemRequestPaginationTest {
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void offsetIsNotRoundedToPageBoundary() {
+        Long requesterId = newUser();
+        for (int i = 0; i < 10; i++) {
+            ItemRequestDto request = new ItemRequestDto();
+            request.setDescription("request " + i);
+            itemRequestService.create(request, requesterId);
+        }
+        Long viewerId = newUser();
+        List<Long> all = ids(itemRequestService.getAllExceptUser(viewerId, 0, 1000));
+
+        List<Long> page = ids(itemRequestService.getAllExceptUser(viewerId, 3, 4));
+
+        assertThat(page).isEqualTo(all.subList(3, 7));
+    }
+
+    @Test
+    void itemCannotReferenceMissingRequest() {
+        Long ownerId = newUser();
+
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "INSERT INTO items (id, name, description, is_available, owner_id, request_id) " +
+                        "VALUES (nextval('items_seq'), 'x', 'x', TRUE, ?, ?)", ownerId, Long.MAX_VALUE))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private Long newUser() {
+        return userService.createUser(new UserDto(null, "user", UUID.randomUUID() + "@example.com")).getId();
+    }
+
+    private static List<Long> ids(List<ItemRequestDto> requests) {
+        return requests.stream().map(ItemRequestDto::getId).toList();
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class UserEmailUniquenessTest {
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void createRejectsEmailOfLiveUser() {
+        String email = newEmail();
+        userService.createUser(new UserDto(null, "alice", email));
+
+        assertThatThrownBy(() -> userService.createUser(new UserDto(null, "alice2", email)))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining(email);
+    }
+
+    @Test
+    void emailOfSoftDeletedUserStaysTakenUntilPurge() {
+        String email = newEmail();
+        Long id = userService.createUser(new UserDto(null, "bob", email)).getId();
+        userService.deleteUser(id);
+
+        assertThatThrownBy(() -> userService.createUser(new UserDto(null, "bob2", email)))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void updateRejectsTakenEmailAndAcceptsFreeOne() {
+        String taken = newEmail();
+        userService.createUser(new UserDto(null, "carol", taken));
+        Long id = userService.createUser(new UserDto(null, "dave", newEmail())).getId();
+
+        assertThatThrownBy(() -> userService.updateUser(id, new UserDto(null, null, taken)))
+                .isInstanceOf(ValidationException.class);
+
+        String free = newEmail();
+        assertThat(userService.updateUser(id, new UserDto(null, null, free)).getEmail()).isEqualTo(free);
+    }
+
+    private static String newEmail() {
+        return UUID.randomUUID() + "@example.com";
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.user;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class UserLookupTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void repeatedLookupIsServedFromSecondLevelCache() {
+        Long id = newUser("alice").getId();
+        userService.getUserById(id);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long hitsBefore = statistics.getSecondLevelCacheHitCount();
+
+        assertThat(userService.getUserById(id).getName()).isEqualTo("alice");
+
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(hitsBefore);
+    }
+
+    @Test
+    void updatedUserIsNotReadStale() {
+        Long id = newUser("bob").getId();
+        userService.getUserById(id);
+
+        userService.updateUser(id, new UserDto(null, "robert", null));
+
+        assertThat(userService.getUserById(id).getName()).isEqualTo("robert");
+        assertThat(userService.getUsers(List.of(id))).extracting(UserDto::getName).containsExactly("robert");
+    }
+
+    @Test
+    void deletedUserIsNotReadFromCache() {
+        Long id = newUser("carol").getId();
+        userService.getUserById(id);
+
+        userService.deleteUser(id);
+
+        assertThatThrownBy(() -> userService.getUserById(id)).hasMessageContaining("User not found");
+        assertThat(userService.getUsers(List.of(id))).isEmpty();
+    }
+
+    @Test
+    void lookupKeepsRequestOrderAndSkipsMissing() {
+        Long first = newUser("first").getId();
+        Long second = newUser("second").getId();
+
+        List<UserDto> users = userService.getUsers(Arrays.asList(second, Long.MAX_VALUE, null, first, second));
+
+        assertThat(users).extracting(UserDto::getId).containsExactly(second, first);
+    }
+
+    private UserDto newUser(String name) {
+        return userService.createUser(new UserDto(null, name, UUID.randomUUID() + "@example.com"));
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitInterceptorTest {
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void requestWaitsForPermitReleasedWithinQueueTimeout() throws Exception {
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(1, 5_000);
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        interceptor.preHandle(first, response, new Object());
+
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() ->
+                interceptor.preHandle(new MockHttpServletRequest(), response, new Object()));
+        Thread.sleep(100);
+        assertThat(second).isNotDone();
+        interceptor.afterCompletion(first, response, new Object(), null);
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void requestIsRejectedWhenNoPermitFreesUp() {
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(1, 50);
+        interceptor.preHandle(new MockHttpServletRequest(), response, new Object());
+
+        assertThatThrownBy(() -> interceptor.preHandle(new MockHttpServletRequest(), response, new Object()))
+                .isInstanceOf(ServiceOverloadedException.class);
+    }
+
+    @Test
+    void asyncRedispatchDoesNotTakeSecondPermit() {
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(1, 0);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, response, new Object());
+
+        assertThat(interceptor.preHandle(request, response, new Object())).isTrue();
+        interceptor.afterCompletion(request, response, new Object(), null);
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), response, new Object())).isTrue();
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+
+    private Long ownerId;
+
+    @BeforeEach
+    void createOwner() {
+        String name = UUID.randomUUID().toString();
+        ownerId = userService.createUser(new UserDto(null, "owner", name + "@example.com")).getId();
+        itemService.create(ItemDto.builder().name("drill").description("drill").available(true).build(), ownerId);
+    }
+
+    @Test
+    void unchangedListIsNotModified() throws Exception {
+        String etag = ownerItemsEtag();
+
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", ownerId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void changeOnAnotherInstanceInvalidatesEtag() throws Exception {
+        String etag = ownerItemsEtag();
+
+        // Другой экземпляр приложения работает с той же БД, но со своими бинами
+        new ResourceVersions(jdbcTemplate).touchOwner(ownerId);
+
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", ownerId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void itemChangeInvalidatesEtag() throws Exception {
+        String etag = ownerItemsEtag();
+
+        itemService.create(ItemDto.builder().name("saw").description("saw").available(true).build(), ownerId);
+
+        assertThat(ownerItemsEtag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void userChangeInvalidatesEtagOfOwnerLists() throws Exception {
+        String etag = ownerItemsEtag();
+
+        userService.createUser(new UserDto(null, "other", UUID.randomUUID() + "@example.com"));
+
+        assertThat(ownerItemsEtag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void queryStringsWithSameHashCodeGetDifferentEtags() throws Exception {
+        // "Aa" и "BB" имеют одинаковый String.hashCode
+        assertThat("size=1&tag=Aa".hashCode()).isEqualTo("size=1&tag=BB".hashCode());
+        String etag = mockMvc.perform(get("/items?size=1&tag=Aa").header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/items?size=1&tag=Aa").header("X-Sharer-User-Id", ownerId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/items?size=1&tag=BB").header("X-Sharer-User-Id", ownerId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void malformedUserIdIsBadRequest() throws Exception {
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String ownerItemsEtag() throws Exception {
+        String etag = mockMvc.perform(get("/items").header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        return etag;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.web;
+
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitInterceptorTest {
+    private final RateLimitInterceptor interceptor = new RateLimitInterceptor(1, 2, 100, 50, 600_000, 100);
+
+    @Test
+    void malformedUserIdIsRejected() {
+        assertThatThrownBy(() -> handle(request("12abc")))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> handle(request("")))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void userIsLimitedAfterBurst() {
+        handle(request("1"));
+        handle(request("1"));
+
+        assertThatThrownBy(() -> handle(request("1"))).isInstanceOf(TooManyRequestsException.class);
+        // Лимит считается для каждого пользователя отдельно
+        assertThat(handle(request("2"))).isTrue();
+    }
+
+    @Test
+    void sameUserWithPaddedHeaderSharesBucket() {
+        handle(request("7"));
+        handle(request(" 7"));
+
+        assertThatThrownBy(() -> handle(request("07"))).isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void requestsWithoutHeaderUseAnonymousLimit() {
+        for (int i = 0; i < 50; i++) {
+            assertThat(handle(request(null))).isTrue();
+        }
+
+        assertThatThrownBy(() -> handle(request(null))).isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void numberOfBucketsIsBounded() {
+        for (int user = 0; user < 10_000; user++) {
+            handle(request(String.valueOf(user)));
+        }
+
+        assertThat(interceptor.trackedKeys()).isLessThanOrEqualTo(100);
+    }
+
+    private boolean handle(MockHttpServletRequest request) {
+        return interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+    }
+
+    private static MockHttpServletRequest request(String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/search");
+        if (userId != null) {
+            request.addHeader(UserIdHeader.NAME, userId);
+        }
+        return request;
+    }
+}